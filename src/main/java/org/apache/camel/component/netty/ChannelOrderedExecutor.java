@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelEvent;
+import org.jboss.netty.channel.ChannelState;
+import org.jboss.netty.channel.ChannelStateEvent;
+import org.jboss.netty.handler.execution.ChannelEventRunnable;
+import org.jboss.netty.handler.execution.ExecutionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the events submitted by an {@link ExecutionHandler} on another {@link Executor}, one at a time and in order
+ * for each channel, while the events of different channels run concurrently.
+ * <p/>
+ * This gives the ordering of the {@link org.jboss.netty.handler.execution.OrderedMemoryAwareThreadPoolExecutor}
+ * to any executor, such as one starting a thread for each task.
+ */
+public class ChannelOrderedExecutor implements Executor {
+    private static final transient Logger LOG = LoggerFactory.getLogger(ChannelOrderedExecutor.class);
+    private final Executor executor;
+    private final ConcurrentMap<Channel, ChildExecutor> childExecutors = new ConcurrentHashMap<Channel, ChildExecutor>();
+
+    public ChannelOrderedExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public void execute(Runnable task) {
+        if (!(task instanceof ChannelEventRunnable)) {
+            executor.execute(task);
+            return;
+        }
+
+        ChannelEvent event = ((ChannelEventRunnable) task).getEvent();
+        Channel channel = event.getChannel();
+        getChildExecutor(channel).execute(task);
+
+        // the child executor runs the remaining events of a closed channel but is no longer needed afterwards
+        if (event instanceof ChannelStateEvent && ((ChannelStateEvent) event).getState() == ChannelState.OPEN && !channel.isOpen()) {
+            childExecutors.remove(channel);
+        }
+    }
+
+    private ChildExecutor getChildExecutor(Channel channel) {
+        ChildExecutor answer = childExecutors.get(channel);
+        if (answer == null) {
+            answer = new ChildExecutor();
+            ChildExecutor existing = childExecutors.putIfAbsent(channel, answer);
+            if (existing != null) {
+                answer = existing;
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Queues the events of a channel and runs them on the executor, at most one at a time
+     */
+    private final class ChildExecutor implements Runnable {
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        void execute(Runnable task) {
+            tasks.add(task);
+            if (running.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    tasks.remove(task);
+                    running.set(false);
+                    throw e;
+                }
+            }
+        }
+
+        public void run() {
+            for (;;) {
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        LOG.warn("Unexpected exception while running channel event: " + task, e);
+                    }
+                }
+                running.set(false);
+                // a task may have been added after the queue was found empty but before the flag was cleared
+                if (tasks.isEmpty() || !running.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+    }
+}
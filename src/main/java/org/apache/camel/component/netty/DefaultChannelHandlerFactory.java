@@ -0,0 +1,42 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty;
+
+import org.jboss.netty.channel.ChannelDownstreamHandler;
+import org.jboss.netty.channel.ChannelEvent;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelUpstreamHandler;
+
+/**
+ * Base class for {@link ChannelHandlerFactory}s which can be added to the encoders or decoders
+ * of the {@link NettyConfiguration}.
+ * <p/>
+ * The factory itself must never be added to a pipeline, only the handlers it creates.
+ *
+ * @version 
+ */
+public abstract class DefaultChannelHandlerFactory implements ChannelHandlerFactory, ChannelUpstreamHandler, ChannelDownstreamHandler {
+
+    public void handleUpstream(ChannelHandlerContext ctx, ChannelEvent e) throws Exception {
+        throw new IllegalStateException("Should not be called on a ChannelHandlerFactory: " + this);
+    }
+
+    public void handleDownstream(ChannelHandlerContext ctx, ChannelEvent e) throws Exception {
+        throw new IllegalStateException("Should not be called on a ChannelHandlerFactory: " + this);
+    }
+
+}
@@ -18,11 +18,12 @@ package org.apache.camel.component.netty;
 
 import java.util.List;
 
-import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
 
 import org.apache.camel.AsyncCallback;
 import org.apache.camel.Exchange;
+import org.apache.camel.component.netty.codec.DeflateFrameDecoder;
+import org.apache.camel.component.netty.codec.DeflateFrameEncoder;
 import org.apache.camel.component.netty.handlers.ClientChannelHandler;
 import org.apache.camel.component.netty.ssl.SSLEngineFactory;
 import org.jboss.netty.channel.ChannelDownstreamHandler;
@@ -30,6 +31,7 @@ import org.jboss.netty.channel.ChannelPipeline;
 import org.jboss.netty.channel.ChannelUpstreamHandler;
 import org.jboss.netty.channel.Channels;
 import org.jboss.netty.handler.ssl.SslHandler;
+import org.jboss.netty.handler.stream.ChunkedWriteHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,20 +46,59 @@ public class DefaultClientPipelineFactory extends ClientPipelineFactory {
         // create a new pipeline
         ChannelPipeline channelPipeline = Channels.pipeline();
 
+        if (producer.getEndpoint().getStallDetector() != null) {
+            // must be first to time the handling of the events by the whole pipeline
+            channelPipeline.addLast("stallDetector", producer.getEndpoint().getStallDetector());
+        }
+        if (producer.getMetricsHandler() != null) {
+            // first after the stall detector so the bytes are counted as they are on the wire
+            channelPipeline.addLast("metrics", producer.getMetricsHandler());
+        }
+
         SslHandler sslHandler = configureClientSSLOnDemand();
         if (sslHandler != null) {
             LOG.debug("Client SSL handler configured and added to the ChannelPipeline");
             channelPipeline.addLast("ssl", sslHandler);
+            // starts the handshake when connected, times it out and records its outcome
+            channelPipeline.addLast("handshake", producer.getSslHandshakeHandler());
+        }
+        if (producer.getConfiguration().isCompression()) {
+            // compress after encoding and before encryption, each pipeline needs its own as they keep state
+            NettyConfiguration configuration = producer.getConfiguration();
+            channelPipeline.addLast("decompressor", new DeflateFrameDecoder(configuration.getMaxFrameLength()));
+            channelPipeline.addLast("compressor", new DeflateFrameEncoder(configuration.getCompressionLevel(), configuration.getCompressionThreshold()));
+        }
+        if (producer.getEndpoint().getWireTracer() != null) {
+            // records the buffers as they are on the wire, but decrypted and uncompressed
+            channelPipeline.addLast("wireTracer", producer.getEndpoint().getWireTracer());
+        }
+        if (producer.getConfiguration().isChunkedWrite()) {
+            // writes file bodies which cannot be written as a file region, in chunks
+            channelPipeline.addLast("chunkedWriter", new ChunkedWriteHandler());
         }
 
         List<ChannelUpstreamHandler> decoders = producer.getConfiguration().getDecoders();
         for (int x = 0; x < decoders.size(); x++) {
-            channelPipeline.addLast("decoder-" + x, decoders.get(x));
+            ChannelUpstreamHandler decoder = decoders.get(x);
+            if (decoder instanceof ChannelHandlerFactory) {
+                // use a new instance of those decoders which keeps state
+                decoder = (ChannelUpstreamHandler) ((ChannelHandlerFactory) decoder).newChannelHandler();
+            }
+            channelPipeline.addLast("decoder-" + x, decoder);
         }
 
         List<ChannelDownstreamHandler> encoders = producer.getConfiguration().getEncoders();
         for (int x = 0; x < encoders.size(); x++) {
-            channelPipeline.addLast("encoder-" + x, encoders.get(x));
+            ChannelDownstreamHandler encoder = encoders.get(x);
+            if (encoder instanceof ChannelHandlerFactory) {
+                // use a new instance of those encoders which keeps state
+                encoder = (ChannelDownstreamHandler) ((ChannelHandlerFactory) encoder).newChannelHandler();
+            }
+            channelPipeline.addLast("encoder-" + x, encoder);
+        }
+
+        if (producer.getExecutionHandler() != null) {
+            channelPipeline.addLast("executor", producer.getExecutionHandler());
         }
 
         // our handler must be added last
@@ -73,28 +114,25 @@ public class DefaultClientPipelineFactory extends ClientPipelineFactory {
 
         if (producer.getConfiguration().getSslHandler() != null) {
             return producer.getConfiguration().getSslHandler();
-        } else if (producer.getConfiguration().getSslContextParameters() != null) {
-            SSLContext context = producer.getConfiguration().getSslContextParameters().createSSLContext();
-            SSLEngine engine = context.createSSLEngine();
-            engine.setUseClientMode(true);
-            return new SslHandler(engine);
         } else {
-            if (producer.getConfiguration().getKeyStoreFile() == null) {
-                LOG.debug("keystorefile is null");
-            }
-            if (producer.getConfiguration().getTrustStoreFile() == null) {
-                LOG.debug("truststorefile is null");
+            if (producer.getConfiguration().getSslContextParameters() == null) {
+                if (producer.getConfiguration().getKeyStoreFile() == null) {
+                    LOG.debug("keystorefile is null");
+                }
+                if (producer.getConfiguration().getTrustStoreFile() == null) {
+                    LOG.debug("truststorefile is null");
+                }
+                if (producer.getConfiguration().getPassphrase() == null) {
+                    LOG.debug("passphrase is null");
+                }
             }
-            if (producer.getConfiguration().getPassphrase().toCharArray() == null) {
-                LOG.debug("passphrase is null");
+            // the context is built once and shared by the connections
+            SSLEngineFactory sslEngineFactory = producer.getEndpoint().getComponent().getSSLEngineFactory(producer.getConfiguration());
+            // the peer address lets the engine resume a cached session with the same server
+            SSLEngine sslEngine = sslEngineFactory.createClientSSLEngine(producer.getConfiguration().getHost(), producer.getConfiguration().getPort());
+            if (producer.getSslDelegatedTaskExecutor() != null) {
+                return new SslHandler(sslEngine, producer.getSslDelegatedTaskExecutor());
             }
-            SSLEngineFactory sslEngineFactory = new SSLEngineFactory(
-                producer.getConfiguration().getKeyStoreFormat(),
-                producer.getConfiguration().getSecurityProvider(),
-                producer.getConfiguration().getKeyStoreFile(),
-                producer.getConfiguration().getTrustStoreFile(),
-                producer.getConfiguration().getPassphrase().toCharArray());
-            SSLEngine sslEngine = sslEngineFactory.createClientSSLEngine();
             return new SslHandler(sslEngine);
         }
     }
@@ -18,9 +18,11 @@ package org.apache.camel.component.netty;
 
 import java.util.List;
 
-import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
 
+import org.apache.camel.component.netty.codec.DeflateFrameDecoder;
+import org.apache.camel.component.netty.codec.DeflateFrameEncoder;
+import org.apache.camel.component.netty.handlers.PortUnificationHandler;
 import org.apache.camel.component.netty.handlers.ServerChannelHandler;
 import org.apache.camel.component.netty.ssl.SSLEngineFactory;
 import org.jboss.netty.channel.ChannelDownstreamHandler;
@@ -29,6 +31,7 @@ import org.jboss.netty.channel.ChannelPipelineFactory;
 import org.jboss.netty.channel.ChannelUpstreamHandler;
 import org.jboss.netty.channel.Channels;
 import org.jboss.netty.handler.ssl.SslHandler;
+import org.jboss.netty.handler.stream.ChunkedWriteHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,19 +46,73 @@ public class DefaultServerPipelineFactory implements ChannelPipelineFactory {
     public ChannelPipeline getPipeline() throws Exception {
         ChannelPipeline channelPipeline = Channels.pipeline();
 
+        if (consumer.getEndpoint().getStallDetector() != null) {
+            // must be first to time the handling of the events by the whole pipeline
+            channelPipeline.addLast("stallDetector", consumer.getEndpoint().getStallDetector());
+        }
+        if (consumer.getMetricsHandler() != null) {
+            // before any codec so the bytes are counted as they are on the wire
+            channelPipeline.addLast("metrics", consumer.getMetricsHandler());
+        }
+
+        if (consumer.getConfiguration().isPortUnification()) {
+            if (consumer.getEndpoint().getWireTracer() != null) {
+                // the protocol is not known yet so the buffers are recorded as they are on the wire
+                channelPipeline.addLast("wireTracer", consumer.getEndpoint().getWireTracer());
+            }
+            // the encoders and decoders are installed when the protocol of the connection has been detected
+            channelPipeline.addLast("unification", new PortUnificationHandler(consumer.getConfiguration(), configureServerSSLOnDemand(),
+                consumer.getSslHandshakeHandler()));
+            if (consumer.getExecutionHandler() != null) {
+                channelPipeline.addLast("executor", consumer.getExecutionHandler());
+            }
+            channelPipeline.addLast("handler", new ServerChannelHandler(consumer));
+            return channelPipeline;
+        }
+
         SslHandler sslHandler = configureServerSSLOnDemand();
         if (sslHandler != null) {
             LOG.debug("Server SSL handler configured and added as an interceptor against the ChannelPipeline");
             channelPipeline.addLast("ssl", sslHandler);            
+            // starts the handshake when connected, times it out and records its outcome
+            channelPipeline.addLast("handshake", consumer.getSslHandshakeHandler());
+        }
+        if (consumer.getConfiguration().isCompression()) {
+            // compress after encoding and before encryption, each pipeline needs its own as they keep state
+            NettyConfiguration configuration = consumer.getConfiguration();
+            channelPipeline.addLast("decompressor", new DeflateFrameDecoder(configuration.getMaxFrameLength()));
+            channelPipeline.addLast("compressor", new DeflateFrameEncoder(configuration.getCompressionLevel(), configuration.getCompressionThreshold()));
+        }
+        if (consumer.getEndpoint().getWireTracer() != null) {
+            // records the buffers as they are on the wire, but decrypted and uncompressed
+            channelPipeline.addLast("wireTracer", consumer.getEndpoint().getWireTracer());
+        }
+        if (consumer.getConfiguration().isChunkedWrite()) {
+            // writes file bodies which cannot be written as a file region, in chunks
+            channelPipeline.addLast("chunkedWriter", new ChunkedWriteHandler());
         }
         List<ChannelDownstreamHandler> encoders = consumer.getConfiguration().getEncoders();
         for (int x = 0; x < encoders.size(); x++) {
-            channelPipeline.addLast("encoder-" + x, encoders.get(x));
+            ChannelDownstreamHandler encoder = encoders.get(x);
+            if (encoder instanceof ChannelHandlerFactory) {
+                // use a new instance of those encoders which keeps state
+                encoder = (ChannelDownstreamHandler) ((ChannelHandlerFactory) encoder).newChannelHandler();
+            }
+            channelPipeline.addLast("encoder-" + x, encoder);
         }
 
         List<ChannelUpstreamHandler> decoders = consumer.getConfiguration().getDecoders();
         for (int x = 0; x < decoders.size(); x++) {
-            channelPipeline.addLast("decoder-" + x, decoders.get(x));
+            ChannelUpstreamHandler decoder = decoders.get(x);
+            if (decoder instanceof ChannelHandlerFactory) {
+                // use a new instance of those decoders which keeps state
+                decoder = (ChannelUpstreamHandler) ((ChannelHandlerFactory) decoder).newChannelHandler();
+            }
+            channelPipeline.addLast("decoder-" + x, decoder);
+        }
+
+        if (consumer.getExecutionHandler() != null) {
+            channelPipeline.addLast("executor", consumer.getExecutionHandler());
         }
 
         // our handler must be added last
@@ -71,19 +128,13 @@ public class DefaultServerPipelineFactory implements ChannelPipelineFactory {
 
         if (consumer.getConfiguration().getSslHandler() != null) {
             return consumer.getConfiguration().getSslHandler();
-        } else if (consumer.getConfiguration().getSslContextParameters() != null) {
-            SSLContext context = consumer.getConfiguration().getSslContextParameters().createSSLContext();
-            SSLEngine engine = context.createSSLEngine();
-            engine.setUseClientMode(false);
-            return new SslHandler(engine);
         } else {
-            SSLEngineFactory sslEngineFactory = new SSLEngineFactory(
-                consumer.getConfiguration().getKeyStoreFormat(),
-                consumer.getConfiguration().getSecurityProvider(),
-                consumer.getConfiguration().getKeyStoreFile(), 
-                consumer.getConfiguration().getTrustStoreFile(), 
-                consumer.getConfiguration().getPassphrase().toCharArray());
+            // the context is built once and shared by the connections
+            SSLEngineFactory sslEngineFactory = consumer.getEndpoint().getComponent().getSSLEngineFactory(consumer.getConfiguration());
             SSLEngine sslEngine = sslEngineFactory.createServerSSLEngine();
+            if (consumer.getSslDelegatedTaskExecutor() != null) {
+                return new SslHandler(sslEngine, consumer.getSslDelegatedTaskExecutor());
+            }
             return new SslHandler(sslEngine);
         }
     }
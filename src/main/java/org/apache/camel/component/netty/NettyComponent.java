@@ -17,11 +17,16 @@
 package org.apache.camel.component.netty;
 
 import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.camel.CamelContext;
 import org.apache.camel.Endpoint;
+import org.apache.camel.component.netty.buffer.SlabDirectChannelBufferFactory;
+import org.apache.camel.component.netty.ssl.SSLEngineFactory;
 import org.apache.camel.impl.DefaultComponent;
+import org.jboss.netty.buffer.ChannelBufferFactory;
 import org.jboss.netty.util.HashedWheelTimer;
 import org.jboss.netty.util.Timer;
 
@@ -29,6 +34,8 @@ public class NettyComponent extends DefaultComponent {
     // use a shared timer for Netty (see javadoc for HashedWheelTimer)
     private static volatile Timer timer;
     private NettyConfiguration configuration;
+    private ChannelBufferFactory slabBufferFactory;
+    private final Map<Object, SSLEngineFactory> sslEngineFactories = new HashMap<Object, SSLEngineFactory>();
 
     public NettyComponent() {
     }
@@ -62,6 +69,61 @@ public class NettyComponent extends DefaultComponent {
         this.configuration = configuration;
     }
 
+    /**
+     * Gets the slab buffer factory which is shared by all endpoints using <tt>bufferFactory=slab</tt>
+     */
+    public synchronized ChannelBufferFactory getSlabBufferFactory() {
+        if (slabBufferFactory == null) {
+            slabBufferFactory = new SlabDirectChannelBufferFactory();
+        }
+        return slabBufferFactory;
+    }
+
+    public synchronized void setSlabBufferFactory(ChannelBufferFactory slabBufferFactory) {
+        this.slabBufferFactory = slabBufferFactory;
+    }
+
+    /**
+     * Gets the factory for the SSL engines of the endpoint, which is shared by all endpoints using the same
+     * key stores or {@link org.apache.camel.util.jsse.SSLContextParameters} and the same session and reload
+     * options, so the context is only built once.
+     * A factory configured using the <tt>sslEngineFactory</tt> option is used as is.
+     */
+    public synchronized SSLEngineFactory getSSLEngineFactory(NettyConfiguration configuration) throws Exception {
+        if (configuration.getSslEngineFactory() != null) {
+            return configuration.getSslEngineFactory();
+        }
+
+        // the session options are set on the context, so endpoints using other values need their own
+        Object key;
+        if (configuration.getSslContextParameters() != null) {
+            key = Arrays.asList(configuration.getSslContextParameters(),
+                configuration.getSslSessionCacheSize(), configuration.getSslSessionTimeout());
+        } else {
+            key = Arrays.asList(configuration.getKeyStoreFormat(), configuration.getSecurityProvider(),
+                configuration.getKeyStoreFile(), configuration.getTrustStoreFile(), configuration.getPassphrase(),
+                configuration.getSslSessionCacheSize(), configuration.getSslSessionTimeout(), configuration.getSslReloadInterval());
+        }
+
+        SSLEngineFactory answer = sslEngineFactories.get(key);
+        if (answer == null) {
+            if (configuration.getSslContextParameters() != null) {
+                answer = new SSLEngineFactory(configuration.getSslContextParameters().createSSLContext());
+            } else {
+                String passphrase = configuration.getPassphrase();
+                answer = new SSLEngineFactory(configuration.getKeyStoreFormat(), configuration.getSecurityProvider(),
+                    configuration.getKeyStoreFile(), configuration.getTrustStoreFile(), passphrase != null ? passphrase.toCharArray() : null);
+                if (configuration.getSslReloadInterval() > 0 && timer != null) {
+                    answer.scheduleReload(timer, configuration.getSslReloadInterval());
+                }
+            }
+            answer.setSessionCacheSize(configuration.getSslSessionCacheSize());
+            answer.setSessionTimeout(configuration.getSslSessionTimeout());
+            sslEngineFactories.put(key, answer);
+        }
+        return answer;
+    }
+
     public static Timer getTimer() {
         return timer;
     }
@@ -78,6 +140,9 @@ public class NettyComponent extends DefaultComponent {
     protected void doStop() throws Exception {
         timer.stop();
         timer = null;
+        synchronized (this) {
+            sslEngineFactories.clear();
+        }
         super.doStop();
     }
 
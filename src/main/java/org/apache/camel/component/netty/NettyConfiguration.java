@@ -25,16 +25,34 @@ import java.util.Map;
 
 import org.apache.camel.LoggingLevel;
 import org.apache.camel.RuntimeCamelException;
+import org.apache.camel.component.netty.codec.CharSequenceDecoder;
+import org.apache.camel.component.netty.codec.ChunkedStreamDecoder;
+import org.apache.camel.component.netty.codec.ChunkedStreamEncoder;
+import org.apache.camel.component.netty.codec.CompactClassRegistry;
+import org.apache.camel.component.netty.codec.CompactExchangeDecoder;
+import org.apache.camel.component.netty.codec.CompactExchangeEncoder;
+import org.apache.camel.component.netty.codec.CompactObjectCodec;
+import org.apache.camel.component.netty.codec.CompactObjectDecoder;
+import org.apache.camel.component.netty.codec.CompactObjectEncoder;
+import org.apache.camel.component.netty.codec.DeflateFrameDecoder;
+import org.apache.camel.component.netty.codec.DeflateFrameEncoder;
+import org.apache.camel.component.netty.codec.LengthFieldPrependedFrameDecoder;
+import org.apache.camel.component.netty.codec.LengthFieldPrependedFrameEncoder;
+import org.apache.camel.component.netty.codec.TextlineDictionary;
+import org.apache.camel.component.netty.codec.TextlineEncoder;
+import org.apache.camel.component.netty.codec.TextlineFrameDecoder;
+import org.apache.camel.component.netty.ssl.SSLEngineFactory;
 import org.apache.camel.util.EndpointHelper;
 import org.apache.camel.util.jsse.SSLContextParameters;
+import org.jboss.netty.buffer.ChannelBufferFactory;
+import org.jboss.netty.buffer.DirectChannelBufferFactory;
+import org.jboss.netty.buffer.HeapChannelBufferFactory;
 import org.jboss.netty.channel.ChannelDownstreamHandler;
+import org.jboss.netty.channel.ChannelHandler;
 import org.jboss.netty.channel.ChannelUpstreamHandler;
-import org.jboss.netty.handler.codec.frame.DelimiterBasedFrameDecoder;
-import org.jboss.netty.handler.codec.frame.Delimiters;
 import org.jboss.netty.handler.codec.serialization.ObjectDecoder;
 import org.jboss.netty.handler.codec.serialization.ObjectEncoder;
 import org.jboss.netty.handler.codec.string.StringDecoder;
-import org.jboss.netty.handler.codec.string.StringEncoder;
 import org.jboss.netty.handler.ssl.SslHandler;
 import org.jboss.netty.util.CharsetUtil;
 import org.slf4j.Logger;
@@ -42,6 +60,10 @@ import org.slf4j.LoggerFactory;
 
 @SuppressWarnings("unchecked")
 public class NettyConfiguration implements Cloneable {
+    public static final String CODEC_LENGTH_FIELD_PREPENDED = "lengthFieldPrepended";
+    public static final String CODEC_COMPACT_OBJECT = "compactObject";
+    public static final String TRANSFER_EXCHANGE_FORMAT_JAVA = "java";
+    public static final String TRANSFER_EXCHANGE_FORMAT_COMPACT = "compact";
     private static final transient Logger LOG = LoggerFactory.getLogger(NettyConfiguration.class);
 
     private String protocol;
@@ -57,18 +79,33 @@ public class NettyConfiguration implements Cloneable {
     private boolean textline;
     private TextLineDelimiter delimiter = TextLineDelimiter.LINE;
     private boolean autoAppendDelimiter = true;
+    private String customDelimiter;
+    private boolean textlineEncoder;
+    private boolean textlineCharSequence;
+    private boolean portUnification;
+    private List<ChannelDownstreamHandler> textlineEncoders;
+    private List<ChannelUpstreamHandler> textlineDecoders;
+    private List<ChannelDownstreamHandler> objectEncoders;
+    private List<ChannelUpstreamHandler> objectDecoders;
     private int decoderMaxLineLength = 1024;
     private String encoding;
+    private String charsetName;
     private String passphrase;
     private File keyStoreFile;
     private File trustStoreFile;
     private SslHandler sslHandler;
+    private SSLEngineFactory sslEngineFactory;
     private List<ChannelDownstreamHandler> encoders = new ArrayList<ChannelDownstreamHandler>();
     private List<ChannelUpstreamHandler> decoders = new ArrayList<ChannelUpstreamHandler>();
     private boolean ssl;
     private long sendBufferSize = 65536;
     private long receiveBufferSize = 65536;
     private int receiveBufferSizePredictor;
+    private boolean adaptiveReceiveBufferSizePredictor;
+    private int receiveBufferSizePredictorMinimum = 64;
+    private int receiveBufferSizePredictorInitial = 1024;
+    private int receiveBufferSizePredictorMaximum = 65536;
+    private ChannelBufferFactory bufferFactory;
     private int corePoolSize = 10;
     private int maxPoolSize = 100;
     private int workerCount;
@@ -77,12 +114,45 @@ public class NettyConfiguration implements Cloneable {
     private boolean disconnect;
     private boolean lazyChannelCreation = true;
     private boolean transferExchange;
+    private String transferExchangeFormat = TRANSFER_EXCHANGE_FORMAT_JAVA;
     private boolean disconnectOnNoReply = true;
     private LoggingLevel noReplyLogLevel = LoggingLevel.WARN;
     private boolean allowDefaultCodec = true;
+    private boolean raw;
+    private String codec;
+    private int lengthFieldOffset;
+    private int lengthFieldLength = 4;
+    private boolean lengthFieldVarint;
+    private int lengthAdjustment;
+    private int maxFrameLength = 1048576;
+    private CompactClassRegistry compactClassRegistry;
+    private int headerTableSize;
+    private int chunkSize = 8192;
+    private boolean streaming;
+    private int streamingBufferSize = 65536;
+    private int spillThreshold;
+    private boolean compression;
+    private int compressionLevel = -1;
+    private int compressionThreshold = 512;
+    private File textlineDictionary;
+    private File textlineDictionarySample;
+    private int textlineDictionarySize = 16384;
+    private File spillDirectory;
     private ClientPipelineFactory clientPipelineFactory;
     private ServerPipelineFactory serverPipelineFactory;
     private SSLContextParameters sslContextParameters;
+    private long sslReloadInterval = 10000;
+    private int sslSessionCacheSize = -1;
+    private int sslSessionTimeout = -1;
+    private long sslHandshakeTimeout = 10000;
+    private int sslDelegatedTaskPoolSize = 4;
+    private boolean virtualThreads;
+    private boolean orderedExecution;
+    private boolean metrics;
+    private int metricsMaxRemoteAddresses = 100;
+    private long stallThreshold;
+    private int wireTraceSize;
+    private int wireTraceBytes = 32;
     
     /**
      * Returns a copy of this configuration
@@ -113,6 +183,9 @@ public class NettyConfiguration implements Cloneable {
         
         localName = component.resolveAndRemoveReferenceParameter(parameters, "localName", String.class, "netty");
         sslHandler = component.resolveAndRemoveReferenceParameter(parameters, "sslHandler", SslHandler.class, null);
+        // an sslEngineFactory on the uri implies ssl, unless ssl is configured as well
+        boolean impliesSsl = parameters.containsKey("sslEngineFactory") && !parameters.containsKey("ssl");
+        sslEngineFactory = component.resolveAndRemoveReferenceParameter(parameters, "sslEngineFactory", SSLEngineFactory.class, sslEngineFactory);
         passphrase = component.resolveAndRemoveReferenceParameter(parameters, "passphrase", String.class, null);
         keyStoreFormat = component.getAndRemoveParameter(parameters, "keyStoreFormat", String.class, "JKS");
         securityProvider = component.getAndRemoveParameter(parameters, "securityProvider", String.class, "SunX509");
@@ -120,6 +193,10 @@ public class NettyConfiguration implements Cloneable {
         trustStoreFile = component.resolveAndRemoveReferenceParameter(parameters, "trustStoreFile", File.class, null);
         clientPipelineFactory = component.resolveAndRemoveReferenceParameter(parameters, "clientPipelineFactory", ClientPipelineFactory.class, null);
         serverPipelineFactory = component.resolveAndRemoveReferenceParameter(parameters, "serverPipelineFactory", ServerPipelineFactory.class, null);
+        String bufferFactoryName = component.getAndRemoveParameter(parameters, "bufferFactory", String.class, null);
+        if (bufferFactoryName != null) {
+            bufferFactory = resolveBufferFactory(bufferFactoryName, component);
+        }
 
         // set custom encoders and decoders first
         List<ChannelDownstreamHandler> referencedEncoders = component.resolveAndRemoveReferenceListParameter(parameters, "encoders", ChannelDownstreamHandler.class, null);
@@ -131,20 +208,86 @@ public class NettyConfiguration implements Cloneable {
         EndpointHelper.setReferenceProperties(component.getCamelContext(), this, parameters);
         EndpointHelper.setProperties(component.getCamelContext(), this, parameters);
 
+        if (impliesSsl) {
+            ssl = true;
+        }
+        if (sslHandler != null) {
+            if (sslEngineFactory != null) {
+                throw new IllegalArgumentException("The sslHandler and sslEngineFactory options cannot be combined for uri: " + uri);
+            }
+            LOG.warn("The sslHandler is shared by all the connections of the endpoint, which only works for one connection at a time."
+                + " Use the sslEngineFactory option to create an SSLEngine for each connection instead, for uri: {}", uri);
+        }
+        if (raw && (textline || transferExchange)) {
+            throw new IllegalArgumentException("The raw option cannot be combined with textline or transferExchange for uri: " + uri);
+        }
+        if (codec != null && textline) {
+            throw new IllegalArgumentException("The codec option cannot be combined with textline for uri: " + uri);
+        }
+        if (streaming && (raw || textline || transferExchange || codec != null)) {
+            throw new IllegalArgumentException("The streaming option cannot be combined with raw, textline, transferExchange or codec for uri: " + uri);
+        }
+        if (streaming && isUdp()) {
+            throw new IllegalArgumentException("The streaming option cannot be used with udp for uri: " + uri);
+        }
+        if (isCompactTransferExchange()) {
+            // the compact exchange holder is written by the compact object codec
+            if (codec == null && encoders.isEmpty() && decoders.isEmpty()) {
+                codec = CODEC_COMPACT_OBJECT;
+            } else if (codec != null && !CODEC_COMPACT_OBJECT.equalsIgnoreCase(codec)) {
+                throw new IllegalArgumentException("The compact transferExchangeFormat requires the compactObject codec for uri: " + uri);
+            }
+        } else if (!TRANSFER_EXCHANGE_FORMAT_JAVA.equalsIgnoreCase(transferExchangeFormat)) {
+            throw new IllegalArgumentException("Unknown transferExchangeFormat: " + transferExchangeFormat + " for uri: " + uri);
+        }
+        if (textlineCharSequence && !textline && !portUnification) {
+            throw new IllegalArgumentException("The textlineCharSequence option requires textline or portUnification for uri: " + uri);
+        }
+        if (customDelimiter != null && customDelimiter.length() == 0) {
+            throw new IllegalArgumentException("The customDelimiter option must not be empty for uri: " + uri);
+        }
+        if ((textlineDictionary != null || textlineDictionarySample != null) && (!textline || compression)) {
+            throw new IllegalArgumentException("The textlineDictionary and textlineDictionarySample options require textline=true and compression=false for uri: " + uri);
+        }
+        if (portUnification) {
+            addPortUnificationCodecs(uri);
+        }
+        // the compact object decoder copies the spilled frame back to the heap when reading the objects
+        if (spillThreshold > 0 && !CODEC_LENGTH_FIELD_PREPENDED.equalsIgnoreCase(codec)) {
+            throw new IllegalArgumentException("The spillThreshold option requires the lengthFieldPrepended codec for uri: " + uri);
+        }
+        if (headerTableSize > 0) {
+            // the header tables of both sides must see the same messages in the same order
+            if (isUdp()) {
+                throw new IllegalArgumentException("The headerTableSize option cannot be used with udp for uri: " + uri);
+            }
+            if (!CODEC_COMPACT_OBJECT.equalsIgnoreCase(codec)) {
+                throw new IllegalArgumentException("The headerTableSize option requires the compactObject codec for uri: " + uri);
+            }
+        }
+
         // add default encoders and decoders
         if (encoders.isEmpty() && decoders.isEmpty()) {
-            if (allowDefaultCodec) {
+            if (codec != null) {
+                addCodec(uri);
+            } else if (raw) {
+                LOG.debug("Using raw mode so no encoders and decoders will be used");
+            } else if (streaming) {
+                encoders.add(new ChunkedStreamEncoder(chunkSize));
+                // the decoder keeps state so each pipeline must have its own
+                decoders.add(new DefaultChannelHandlerFactory() {
+                    public ChannelHandler newChannelHandler() {
+                        return new ChunkedStreamDecoder(maxFrameLength, streamingBufferSize);
+                    }
+                });
+
+                LOG.debug("Using streaming encoders and decoders with chunkSize: {} and streamingBufferSize: {}", chunkSize, streamingBufferSize);
+            } else if (allowDefaultCodec) {
                 // are we textline or object?
                 if (isTextline()) {
                     Charset charset = getEncoding() != null ? Charset.forName(getEncoding()) : CharsetUtil.UTF_8;
-                    encoders.add(new StringEncoder(charset));
-                    decoders.add(new DelimiterBasedFrameDecoder(decoderMaxLineLength, true, delimiter == TextLineDelimiter.LINE ? Delimiters.lineDelimiter() : Delimiters.nulDelimiter()));
-                    decoders.add(new StringDecoder(charset));
-
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("Using textline encoders and decoders with charset: {}, delimiter: {} and decoderMaxLineLength: {}", 
-                                new Object[]{charset, delimiter, decoderMaxLineLength});
-                    }
+                    addTextlineCompression(charset);
+                    addTextlineCodec(encoders, decoders, charset);
                 } else {
                     // object serializable is then used
                     encoders.add(new ObjectEncoder());
@@ -160,15 +303,185 @@ public class NettyConfiguration implements Cloneable {
         }
     }
 
+    private void addTextlineCodec(List<ChannelDownstreamHandler> encoderList, List<ChannelUpstreamHandler> decoderList, Charset charset) throws Exception {
+        // the encoder appends the delimiter so the bodies are not copied to do so
+        encoderList.add(new TextlineEncoder(charset, getTextlineDelimiter(), autoAppendDelimiter));
+        textlineEncoder = true;
+        // the line delimiter also matches \r\n, as the lines may come from any platform
+        final byte[] delimiterBytes = getTextlineDelimiter().getBytes(charset.name());
+        final boolean stripCarriageReturn = customDelimiter == null && delimiter == TextLineDelimiter.LINE;
+        // the decoder keeps state so each pipeline must have its own
+        decoderList.add(new DefaultChannelHandlerFactory() {
+            public ChannelHandler newChannelHandler() {
+                return new TextlineFrameDecoder(decoderMaxLineLength, delimiterBytes, stripCarriageReturn);
+            }
+        });
+        if (textlineCharSequence) {
+            // the lines are only decoded if the characters are used
+            decoderList.add(new CharSequenceDecoder(charset));
+        } else {
+            decoderList.add(new StringDecoder(charset));
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Using textline encoders and decoders with charset: {}, delimiter: {} and decoderMaxLineLength: {}", 
+                    new Object[]{charset, customDelimiter != null ? customDelimiter : delimiter, decoderMaxLineLength});
+        }
+    }
+
+    private void addPortUnificationCodecs(URI uri) throws Exception {
+        if (!isTcp()) {
+            throw new IllegalArgumentException("The portUnification option requires tcp for uri: " + uri);
+        }
+        if (textline || raw || streaming || transferExchange || compression) {
+            throw new IllegalArgumentException("The portUnification option cannot be combined with textline, raw, streaming, transferExchange or compression for uri: " + uri);
+        }
+        // the configured codec is used for binary connections
+        if (codec == null && encoders.isEmpty() && decoders.isEmpty()) {
+            codec = CODEC_LENGTH_FIELD_PREPENDED;
+        }
+        // binary connections are told apart from textline by the zero byte their length field starts with,
+        // so the frames must start with a fixed 4 or 8 byte length field which cannot reach 16mb
+        if (codec == null) {
+            throw new IllegalArgumentException("The portUnification option cannot be combined with custom encoders and decoders for uri: " + uri);
+        }
+        if (lengthFieldVarint || (lengthFieldLength != 4 && lengthFieldLength != 8)) {
+            throw new IllegalArgumentException("The portUnification option requires a lengthFieldLength of 4 or 8 bytes for uri: " + uri);
+        }
+        if (isLengthFieldPrepended() && lengthFieldOffset != 0) {
+            throw new IllegalArgumentException("The portUnification option requires the length field to be first, a lengthFieldOffset of 0, for uri: " + uri);
+        }
+        long maxLength = (long) maxFrameLength - (isLengthFieldPrepended() ? lengthAdjustment : 0);
+        if (lengthFieldLength == 4 && maxLength > 0xFFFFFF) {
+            throw new IllegalArgumentException("The portUnification option requires a maxFrameLength below 16mb with a 4 byte length field for uri: " + uri);
+        }
+
+        textlineEncoders = new ArrayList<ChannelDownstreamHandler>();
+        textlineDecoders = new ArrayList<ChannelUpstreamHandler>();
+        addTextlineCodec(textlineEncoders, textlineDecoders, getEncoding() != null ? Charset.forName(getEncoding()) : CharsetUtil.UTF_8);
+
+        objectEncoders = new ArrayList<ChannelDownstreamHandler>();
+        objectDecoders = new ArrayList<ChannelUpstreamHandler>();
+        objectEncoders.add(new ObjectEncoder());
+        // the decoder keeps state so each pipeline must have its own
+        objectDecoders.add(new DefaultChannelHandlerFactory() {
+            public ChannelHandler newChannelHandler() {
+                return new ObjectDecoder();
+            }
+        });
+    }
+
+    private void addCodec(URI uri) {
+        if (CODEC_LENGTH_FIELD_PREPENDED.equalsIgnoreCase(codec)) {
+            addLengthFieldFraming(lengthFieldOffset, lengthAdjustment);
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Using length field prepended encoders and decoders with lengthFieldOffset: {}, lengthFieldLength: {}, lengthAdjustment: {} and maxFrameLength: {}",
+                        new Object[]{lengthFieldOffset, lengthFieldVarint ? "varint" : lengthFieldLength, lengthAdjustment, maxFrameLength});
+            }
+        } else if (CODEC_COMPACT_OBJECT.equalsIgnoreCase(codec)) {
+            if (compactClassRegistry == null) {
+                compactClassRegistry = new CompactClassRegistry();
+            }
+            // the objects are framed using the length field, which must be first in the lists
+            addLengthFieldFraming(0, 0);
+            final CompactObjectCodec objectCodec = new CompactObjectCodec(compactClassRegistry);
+            if (headerTableSize > 0) {
+                // the header tables are per connection
+                encoders.add(new DefaultChannelHandlerFactory() {
+                    public ChannelHandler newChannelHandler() {
+                        return new CompactExchangeEncoder(objectCodec, headerTableSize);
+                    }
+                });
+                decoders.add(new DefaultChannelHandlerFactory() {
+                    public ChannelHandler newChannelHandler() {
+                        return new CompactExchangeDecoder(objectCodec, headerTableSize);
+                    }
+                });
+            } else {
+                encoders.add(new CompactObjectEncoder(objectCodec));
+                decoders.add(new CompactObjectDecoder(objectCodec));
+            }
+
+            LOG.debug("Using compact object encoders and decoders with registered classes: {} and headerTableSize: {}", compactClassRegistry.getClassNames(), headerTableSize);
+        } else {
+            throw new IllegalArgumentException("Unknown codec: " + codec + " for uri: " + uri);
+        }
+    }
+
+    private void addTextlineCompression(Charset charset) throws Exception {
+        final byte[] dictionary;
+        if (textlineDictionary != null) {
+            dictionary = TextlineDictionary.load(textlineDictionary);
+        } else if (textlineDictionarySample != null) {
+            dictionary = TextlineDictionary.train(textlineDictionarySample, charset, textlineDictionarySize);
+        } else {
+            return;
+        }
+        if (dictionary.length == 0) {
+            throw new IllegalArgumentException("The textline dictionary is empty");
+        }
+
+        // the lines are compressed after being encoded, and each pipeline needs its own as they keep state
+        encoders.add(new DefaultChannelHandlerFactory() {
+            public ChannelHandler newChannelHandler() {
+                // short lines are what the dictionary is for, so there is no threshold
+                return new DeflateFrameEncoder(compressionLevel, 0, dictionary);
+            }
+        });
+        decoders.add(new DefaultChannelHandlerFactory() {
+            public ChannelHandler newChannelHandler() {
+                return new DeflateFrameDecoder(maxFrameLength, dictionary);
+            }
+        });
+        LOG.debug("Using textline compression with a dictionary of {} bytes", dictionary.length);
+    }
+
+    private void addLengthFieldFraming(final int offset, final int adjustment) {
+        final int fieldLength = lengthFieldVarint ? 0 : lengthFieldLength;
+        encoders.add(new LengthFieldPrependedFrameEncoder(offset, fieldLength, adjustment));
+        // the decoder keeps state so each pipeline must have its own
+        decoders.add(new DefaultChannelHandlerFactory() {
+            public ChannelHandler newChannelHandler() {
+                return new LengthFieldPrependedFrameDecoder(maxFrameLength, offset, fieldLength, adjustment, spillThreshold, spillDirectory);
+            }
+        });
+    }
+
+    private ChannelBufferFactory resolveBufferFactory(String name, NettyComponent component) {
+        if ("heap".equalsIgnoreCase(name)) {
+            return HeapChannelBufferFactory.getInstance();
+        } else if ("direct".equalsIgnoreCase(name)) {
+            return DirectChannelBufferFactory.getInstance();
+        } else if ("slab".equalsIgnoreCase(name)) {
+            return component.getSlabBufferFactory();
+        }
+        // otherwise it must be a reference to a custom buffer factory
+        return EndpointHelper.resolveReferenceParameter(component.getCamelContext(), name, ChannelBufferFactory.class);
+    }
+
     public String getCharsetName() {
         if (encoding == null) {
             return null;
         }
-        if (!Charset.isSupported(encoding)) {
-            throw new IllegalArgumentException("The encoding: " + encoding + " is not supported");
+        // the name is looked up once as it is needed for every exchange
+        String answer = charsetName;
+        if (answer == null) {
+            if (!Charset.isSupported(encoding)) {
+                throw new IllegalArgumentException("The encoding: " + encoding + " is not supported");
+            }
+            answer = Charset.forName(encoding).name();
+            charsetName = answer;
         }
+        return answer;
+    }
 
-        return Charset.forName(encoding).name();
+    /**
+     * Whether the textline bodies are encoded by the {@link TextlineEncoder}, which appends the delimiter
+     * itself and accepts any {@link CharSequence}.
+     */
+    public boolean hasTextlineEncoder() {
+        return textlineEncoder;
     }
 
     public boolean isTcp() {
@@ -279,6 +592,103 @@ public class NettyConfiguration implements Cloneable {
         this.delimiter = delimiter;
     }
 
+    public String getCustomDelimiter() {
+        return customDelimiter;
+    }
+
+    public void setCustomDelimiter(String customDelimiter) {
+        this.customDelimiter = customDelimiter;
+    }
+
+    /**
+     * Gets the delimiter which ends the textline bodies, which is the custom delimiter with its escape sequences
+     * (<tt>\r</tt>, <tt>\n</tt>, <tt>\t</tt>, <tt>\0</tt> and <tt>\\</tt>) replaced, or otherwise the delimiter
+     * given by {@link #getDelimiter()}.
+     */
+    public String getTextlineDelimiter() {
+        if (customDelimiter != null) {
+            return unescape(customDelimiter);
+        }
+        return delimiter == TextLineDelimiter.LINE ? "\n" : "\u0000";
+    }
+
+    private static String unescape(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                switch (next) {
+                case 'r':
+                    c = '\r';
+                    break;
+                case 'n':
+                    c = '\n';
+                    break;
+                case 't':
+                    c = '\t';
+                    break;
+                case '0':
+                    c = '\u0000';
+                    break;
+                case '\\':
+                    c = '\\';
+                    break;
+                default:
+                    // not an escape sequence so keep the backslash
+                    sb.append(c);
+                    c = next;
+                }
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    public boolean isTextlineCharSequence() {
+        return textlineCharSequence;
+    }
+
+    public void setTextlineCharSequence(boolean textlineCharSequence) {
+        this.textlineCharSequence = textlineCharSequence;
+    }
+
+    public boolean isPortUnification() {
+        return portUnification;
+    }
+
+    public void setPortUnification(boolean portUnification) {
+        this.portUnification = portUnification;
+    }
+
+    /**
+     * Gets the encoders for textline connections when using port unification, or <tt>null</tt> if not used
+     */
+    public List<ChannelDownstreamHandler> getTextlineEncoders() {
+        return textlineEncoders;
+    }
+
+    /**
+     * Gets the decoders for textline connections when using port unification, or <tt>null</tt> if not used
+     */
+    public List<ChannelUpstreamHandler> getTextlineDecoders() {
+        return textlineDecoders;
+    }
+
+    /**
+     * Gets the encoders for serialized object connections when using port unification, or <tt>null</tt> if not used
+     */
+    public List<ChannelDownstreamHandler> getObjectEncoders() {
+        return objectEncoders;
+    }
+
+    /**
+     * Gets the decoders for serialized object connections when using port unification, or <tt>null</tt> if not used
+     */
+    public List<ChannelUpstreamHandler> getObjectDecoders() {
+        return objectDecoders;
+    }
+
     public boolean isAutoAppendDelimiter() {
         return autoAppendDelimiter;
     }
@@ -293,6 +703,7 @@ public class NettyConfiguration implements Cloneable {
 
     public void setEncoding(String encoding) {
         this.encoding = encoding;
+        this.charsetName = null;
     }
 
     public SslHandler getSslHandler() {
@@ -371,6 +782,46 @@ public class NettyConfiguration implements Cloneable {
         this.receiveBufferSizePredictor = receiveBufferSizePredictor;
     }
 
+    public boolean isAdaptiveReceiveBufferSizePredictor() {
+        return adaptiveReceiveBufferSizePredictor;
+    }
+
+    public void setAdaptiveReceiveBufferSizePredictor(boolean adaptiveReceiveBufferSizePredictor) {
+        this.adaptiveReceiveBufferSizePredictor = adaptiveReceiveBufferSizePredictor;
+    }
+
+    public int getReceiveBufferSizePredictorMinimum() {
+        return receiveBufferSizePredictorMinimum;
+    }
+
+    public void setReceiveBufferSizePredictorMinimum(int receiveBufferSizePredictorMinimum) {
+        this.receiveBufferSizePredictorMinimum = receiveBufferSizePredictorMinimum;
+    }
+
+    public int getReceiveBufferSizePredictorInitial() {
+        return receiveBufferSizePredictorInitial;
+    }
+
+    public void setReceiveBufferSizePredictorInitial(int receiveBufferSizePredictorInitial) {
+        this.receiveBufferSizePredictorInitial = receiveBufferSizePredictorInitial;
+    }
+
+    public int getReceiveBufferSizePredictorMaximum() {
+        return receiveBufferSizePredictorMaximum;
+    }
+
+    public void setReceiveBufferSizePredictorMaximum(int receiveBufferSizePredictorMaximum) {
+        this.receiveBufferSizePredictorMaximum = receiveBufferSizePredictorMaximum;
+    }
+
+    public ChannelBufferFactory getBufferFactory() {
+        return bufferFactory;
+    }
+
+    public void setBufferFactory(ChannelBufferFactory bufferFactory) {
+        this.bufferFactory = bufferFactory;
+    }
+
     public String getPassphrase() {
         return passphrase;
     }
@@ -451,6 +902,18 @@ public class NettyConfiguration implements Cloneable {
         this.transferExchange = transferExchange;
     }
 
+    public String getTransferExchangeFormat() {
+        return transferExchangeFormat;
+    }
+
+    public void setTransferExchangeFormat(String transferExchangeFormat) {
+        this.transferExchangeFormat = transferExchangeFormat;
+    }
+
+    public boolean isCompactTransferExchange() {
+        return transferExchange && TRANSFER_EXCHANGE_FORMAT_COMPACT.equalsIgnoreCase(transferExchangeFormat);
+    }
+
     public boolean isDisconnectOnNoReply() {
         return disconnectOnNoReply;
     }
@@ -475,6 +938,187 @@ public class NettyConfiguration implements Cloneable {
         this.allowDefaultCodec = allowDefaultCodec;
     }
     
+    public boolean isRaw() {
+        return raw;
+    }
+
+    public void setRaw(boolean raw) {
+        this.raw = raw;
+    }
+
+    public String getCodec() {
+        return codec;
+    }
+
+    /**
+     * Whether the bodies are framed by the lengthFieldPrepended codec, which only frames <tt>ChannelBuffer</tt> bodies
+     */
+    public boolean isLengthFieldPrepended() {
+        return CODEC_LENGTH_FIELD_PREPENDED.equalsIgnoreCase(codec);
+    }
+
+    public void setCodec(String codec) {
+        this.codec = codec;
+    }
+
+    public int getLengthFieldOffset() {
+        return lengthFieldOffset;
+    }
+
+    public void setLengthFieldOffset(int lengthFieldOffset) {
+        this.lengthFieldOffset = lengthFieldOffset;
+    }
+
+    public int getLengthFieldLength() {
+        return lengthFieldLength;
+    }
+
+    public void setLengthFieldLength(int lengthFieldLength) {
+        this.lengthFieldLength = lengthFieldLength;
+    }
+
+    public boolean isLengthFieldVarint() {
+        return lengthFieldVarint;
+    }
+
+    public void setLengthFieldVarint(boolean lengthFieldVarint) {
+        this.lengthFieldVarint = lengthFieldVarint;
+    }
+
+    public int getLengthAdjustment() {
+        return lengthAdjustment;
+    }
+
+    public void setLengthAdjustment(int lengthAdjustment) {
+        this.lengthAdjustment = lengthAdjustment;
+    }
+
+    public int getMaxFrameLength() {
+        return maxFrameLength;
+    }
+
+    public void setMaxFrameLength(int maxFrameLength) {
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    public CompactClassRegistry getCompactClassRegistry() {
+        return compactClassRegistry;
+    }
+
+    public void setCompactClassRegistry(CompactClassRegistry compactClassRegistry) {
+        this.compactClassRegistry = compactClassRegistry;
+    }
+
+    public int getHeaderTableSize() {
+        return headerTableSize;
+    }
+
+    public void setHeaderTableSize(int headerTableSize) {
+        this.headerTableSize = headerTableSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public int getStreamingBufferSize() {
+        return streamingBufferSize;
+    }
+
+    public void setStreamingBufferSize(int streamingBufferSize) {
+        this.streamingBufferSize = streamingBufferSize;
+    }
+
+    public int getSpillThreshold() {
+        return spillThreshold;
+    }
+
+    /**
+     * Sets the length above which the frames received by the lengthFieldPrepended codec are written to a
+     * temporary file instead of being kept on the heap, and passed on as a memory mapped buffer of the file.
+     * <p/>
+     * The frames are still limited by the maxFrameLength option, and the file is written synchronously on the
+     * I/O thread as the bytes arrive, so the spill directory should be on a fast local disk.
+     */
+    public void setSpillThreshold(int spillThreshold) {
+        this.spillThreshold = spillThreshold;
+    }
+
+    public File getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    public void setSpillDirectory(File spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    public boolean isCompression() {
+        return compression;
+    }
+
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public File getTextlineDictionary() {
+        return textlineDictionary;
+    }
+
+    public void setTextlineDictionary(File textlineDictionary) {
+        this.textlineDictionary = textlineDictionary;
+    }
+
+    public File getTextlineDictionarySample() {
+        return textlineDictionarySample;
+    }
+
+    public void setTextlineDictionarySample(File textlineDictionarySample) {
+        this.textlineDictionarySample = textlineDictionarySample;
+    }
+
+    public int getTextlineDictionarySize() {
+        return textlineDictionarySize;
+    }
+
+    public void setTextlineDictionarySize(int textlineDictionarySize) {
+        this.textlineDictionarySize = textlineDictionarySize;
+    }
+
+    /**
+     * Whether the pipelines need a {@link org.jboss.netty.handler.stream.ChunkedWriteHandler} for bodies written in chunks
+     */
+    public boolean isChunkedWrite() {
+        return (raw || streaming) && !isUdp();
+    }
+
     public String getLocalName() {
     	return localName;
     }
@@ -518,6 +1162,110 @@ public class NettyConfiguration implements Cloneable {
         this.workerCount = workerCount;
     }
 
+    public long getSslReloadInterval() {
+        return sslReloadInterval;
+    }
+
+    public void setSslReloadInterval(long sslReloadInterval) {
+        this.sslReloadInterval = sslReloadInterval;
+    }
+
+    public int getSslSessionCacheSize() {
+        return sslSessionCacheSize;
+    }
+
+    public void setSslSessionCacheSize(int sslSessionCacheSize) {
+        this.sslSessionCacheSize = sslSessionCacheSize;
+    }
+
+    public int getSslSessionTimeout() {
+        return sslSessionTimeout;
+    }
+
+    public void setSslSessionTimeout(int sslSessionTimeout) {
+        this.sslSessionTimeout = sslSessionTimeout;
+    }
+
+    public long getSslHandshakeTimeout() {
+        return sslHandshakeTimeout;
+    }
+
+    public void setSslHandshakeTimeout(long sslHandshakeTimeout) {
+        this.sslHandshakeTimeout = sslHandshakeTimeout;
+    }
+
+    public int getSslDelegatedTaskPoolSize() {
+        return sslDelegatedTaskPoolSize;
+    }
+
+    public void setSslDelegatedTaskPoolSize(int sslDelegatedTaskPoolSize) {
+        this.sslDelegatedTaskPoolSize = sslDelegatedTaskPoolSize;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public boolean isOrderedExecution() {
+        return orderedExecution;
+    }
+
+    public void setOrderedExecution(boolean orderedExecution) {
+        this.orderedExecution = orderedExecution;
+    }
+
+    public boolean isMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(boolean metrics) {
+        this.metrics = metrics;
+    }
+
+    public int getMetricsMaxRemoteAddresses() {
+        return metricsMaxRemoteAddresses;
+    }
+
+    public void setMetricsMaxRemoteAddresses(int metricsMaxRemoteAddresses) {
+        this.metricsMaxRemoteAddresses = metricsMaxRemoteAddresses;
+    }
+
+    public long getStallThreshold() {
+        return stallThreshold;
+    }
+
+    public void setStallThreshold(long stallThreshold) {
+        this.stallThreshold = stallThreshold;
+    }
+
+    public int getWireTraceSize() {
+        return wireTraceSize;
+    }
+
+    public void setWireTraceSize(int wireTraceSize) {
+        this.wireTraceSize = wireTraceSize;
+    }
+
+    public int getWireTraceBytes() {
+        return wireTraceBytes;
+    }
+
+    public void setWireTraceBytes(int wireTraceBytes) {
+        this.wireTraceBytes = wireTraceBytes;
+    }
+
+    public SSLEngineFactory getSslEngineFactory() {
+        return sslEngineFactory;
+    }
+
+    public void setSslEngineFactory(SSLEngineFactory sslEngineFactory) {
+        this.sslEngineFactory = sslEngineFactory;
+    }
+
     public SSLContextParameters getSslContextParameters() {
         return sslContextParameters;
     }
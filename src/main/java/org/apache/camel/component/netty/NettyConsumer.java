@@ -16,14 +16,20 @@
  */
 package org.apache.camel.component.netty;
 
+import java.lang.reflect.Method;
 import java.net.InetSocketAddress;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.camel.CamelContext;
 import org.apache.camel.Processor;
+import org.apache.camel.component.netty.metrics.MetricsHandler;
+import org.apache.camel.component.netty.ssl.SSLHandshakeHandler;
 import org.apache.camel.impl.DefaultConsumer;
 import org.jboss.netty.bootstrap.ConnectionlessBootstrap;
 import org.jboss.netty.bootstrap.ServerBootstrap;
+import org.jboss.netty.channel.AdaptiveReceiveBufferSizePredictorFactory;
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelFactory;
 import org.jboss.netty.channel.FixedReceiveBufferSizePredictorFactory;
@@ -35,6 +41,9 @@ import org.jboss.netty.channel.local.LocalAddress;
 import org.jboss.netty.channel.socket.DatagramChannelFactory;
 import org.jboss.netty.channel.socket.nio.NioDatagramChannelFactory;
 import org.jboss.netty.channel.socket.nio.NioServerSocketChannelFactory;
+import org.jboss.netty.handler.execution.ExecutionHandler;
+import org.jboss.netty.handler.execution.MemoryAwareThreadPoolExecutor;
+import org.jboss.netty.handler.execution.OrderedMemoryAwareThreadPoolExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,6 +58,11 @@ public class NettyConsumer extends DefaultConsumer {
     private ServerBootstrap serverBootstrap;
     private ConnectionlessBootstrap connectionlessServerBootstrap;
     private Channel channel;
+    private ExecutionHandler executionHandler;
+    private ExecutorService virtualThreadExecutor;
+    private ExecutorService sslDelegatedTaskExecutor;
+    private SSLHandshakeHandler sslHandshakeHandler;
+    private MetricsHandler metricsHandler;
 
     public NettyConsumer(NettyEndpoint nettyEndpoint, Processor processor, NettyConfiguration configuration) {
         super(nettyEndpoint, processor);
@@ -67,6 +81,25 @@ public class NettyConsumer extends DefaultConsumer {
         LOG.debug("Netty consumer binding to: {}", configuration.getAddress());
 
         super.doStart();
+        if (configuration.isVirtualThreads()) {
+            // the routes may block for long so they are run on threads which are cheap to block
+            executionHandler = new ExecutionHandler(createVirtualThreadExecutor());
+        } else if (configuration.isStreaming()) {
+            // the routes read the streamed bodies while the chunks are received so they must not run on the I/O threads
+            executionHandler = new ExecutionHandler(new OrderedMemoryAwareThreadPoolExecutor(configuration.getMaxPoolSize(), 0, 0));
+        }
+        if (configuration.isSsl()) {
+            if (configuration.getSslHandler() == null && configuration.getSslDelegatedTaskPoolSize() > 0) {
+                // the delegated tasks of the handshakes are CPU heavy and must not hold up the I/O threads
+                sslDelegatedTaskExecutor = context.getExecutorServiceManager().newFixedThreadPool(this, "NettySSLDelegatedTask",
+                        configuration.getSslDelegatedTaskPoolSize());
+            }
+            sslHandshakeHandler = new SSLHandshakeHandler(getEndpoint().getSslHandshakeStatistics(), getEndpoint().getTimer(),
+                    configuration.getSslHandshakeTimeout());
+        }
+        if (getEndpoint().getMetricsRegistry() != null) {
+            metricsHandler = new MetricsHandler(getEndpoint().getMetricsRegistry(), false);
+        }
         if (isTcp()) {
             initializeTCPServerSocketCommunicationLayer();
         } else if (isUdp()) {
@@ -92,12 +125,48 @@ public class NettyConsumer extends DefaultConsumer {
         if (channelFactory != null) {
             channelFactory.releaseExternalResources();
         }
+        if (executionHandler != null) {
+            executionHandler.releaseExternalResources();
+            executionHandler = null;
+        }
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.shutdownNow();
+            virtualThreadExecutor = null;
+        }
+        if (sslDelegatedTaskExecutor != null) {
+            context.getExecutorServiceManager().shutdownNow(sslDelegatedTaskExecutor);
+            sslDelegatedTaskExecutor = null;
+        }
 
         super.doStop();
 
         LOG.info("Netty consumer unbound from: " + configuration.getAddress());
     }
 
+    /**
+     * Creates the executor for the virtualThreads option, which starts a virtual thread for each event on JVMs
+     * supporting them, and falls back to a pool of platform threads on older JVMs.
+     */
+    protected Executor createVirtualThreadExecutor() {
+        // the chunks of a streamed body must be received in order
+        boolean ordered = configuration.isOrderedExecution() || configuration.isStreaming();
+        try {
+            // looked up by reflection as the component is built for older JVMs
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            virtualThreadExecutor = (ExecutorService) method.invoke(null);
+            LOG.debug("Netty consumer runs the routes on virtual threads with ordered execution: {}", ordered);
+            return ordered ? new ChannelOrderedExecutor(virtualThreadExecutor) : virtualThreadExecutor;
+        } catch (NoSuchMethodException e) {
+            LOG.info("Virtual threads are not supported by this JVM, the routes run on a pool of {} threads", configuration.getMaxPoolSize());
+        } catch (Exception e) {
+            LOG.warn("Cannot create virtual threads, the routes run on a pool of " + configuration.getMaxPoolSize() + " threads", e);
+        }
+        if (ordered) {
+            return new OrderedMemoryAwareThreadPoolExecutor(configuration.getMaxPoolSize(), 0, 0);
+        }
+        return new MemoryAwareThreadPoolExecutor(configuration.getMaxPoolSize(), 0, 0);
+    }
+
     public CamelContext getContext() {
         return context;
     }
@@ -146,6 +215,28 @@ public class NettyConsumer extends DefaultConsumer {
         this.connectionlessServerBootstrap = connectionlessServerBootstrap;
     }
 
+    public ExecutionHandler getExecutionHandler() {
+        return executionHandler;
+    }
+
+    /**
+     * Gets the executor running the delegated tasks of the TLS handshakes, or <tt>null</tt> to run them on the I/O threads
+     */
+    public ExecutorService getSslDelegatedTaskExecutor() {
+        return sslDelegatedTaskExecutor;
+    }
+
+    public SSLHandshakeHandler getSslHandshakeHandler() {
+        return sslHandshakeHandler;
+    }
+
+    /**
+     * Gets the handler recording the metrics of the connections, or <tt>null</tt> if the metrics option is not enabled
+     */
+    public MetricsHandler getMetricsHandler() {
+        return metricsHandler;
+    }
+
     protected boolean isTcp() {
         return configuration.getProtocol().equalsIgnoreCase("tcp");
     }
@@ -180,6 +271,9 @@ public class NettyConsumer extends DefaultConsumer {
         serverBootstrap.setOption("child.tcpNoDelay", configuration.isTcpNoDelay());
         serverBootstrap.setOption("child.reuseAddress", configuration.isReuseAddress());
         serverBootstrap.setOption("child.connectTimeoutMillis", configuration.getConnectTimeout());
+        if (configuration.getBufferFactory() != null) {
+            serverBootstrap.setOption("child.bufferFactory", configuration.getBufferFactory());
+        }
 
         channel = serverBootstrap.bind(new InetSocketAddress(configuration.getHost(), configuration.getPort()));
         // to keep track of all channels in use
@@ -205,10 +299,18 @@ public class NettyConsumer extends DefaultConsumer {
         connectionlessServerBootstrap.setOption("child.broadcast", configuration.isBroadcast());
         connectionlessServerBootstrap.setOption("sendBufferSize", configuration.getSendBufferSize());
         connectionlessServerBootstrap.setOption("receiveBufferSize", configuration.getReceiveBufferSize());
-        // only set this if user has specified
+        if (configuration.getBufferFactory() != null) {
+            connectionlessServerBootstrap.setOption("bufferFactory", configuration.getBufferFactory());
+        }
+        // Netty 3 allocates a new heap buffer for every datagram read, regardless of the buffer factory,
+        // so the predictor is what keeps that allocation close to the size of the actual packets
         if (configuration.getReceiveBufferSizePredictor() > 0) {
             connectionlessServerBootstrap.setOption("receiveBufferSizePredictorFactory",
                 new FixedReceiveBufferSizePredictorFactory(configuration.getReceiveBufferSizePredictor()));
+        } else if (configuration.isAdaptiveReceiveBufferSizePredictor()) {
+            connectionlessServerBootstrap.setOption("receiveBufferSizePredictorFactory",
+                new AdaptiveReceiveBufferSizePredictorFactory(configuration.getReceiveBufferSizePredictorMinimum(),
+                    configuration.getReceiveBufferSizePredictorInitial(), configuration.getReceiveBufferSizePredictorMaximum()));
         }
 
         channel = connectionlessServerBootstrap.bind(new InetSocketAddress(configuration.getHost(), configuration.getPort()));
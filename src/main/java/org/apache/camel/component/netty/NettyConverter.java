@@ -21,20 +21,31 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInput;
 import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.camel.Converter;
 import org.apache.camel.Exchange;
+import org.apache.camel.component.netty.codec.ChannelBufferCharSequence;
+import org.apache.camel.util.IOHelper;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.buffer.ChannelBufferInputStream;
-import org.jboss.netty.buffer.DynamicChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
 
 /**
  * A set of converter methods for working with Netty types
+ * <p/>
+ * The converters only copy the readable bytes of a buffer when the target type requires it,
+ * and never modify the reader index of the given buffer.
  *
  * @version 
  */
 @Converter
 public final class NettyConverter {
+    // the resolved charsets by name, as looking up a charset for each conversion is costly
+    private static final ConcurrentMap<String, Charset> CHARSETS = new ConcurrentHashMap<String, Charset>();
 
     private NettyConverter() {
         //Utility Class
@@ -42,14 +53,25 @@ public final class NettyConverter {
 
     @Converter
     public static byte[] toByteArray(ChannelBuffer buffer) {
-        return buffer.array();
+        int length = buffer.readableBytes();
+        if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.readerIndex() == 0 && buffer.array().length == length) {
+            // the backing array is exactly the readable bytes so no need to copy
+            return buffer.array();
+        }
+        byte[] bytes = new byte[length];
+        buffer.getBytes(buffer.readerIndex(), bytes);
+        return bytes;
     }
 
     @Converter
     public static String toString(ChannelBuffer buffer, Exchange exchange) {
-        byte[] bytes = toByteArray(buffer);
-        // use type converter as it can handle encoding set on the Exchange
-        return exchange.getContext().getTypeConverter().convertTo(String.class, exchange, bytes);
+        return buffer.toString(getCharset(exchange));
+    }
+
+    @Converter
+    public static ByteBuffer toByteBuffer(ChannelBuffer buffer) {
+        // a view of the readable bytes which shares the content with the buffer
+        return buffer.toByteBuffer();
     }
 
     @Converter
@@ -65,9 +87,39 @@ public final class NettyConverter {
 
     @Converter
     public static ChannelBuffer toByteBuffer(byte[] bytes) {
-        ChannelBuffer buf = new DynamicChannelBuffer(bytes.length);
+        // wrap the array, the caller must not change the array afterwards
+        return ChannelBuffers.wrappedBuffer(bytes);
+    }
+
+    @Converter
+    public static ChannelBuffer toChannelBuffer(ByteBuffer buffer) {
+        return ChannelBuffers.wrappedBuffer(buffer);
+    }
+
+    @Converter
+    public static ChannelBuffer toChannelBuffer(String text, Exchange exchange) {
+        // encodes the chars directly into the buffer without an intermediate byte array
+        return ChannelBuffers.copiedBuffer(text, getCharset(exchange));
+    }
+
+    @Converter
+    public static ChannelBuffer toChannelBuffer(ChannelBufferCharSequence text, Exchange exchange) {
+        Charset charset = getCharset(exchange);
+        if (charset.equals(text.getCharset())) {
+            // already encoded in the charset so no need to decode and encode again
+            return text.getBuffer().duplicate();
+        }
+        return ChannelBuffers.copiedBuffer(text.toString(), charset);
+    }
 
-        buf.writeBytes(bytes);
-        return buf;
+    private static Charset getCharset(Exchange exchange) {
+        // the charset of the exchange, or the default charset of Camel
+        String charsetName = IOHelper.getCharsetName(exchange);
+        Charset charset = CHARSETS.get(charsetName);
+        if (charset == null) {
+            charset = Charset.forName(charsetName);
+            CHARSETS.putIfAbsent(charsetName, charset);
+        }
+        return charset;
     }
 }
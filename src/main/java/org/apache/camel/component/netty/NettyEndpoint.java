@@ -20,6 +20,10 @@ import org.apache.camel.Consumer;
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
 import org.apache.camel.Producer;
+import org.apache.camel.component.netty.metrics.NettyMetricsRegistry;
+import org.apache.camel.component.netty.metrics.StallDetector;
+import org.apache.camel.component.netty.metrics.WireTracer;
+import org.apache.camel.component.netty.ssl.SSLHandshakeStatistics;
 import org.apache.camel.impl.DefaultEndpoint;
 import org.apache.camel.impl.SynchronousDelegateProducer;
 import org.apache.camel.util.ObjectHelper;
@@ -30,6 +34,10 @@ import org.jboss.netty.util.Timer;
 public class NettyEndpoint extends DefaultEndpoint {
     private NettyConfiguration configuration;
     private Timer timer;
+    private final SSLHandshakeStatistics sslHandshakeStatistics = new SSLHandshakeStatistics();
+    private NettyMetricsRegistry metricsRegistry;
+    private StallDetector stallDetector;
+    private WireTracer wireTracer;
 
     public NettyEndpoint(String endpointUri, NettyComponent component, NettyConfiguration configuration) {
         super(endpointUri, component);
@@ -58,6 +66,41 @@ public class NettyEndpoint extends DefaultEndpoint {
         return exchange;
     }
     
+    /**
+     * Gets the number of full, resumed and failed TLS handshakes of the connections of this endpoint
+     */
+    public SSLHandshakeStatistics getSslHandshakeStatistics() {
+        return sslHandshakeStatistics;
+    }
+
+    /**
+     * Gets the metrics of the connections of this endpoint, or <tt>null</tt> if the metrics option is not enabled
+     */
+    public NettyMetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    /**
+     * Gets the detector of the threads stuck handling the events of the connections of this endpoint,
+     * or <tt>null</tt> if the stallThreshold option is not set
+     */
+    public StallDetector getStallDetector() {
+        return stallDetector;
+    }
+
+    /**
+     * Gets the tracer recording the buffers read and written by the connections of this endpoint,
+     * or <tt>null</tt> if the wireTraceSize option is not set
+     */
+    public WireTracer getWireTracer() {
+        return wireTracer;
+    }
+
+    @Override
+    public NettyComponent getComponent() {
+        return (NettyComponent) super.getComponent();
+    }
+
     public boolean isSingleton() {
         return true;
     }
@@ -81,6 +124,46 @@ public class NettyEndpoint extends DefaultEndpoint {
     @Override
     protected void doStart() throws Exception {
         ObjectHelper.notNull(timer, "timer");
+        if (configuration.isMetrics()) {
+            // the metrics are kept when restarted
+            if (metricsRegistry == null) {
+                metricsRegistry = new NettyMetricsRegistry(configuration.getMetricsMaxRemoteAddresses());
+            }
+            metricsRegistry.register(getCamelContext(), getEndpointKey());
+        }
+        if (configuration.getStallThreshold() > 0) {
+            if (stallDetector == null) {
+                stallDetector = new StallDetector(configuration.getStallThreshold());
+            }
+            stallDetector.start(timer);
+            stallDetector.register(getCamelContext(), getEndpointKey());
+        }
+        if (configuration.getWireTraceSize() > 0) {
+            // the records are kept when restarted
+            if (wireTracer == null) {
+                wireTracer = new WireTracer(configuration.getWireTraceSize(), configuration.getWireTraceBytes());
+            }
+            wireTracer.register(getCamelContext(), getEndpointKey());
+        }
+        if (configuration.isSsl()) {
+            // the statistics are kept when restarted
+            sslHandshakeStatistics.register(getCamelContext(), getEndpointKey());
+        }
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        if (metricsRegistry != null) {
+            metricsRegistry.unregister();
+        }
+        if (stallDetector != null) {
+            stallDetector.stop();
+            stallDetector.unregister();
+        }
+        if (wireTracer != null) {
+            wireTracer.unregister();
+        }
+        sslHandshakeStatistics.unregister();
     }
 
 }
\ No newline at end of file
@@ -16,13 +16,24 @@
  */
 package org.apache.camel.component.netty;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.net.SocketAddress;
+import java.nio.channels.FileChannel;
 
 import org.apache.camel.CamelExchangeException;
 import org.apache.camel.Exchange;
 import org.apache.camel.NoTypeConversionAvailableException;
+import org.apache.camel.component.file.GenericFile;
+import org.apache.camel.util.IOHelper;
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.ChannelFutureListener;
+import org.jboss.netty.channel.DefaultFileRegion;
+import org.jboss.netty.channel.FileRegion;
+import org.jboss.netty.handler.stream.ChunkedInput;
+import org.jboss.netty.handler.stream.ChunkedNioFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,28 +61,133 @@ public final class NettyHelper {
      * @throws NoTypeConversionAvailableException is thrown if the current body could not be converted to a String type
      */
     public static String getTextlineBody(Object body, Exchange exchange, TextLineDelimiter delimiter, boolean autoAppendDelimiter) throws NoTypeConversionAvailableException {
+        return getTextlineBody(body, exchange, TextLineDelimiter.LINE.equals(delimiter) ? "\n" : "\u0000", autoAppendDelimiter);
+    }
+
+    /**
+     * Gets the string body to be used when sending with the textline codec.
+     *
+     * @param body                 the current body
+     * @param exchange             the exchange
+     * @param delimiter            the textline delimiter
+     * @param autoAppendDelimiter  whether absent delimiter should be auto appended
+     * @return the string body to send
+     * @throws NoTypeConversionAvailableException is thrown if the current body could not be converted to a String type
+     */
+    public static String getTextlineBody(Object body, Exchange exchange, String delimiter, boolean autoAppendDelimiter) throws NoTypeConversionAvailableException {
         String s = exchange.getContext().getTypeConverter().mandatoryConvertTo(String.class, exchange, body);
 
         // auto append delimiter if missing?
-        if (autoAppendDelimiter) {
-            if (TextLineDelimiter.LINE.equals(delimiter)) {
-                // line delimiter so ensure it ends with newline
-                if (!s.endsWith("\n")) {
-                    LOG.trace("Auto appending missing newline delimiter to body");
-                    s = s + "\n";
-                }
-            } else {
-                // null delimiter so ensure it ends with null
-                if (!s.endsWith("\u0000")) {
-                    LOG.trace("Auto appending missing null delimiter to body");
-                    s = s + "\u0000";
-                }
-            }
+        if (autoAppendDelimiter && !s.endsWith(delimiter)) {
+            LOG.trace("Auto appending missing delimiter to body");
+            s = s + delimiter;
         }
 
         return s;
     }
 
+    /**
+     * Gets the body to be used when sending with the textline codec.
+     * <p/>
+     * When the default textline encoder is used, {@link CharSequence} bodies are returned as is and other bodies
+     * are converted to a String, as the encoder appends the delimiter without copying the body. Otherwise the
+     * body is converted to a String which ends with the delimiter when it should be auto appended.
+     *
+     * @param body           the current body
+     * @param exchange       the exchange
+     * @param configuration  the endpoint configuration
+     * @return the body to send
+     * @throws NoTypeConversionAvailableException is thrown if the current body could not be converted to a String type
+     */
+    public static Object getTextlineBody(Object body, Exchange exchange, NettyConfiguration configuration) throws NoTypeConversionAvailableException {
+        if (!configuration.hasTextlineEncoder()) {
+            return getTextlineBody(body, exchange, configuration.getTextlineDelimiter(), configuration.isAutoAppendDelimiter());
+        }
+        if (body instanceof CharSequence) {
+            return body;
+        }
+        return exchange.getContext().getTypeConverter().mandatoryConvertTo(String.class, exchange, body);
+    }
+
+    /**
+     * Gets the body to write for a file body when using the raw mode, which avoids reading the file into memory.
+     * <p/>
+     * On plain TCP without compression a {@link FileRegion} is returned so the file is transferred by the kernel using
+     * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}, and otherwise (for example when using SSL or compression)
+     * a {@link ChunkedNioFile} to be written in chunks of the configured <tt>chunkSize</tt> by a
+     * {@link org.jboss.netty.handler.stream.ChunkedWriteHandler}. The file is closed when it has been written, see
+     * {@link #releaseWhenComplete(ChannelFuture, Object)}.
+     *
+     * @param body           the current body, either a {@link File}, a {@link GenericFile} of a file or a {@link FileChannel}
+     * @param configuration  the configuration
+     * @return the body to write, or <tt>null</tt> if the body is not a file or cannot be written as a file
+     * @throws IOException is thrown if the file could not be opened
+     */
+    public static Object getFileBody(Object body, NettyConfiguration configuration) throws IOException {
+        if (configuration.isUdp()) {
+            return null;
+        }
+        if (body instanceof GenericFile) {
+            body = ((GenericFile<?>) body).getFile();
+        }
+
+        FileChannel fileChannel;
+        if (body instanceof File) {
+            fileChannel = new RandomAccessFile((File) body, "r").getChannel();
+        } else if (body instanceof FileChannel) {
+            fileChannel = (FileChannel) body;
+        } else {
+            return null;
+        }
+
+        try {
+            long position = fileChannel.position();
+            long count = fileChannel.size() - position;
+            if (configuration.isTcp() && !configuration.isSsl() && !configuration.isCompression()) {
+                LOG.trace("Writing file body of {} bytes as a file region", count);
+                return new DefaultFileRegion(fileChannel, position, count);
+            }
+            LOG.trace("Writing file body of {} bytes in chunks", count);
+            return new ChunkedNioFile(fileChannel, position, count, configuration.getChunkSize());
+        } catch (IOException e) {
+            IOHelper.close(fileChannel);
+            throw e;
+        }
+    }
+
+    /**
+     * Releases the resources of the body, such as the file of a {@link FileRegion}, when the write has completed.
+     *
+     * @param future  the future of the write
+     * @param body    the body written
+     */
+    public static void releaseWhenComplete(ChannelFuture future, final Object body) {
+        if (body instanceof FileRegion) {
+            future.addListener(new ChannelFutureListener() {
+                public void operationComplete(ChannelFuture future) throws Exception {
+                    release(body);
+                }
+            });
+        }
+    }
+
+    /**
+     * Releases the resources of a body which is not going to be written.
+     *
+     * @param body  the body
+     */
+    public static void release(Object body) {
+        if (body instanceof FileRegion) {
+            ((FileRegion) body).releaseExternalResources();
+        } else if (body instanceof ChunkedInput) {
+            try {
+                ((ChunkedInput) body).close();
+            } catch (Exception e) {
+                LOG.debug("Error closing chunked input: " + body + ". This exception will be ignored.", e);
+            }
+        }
+    }
+
     /**
      * Writes the given body to Netty channel. Will wait until the body has been written.
      *
@@ -90,6 +206,7 @@ public final class NettyHelper {
         } else {
             future = channel.write(body);
         }
+        releaseWhenComplete(future, body);
 
         // wait for the write
         LOG.trace("Waiting for write to complete");
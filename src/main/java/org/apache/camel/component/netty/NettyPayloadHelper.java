@@ -17,6 +17,7 @@
 package org.apache.camel.component.netty;
 
 import org.apache.camel.Exchange;
+import org.apache.camel.component.netty.codec.CompactExchangeHolder;
 import org.apache.camel.impl.DefaultExchangeHolder;
 
 /**
@@ -37,6 +38,9 @@ public final class NettyPayloadHelper {
     public static Object getIn(NettyEndpoint endpoint, Exchange exchange) {
         if (endpoint.getConfiguration().isTransferExchange()) {
             // we should transfer the entire exchange over the wire (includes in/out)
+            if (endpoint.getConfiguration().isCompactTransferExchange()) {
+                return CompactExchangeHolder.marshal(exchange);
+            }
             return DefaultExchangeHolder.marshal(exchange);
         } else {
             // normal transfer using the body only
@@ -47,6 +51,9 @@ public final class NettyPayloadHelper {
     public static Object getOut(NettyEndpoint endpoint, Exchange exchange) {
         if (endpoint.getConfiguration().isTransferExchange()) {
             // we should transfer the entire exchange over the wire (includes in/out)
+            if (endpoint.getConfiguration().isCompactTransferExchange()) {
+                return CompactExchangeHolder.marshal(exchange);
+            }
             return DefaultExchangeHolder.marshal(exchange);
         } else {
             // normal transfer using the body only
@@ -57,6 +64,8 @@ public final class NettyPayloadHelper {
     public static void setIn(Exchange exchange, Object payload) {
         if (payload instanceof DefaultExchangeHolder) {
             DefaultExchangeHolder.unmarshal(exchange, (DefaultExchangeHolder) payload);
+        } else if (payload instanceof CompactExchangeHolder) {
+            CompactExchangeHolder.unmarshal(exchange, (CompactExchangeHolder) payload);
         } else {
             // normal transfer using the body only
             exchange.getIn().setBody(payload);
@@ -66,6 +75,8 @@ public final class NettyPayloadHelper {
     public static void setOut(Exchange exchange, Object payload) {
         if (payload instanceof DefaultExchangeHolder) {
             DefaultExchangeHolder.unmarshal(exchange, (DefaultExchangeHolder) payload);
+        } else if (payload instanceof CompactExchangeHolder) {
+            CompactExchangeHolder.unmarshal(exchange, (CompactExchangeHolder) payload);
         } else {
             // normal transfer using the body only and preserve the headers
             exchange.getOut().setHeaders(exchange.getIn().getHeaders());
@@ -16,9 +16,11 @@
  */
 package org.apache.camel.component.netty;
 
+import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.camel.AsyncCallback;
 import org.apache.camel.CamelContext;
@@ -26,13 +28,17 @@ import org.apache.camel.CamelException;
 import org.apache.camel.Exchange;
 import org.apache.camel.NoTypeConversionAvailableException;
 import org.apache.camel.ServicePoolAware;
+import org.apache.camel.component.netty.metrics.ChannelMetrics;
+import org.apache.camel.component.netty.metrics.MetricsHandler;
+import org.apache.camel.component.netty.metrics.NettyMetrics;
+import org.apache.camel.component.netty.ssl.SSLHandshakeHandler;
 import org.apache.camel.impl.DefaultAsyncProducer;
 import org.apache.camel.impl.DefaultExchange;
 import org.apache.camel.util.CamelLogger;
 import org.apache.camel.util.ExchangeHelper;
-import org.apache.camel.util.IOHelper;
 import org.jboss.netty.bootstrap.ClientBootstrap;
 import org.jboss.netty.bootstrap.ConnectionlessBootstrap;
+import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelFactory;
 import org.jboss.netty.channel.ChannelFuture;
@@ -47,6 +53,8 @@ import org.jboss.netty.channel.local.LocalClientChannelFactory;
 import org.jboss.netty.channel.socket.DatagramChannelFactory;
 import org.jboss.netty.channel.socket.nio.NioClientSocketChannelFactory;
 import org.jboss.netty.channel.socket.nio.NioDatagramChannelFactory;
+import org.jboss.netty.handler.execution.ExecutionHandler;
+import org.jboss.netty.handler.execution.OrderedMemoryAwareThreadPoolExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,6 +67,10 @@ public class NettyProducer extends DefaultAsyncProducer implements ServicePoolAw
     private DatagramChannelFactory datagramChannelFactory;
     private LocalClientChannelFactory localChannelFactory;
     private CamelLogger noReplyLogger;
+    private ExecutionHandler executionHandler;
+    private ExecutorService sslDelegatedTaskExecutor;
+    private SSLHandshakeHandler sslHandshakeHandler;
+    private MetricsHandler metricsHandler;
 
     public NettyProducer(NettyEndpoint nettyEndpoint, NettyConfiguration configuration) {
         super(nettyEndpoint);
@@ -98,6 +110,23 @@ public class NettyProducer extends DefaultAsyncProducer implements ServicePoolAw
     protected void doStart() throws Exception {
         super.doStart();
 
+        if (configuration.isStreaming()) {
+            // the streamed replies are read while the chunks are received so the routing must not continue on the I/O threads
+            executionHandler = new ExecutionHandler(new OrderedMemoryAwareThreadPoolExecutor(configuration.getMaxPoolSize(), 0, 0));
+        }
+        if (configuration.isSsl()) {
+            if (configuration.getSslHandler() == null && configuration.getSslDelegatedTaskPoolSize() > 0) {
+                // the delegated tasks of the handshakes are CPU heavy and must not hold up the I/O threads
+                sslDelegatedTaskExecutor = context.getExecutorServiceManager().newFixedThreadPool(this, "NettySSLDelegatedTask",
+                        configuration.getSslDelegatedTaskPoolSize());
+            }
+            sslHandshakeHandler = new SSLHandshakeHandler(getEndpoint().getSslHandshakeStatistics(), getEndpoint().getTimer(),
+                    configuration.getSslHandshakeTimeout());
+        }
+        if (getEndpoint().getMetricsRegistry() != null) {
+            metricsHandler = new MetricsHandler(getEndpoint().getMetricsRegistry(), true);
+        }
+
         if (isTcp()) {
             setupTCPCommunication();
         } else if (isUdp()) {
@@ -125,10 +154,26 @@ public class NettyProducer extends DefaultAsyncProducer implements ServicePoolAw
         if (channelFactory != null) {
             channelFactory.releaseExternalResources();
         }
+        if (executionHandler != null) {
+            executionHandler.releaseExternalResources();
+            executionHandler = null;
+        }
+        if (sslDelegatedTaskExecutor != null) {
+            context.getExecutorServiceManager().shutdownNow(sslDelegatedTaskExecutor);
+            sslDelegatedTaskExecutor = null;
+        }
         super.doStop();
     }
 
     public boolean process(final Exchange exchange, final AsyncCallback callback) {
+        if (metricsHandler != null) {
+            // the exchange is in flight until the callback is done
+            return doProcess(exchange, new MetricsCallback(callback));
+        }
+        return doProcess(exchange, callback);
+    }
+
+    protected boolean doProcess(final Exchange exchange, final AsyncCallback callback) {
         if (!isRunAllowed()) {
             if (exchange.getException() == null) {
                 exchange.setException(new RejectedExecutionException());
@@ -144,10 +189,39 @@ public class NettyProducer extends DefaultAsyncProducer implements ServicePoolAw
             return true;
         }
 
+        // in raw mode the body is written as a ChannelBuffer as is, otherwise wrapped without copying,
+        // which is also what the length field is prepended to
+        if (getConfiguration().isRaw() || getConfiguration().isLengthFieldPrepended()) {
+            try {
+                // files are written without reading them into memory, but cannot be framed
+                Object fileBody = getConfiguration().isRaw() ? NettyHelper.getFileBody(body, getConfiguration()) : null;
+                if (fileBody != null) {
+                    body = fileBody;
+                } else {
+                    body = context.getTypeConverter().mandatoryConvertTo(ChannelBuffer.class, exchange, body);
+                }
+            } catch (Exception e) {
+                exchange.setException(e);
+                callback.done(true);
+                return true;
+            }
+        }
+
+        // in streaming mode the body is written in chunks while it is read
+        if (getConfiguration().isStreaming()) {
+            try {
+                body = context.getTypeConverter().mandatoryConvertTo(InputStream.class, exchange, body);
+            } catch (NoTypeConversionAvailableException e) {
+                exchange.setException(e);
+                callback.done(true);
+                return true;
+            }
+        }
+
         // if textline enabled then covert to a String which must be used for textline
         if (getConfiguration().isTextline()) {
             try {
-                body = NettyHelper.getTextlineBody(body, exchange, getConfiguration().getDelimiter(), getConfiguration().isAutoAppendDelimiter());
+                body = NettyHelper.getTextlineBody(body, exchange, getConfiguration());
             } catch (NoTypeConversionAvailableException e) {
                 exchange.setException(e);
                 callback.done(true);
@@ -157,24 +231,40 @@ public class NettyProducer extends DefaultAsyncProducer implements ServicePoolAw
 
         // set the exchange encoding property
         if (getConfiguration().getCharsetName() != null) {
-            exchange.setProperty(Exchange.CHARSET_NAME, IOHelper.normalizeCharset(getConfiguration().getCharsetName()));
+            exchange.setProperty(Exchange.CHARSET_NAME, getConfiguration().getCharsetName());
         }
 
         ChannelFuture channelFuture;
         final Channel channel;
+        long connectStart = System.nanoTime();
         try {
             channelFuture = openConnection(exchange, callback);
             channel = openChannel(channelFuture);
         } catch (Exception e) {
+            NettyHelper.release(body);
             exchange.setException(e);
             callback.done(true);
             return true;
         }
 
+        ChannelMetrics channelMetrics = metricsHandler != null ? MetricsHandler.getChannelMetrics(channel) : null;
+        if (channelMetrics != null) {
+            long now = System.nanoTime();
+            channelMetrics.getMetrics().connectTime(now - connectStart);
+            channelMetrics.getMetrics().messageOut();
+            // the reply is timed from now
+            channelMetrics.requestStarted(now);
+            // subclasses may call doProcess with their own callback, which is then not counted as in flight
+            if (callback instanceof MetricsCallback) {
+                ((MetricsCallback) callback).started(channelMetrics.getMetrics());
+            }
+        }
+
         // log what we are writing
         LOG.debug("Writing body: {}", body);
         // write the body asynchronously
         ChannelFuture future = channel.write(body);
+        NettyHelper.releaseWhenComplete(future, body);
 
         // add listener which handles the operation
         future.addListener(new ChannelFutureListener() {
@@ -268,6 +358,9 @@ public class NettyProducer extends DefaultAsyncProducer implements ServicePoolAw
             clientBootstrap.setOption("child.tcpNoDelay", configuration.isTcpNoDelay());
             clientBootstrap.setOption("child.reuseAddress", configuration.isReuseAddress());
             clientBootstrap.setOption("child.connectTimeoutMillis", configuration.getConnectTimeout());
+            if (configuration.getBufferFactory() != null) {
+                clientBootstrap.setOption("bufferFactory", configuration.getBufferFactory());
+            }
 
             // set the pipeline on the bootstrap
             clientBootstrap.setPipeline(clientPipeline);
@@ -282,6 +375,9 @@ public class NettyProducer extends DefaultAsyncProducer implements ServicePoolAw
             connectionlessClientBootstrap.setOption("child.broadcast", configuration.isBroadcast());
             connectionlessClientBootstrap.setOption("sendBufferSize", configuration.getSendBufferSize());
             connectionlessClientBootstrap.setOption("receiveBufferSize", configuration.getReceiveBufferSize());
+            if (configuration.getBufferFactory() != null) {
+                connectionlessClientBootstrap.setOption("bufferFactory", configuration.getBufferFactory());
+            }
 
             // set the pipeline on the bootstrap
             connectionlessClientBootstrap.setPipeline(clientPipeline);
@@ -343,4 +439,53 @@ public class NettyProducer extends DefaultAsyncProducer implements ServicePoolAw
     public ChannelGroup getAllChannels() {
         return ALL_CHANNELS;
     }
+
+    public ExecutionHandler getExecutionHandler() {
+        return executionHandler;
+    }
+
+    /**
+     * Gets the executor running the delegated tasks of the TLS handshakes, or <tt>null</tt> to run them on the I/O threads
+     */
+    public ExecutorService getSslDelegatedTaskExecutor() {
+        return sslDelegatedTaskExecutor;
+    }
+
+    public SSLHandshakeHandler getSslHandshakeHandler() {
+        return sslHandshakeHandler;
+    }
+
+    /**
+     * Gets the handler recording the metrics of the connections, or <tt>null</tt> if the metrics option is not enabled
+     */
+    public MetricsHandler getMetricsHandler() {
+        return metricsHandler;
+    }
+
+    /**
+     * Counts the exchange as in flight from the time it is written until the callback is done
+     */
+    private static final class MetricsCallback implements AsyncCallback {
+        private final AsyncCallback delegate;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile NettyMetrics metrics;
+
+        private MetricsCallback(AsyncCallback delegate) {
+            this.delegate = delegate;
+        }
+
+        void started(NettyMetrics metrics) {
+            this.metrics = metrics;
+            metrics.exchangeStarted();
+        }
+
+        public void done(boolean doneSync) {
+            NettyMetrics current = metrics;
+            // the callback may be signalled more than once if the reply cannot be converted
+            if (current != null && done.compareAndSet(false, true)) {
+                current.exchangeDone();
+            }
+            delegate.done(doneSync);
+        }
+    }
 }
@@ -0,0 +1,177 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.buffer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jboss.netty.buffer.AbstractChannelBufferFactory;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+
+/**
+ * A {@link org.jboss.netty.buffer.ChannelBufferFactory} which carves direct buffers out of slabs of
+ * off-heap memory, grouped in power of two size classes from 64 bytes up to 64 KB.
+ * <p/>
+ * Allocating a direct buffer is expensive, so each size class allocates a slab once and hands out
+ * segments of it by bumping an offset. This is a slab allocator, not a pool: Netty 3 buffers are never
+ * released explicitly, so segments are never reused. A slab is only freed by the garbage collector when
+ * all the buffers carved out of it are gone, which means a single long lived buffer keeps its whole slab
+ * reachable. To bound that, a slab holds at most {@link #SEGMENTS_PER_SLAB} segments, so the slabs of the
+ * small size classes are small as well.
+ * <p/>
+ * It suits short lived buffers such as the ones encoders allocate for each message, which are
+ * dropped as soon as they are written. Buffers larger than the biggest size class are allocated as
+ * plain direct buffers.
+ *
+ * @version 
+ */
+public class SlabDirectChannelBufferFactory extends AbstractChannelBufferFactory {
+    public static final int DEFAULT_SLAB_SIZE = 1024 * 1024;
+    public static final int SEGMENTS_PER_SLAB = 64;
+    private static final int MIN_SHIFT = 6;
+    private static final int MAX_SHIFT = 16;
+
+    private final int slabSize;
+    private final AtomicReference<Slab>[] slabs;
+
+    public SlabDirectChannelBufferFactory() {
+        this(ByteOrder.BIG_ENDIAN, DEFAULT_SLAB_SIZE);
+    }
+
+    @SuppressWarnings("unchecked")
+    public SlabDirectChannelBufferFactory(ByteOrder defaultOrder, int slabSize) {
+        super(defaultOrder);
+        if (slabSize < 1 << MAX_SHIFT) {
+            throw new IllegalArgumentException("slabSize must be at least " + (1 << MAX_SHIFT) + " bytes, was: " + slabSize);
+        }
+        this.slabSize = slabSize;
+        this.slabs = new AtomicReference[MAX_SHIFT - MIN_SHIFT + 1];
+        for (int i = 0; i < slabs.length; i++) {
+            slabs[i] = new AtomicReference<Slab>();
+        }
+    }
+
+    public ChannelBuffer getBuffer(ByteOrder order, int capacity) {
+        if (order == null) {
+            throw new NullPointerException("order");
+        }
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity: " + capacity);
+        }
+        if (capacity == 0) {
+            return ChannelBuffers.EMPTY_BUFFER;
+        }
+        int index = sizeClass(capacity);
+        if (index < 0) {
+            return ChannelBuffers.directBuffer(order, capacity);
+        }
+
+        ByteBuffer segment = allocate(index, 1 << (index + MIN_SHIFT));
+        segment.limit(capacity);
+        ChannelBuffer buffer = ChannelBuffers.wrappedBuffer(segment.order(order));
+        buffer.clear();
+        return buffer;
+    }
+
+    public ChannelBuffer getBuffer(ByteOrder order, byte[] array, int offset, int length) {
+        if (array == null) {
+            throw new NullPointerException("array");
+        }
+        if (offset < 0 || length < 0 || offset + length > array.length) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length);
+        }
+        ChannelBuffer buffer = getBuffer(order, length);
+        buffer.writeBytes(array, offset, length);
+        return buffer;
+    }
+
+    public ChannelBuffer getBuffer(ByteBuffer nioBuffer) {
+        if (!nioBuffer.isReadOnly() && nioBuffer.isDirect()) {
+            return ChannelBuffers.wrappedBuffer(nioBuffer);
+        }
+        ChannelBuffer buffer = getBuffer(nioBuffer.order(), nioBuffer.remaining());
+        int pos = nioBuffer.position();
+        buffer.writeBytes(nioBuffer);
+        nioBuffer.position(pos);
+        return buffer;
+    }
+
+    /**
+     * The maximum size of a slab, the slabs of the small size classes are smaller
+     */
+    public int getSlabSize() {
+        return slabSize;
+    }
+
+    /**
+     * The index of the smallest size class which holds the given capacity, or -1 if it is too large
+     */
+    private static int sizeClass(int capacity) {
+        if (capacity > 1 << MAX_SHIFT) {
+            return -1;
+        }
+        if (capacity <= 1 << MIN_SHIFT) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1) - MIN_SHIFT;
+    }
+
+    private ByteBuffer allocate(int index, int segmentSize) {
+        AtomicReference<Slab> current = slabs[index];
+        while (true) {
+            Slab slab = current.get();
+            if (slab != null) {
+                ByteBuffer segment = slab.carve(segmentSize);
+                if (segment != null) {
+                    return segment;
+                }
+            }
+            // only one thread should replace the exhausted slab
+            synchronized (current) {
+                if (current.get() == slab) {
+                    current.set(new Slab(Math.min(slabSize, segmentSize * SEGMENTS_PER_SLAB)));
+                }
+            }
+        }
+    }
+
+    private static final class Slab {
+        private final ByteBuffer memory;
+        private final AtomicInteger offset = new AtomicInteger();
+
+        Slab(int size) {
+            this.memory = ByteBuffer.allocateDirect(size);
+        }
+
+        ByteBuffer carve(int size) {
+            while (true) {
+                int start = offset.get();
+                if (start + size > memory.capacity()) {
+                    return null;
+                }
+                if (offset.compareAndSet(start, start + size)) {
+                    ByteBuffer segment = memory.duplicate();
+                    segment.limit(start + size).position(start);
+                    return segment.slice();
+                }
+            }
+        }
+    }
+}
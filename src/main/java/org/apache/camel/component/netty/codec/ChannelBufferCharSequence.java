@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.nio.charset.Charset;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.util.CharsetUtil;
+
+/**
+ * A {@link CharSequence} view of the text in a buffer, which only decodes the bytes when needed.
+ * <p/>
+ * When each byte is a character, which is always the case for ISO-8859-1 and the case for US-ASCII and UTF-8
+ * text without multi byte characters, the characters are read straight from the buffer and sub sequences are
+ * views of the same buffer. Otherwise the text is decoded into a String on first use. {@link #toString()}
+ * decodes the text only once.
+ * <p/>
+ * The buffer must not be changed while this sequence is in use.
+ */
+public final class ChannelBufferCharSequence implements CharSequence {
+    private static final byte UNKNOWN = 0;
+    private static final byte SINGLE_BYTE = 1;
+    private static final byte MULTI_BYTE = 2;
+
+    private final ChannelBuffer buffer;
+    private final Charset charset;
+    private byte layout;
+    private String text;
+
+    public ChannelBufferCharSequence(ChannelBuffer buffer, Charset charset) {
+        this(buffer, charset, CharsetUtil.ISO_8859_1.equals(charset) ? SINGLE_BYTE : UNKNOWN);
+    }
+
+    private ChannelBufferCharSequence(ChannelBuffer buffer, Charset charset, byte layout) {
+        this.buffer = buffer;
+        this.charset = charset;
+        this.layout = layout;
+    }
+
+    /**
+     * Gets the buffer with the encoded text, which must not be changed
+     */
+    public ChannelBuffer getBuffer() {
+        return buffer;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public int length() {
+        if (isSingleByte()) {
+            return buffer.readableBytes();
+        }
+        return toString().length();
+    }
+
+    public char charAt(int index) {
+        if (isSingleByte()) {
+            if (index < 0 || index >= buffer.readableBytes()) {
+                throw new IndexOutOfBoundsException("index: " + index + ", length: " + buffer.readableBytes());
+            }
+            return (char) (buffer.getByte(buffer.readerIndex() + index) & 0xFF);
+        }
+        return toString().charAt(index);
+    }
+
+    public CharSequence subSequence(int start, int end) {
+        if (isSingleByte()) {
+            if (start < 0 || end > buffer.readableBytes() || start > end) {
+                throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + buffer.readableBytes());
+            }
+            return new ChannelBufferCharSequence(buffer.slice(buffer.readerIndex() + start, end - start), charset, SINGLE_BYTE);
+        }
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        String answer = text;
+        if (answer == null) {
+            answer = buffer.toString(charset);
+            text = answer;
+        }
+        return answer;
+    }
+
+    private boolean isSingleByte() {
+        if (layout == UNKNOWN) {
+            layout = MULTI_BYTE;
+            if (CharsetUtil.UTF_8.equals(charset) || CharsetUtil.US_ASCII.equals(charset)) {
+                // ascii bytes are the same characters in both charsets
+                int end = buffer.writerIndex();
+                int i = buffer.readerIndex();
+                while (i < end && buffer.getByte(i) >= 0) {
+                    i++;
+                }
+                if (i == end) {
+                    layout = SINGLE_BYTE;
+                }
+            }
+        }
+        return layout == SINGLE_BYTE;
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.nio.charset.Charset;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandler;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.oneone.OneToOneDecoder;
+
+/**
+ * Decodes the received frames into a {@link ChannelBufferCharSequence}, so the text is only decoded when the
+ * characters are used.
+ * <p/>
+ * The frames must not be reused by the decoders before this one, which is the case for the frame decoders
+ * which copy the frame out of the cumulation buffer.
+ */
+@ChannelHandler.Sharable
+public class CharSequenceDecoder extends OneToOneDecoder {
+    private final Charset charset;
+
+    public CharSequenceDecoder(Charset charset) {
+        this.charset = charset;
+    }
+
+    @Override
+    protected Object decode(ChannelHandlerContext ctx, Channel channel, Object msg) throws Exception {
+        if (msg instanceof ChannelBuffer) {
+            return new ChannelBufferCharSequence((ChannelBuffer) msg, charset);
+        }
+        return msg;
+    }
+}
@@ -0,0 +1,244 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedList;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.DefaultChannelFuture;
+
+/**
+ * The body of a message received in chunks by the {@link ChunkedStreamDecoder}, which can be read while the
+ * chunks are still being received.
+ * <p/>
+ * When more than the buffer size is received but not yet read, reading from the channel is suspended until
+ * the stream has been read below half the buffer size. The stream must therefore be read to the end or closed,
+ * closing it discards the remaining chunks of the message.
+ */
+public class ChunkedBodyInputStream extends InputStream {
+    private final Channel channel;
+    private final int bufferSize;
+    private final ChannelFuture endFuture;
+    private final LinkedList<ChannelBuffer> chunks = new LinkedList<ChannelBuffer>();
+    private int buffered;
+    private boolean ended;
+    private boolean closed;
+    private boolean suspended;
+    private IOException failure;
+    private Runnable readableTask;
+
+    public ChunkedBodyInputStream(Channel channel, int bufferSize) {
+        this.channel = channel;
+        this.bufferSize = bufferSize;
+        this.endFuture = new DefaultChannelFuture(channel, false);
+    }
+
+    /**
+     * Gets the future which completes when the last chunk has been received, or fails if the channel
+     * was closed before
+     */
+    public ChannelFuture getEndFuture() {
+        return endFuture;
+    }
+
+    void offer(ChannelBuffer chunk) {
+        boolean suspend = false;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            chunks.add(chunk);
+            buffered += chunk.readableBytes();
+            if (!suspended && buffered >= bufferSize) {
+                suspended = true;
+                suspend = true;
+            }
+            notifyAll();
+        }
+        if (suspend) {
+            channel.setReadable(false);
+        }
+        runReadableTask();
+    }
+
+    void end() {
+        synchronized (this) {
+            ended = true;
+            notifyAll();
+        }
+        endFuture.setSuccess();
+        runReadableTask();
+    }
+
+    void fail(IOException cause) {
+        synchronized (this) {
+            if (!ended) {
+                failure = cause;
+            }
+            notifyAll();
+        }
+        endFuture.setFailure(cause);
+        runReadableTask();
+    }
+
+    /**
+     * Reads the bytes which have been received so far into the buffer, without waiting for more.
+     *
+     * @param target        the buffer to write the bytes to
+     * @param len           the maximum number of bytes to read
+     * @param whenReadable  run once when more bytes are received, the stream ends or fails, if nothing could be read
+     * @return the number of bytes read, 0 if no bytes are received yet, or -1 at the end of the stream
+     */
+    int readAvailable(ChannelBuffer target, int len, Runnable whenReadable) throws IOException {
+        int read = 0;
+        synchronized (this) {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            while (read < len && !chunks.isEmpty()) {
+                ChannelBuffer chunk = chunks.getFirst();
+                int length = Math.min(len - read, chunk.readableBytes());
+                target.writeBytes(chunk, length);
+                if (!chunk.readable()) {
+                    chunks.removeFirst();
+                }
+                read += length;
+            }
+            if (read == 0) {
+                if (failure != null) {
+                    throw failure;
+                }
+                if (ended) {
+                    return -1;
+                }
+                readableTask = whenReadable;
+                return 0;
+            }
+            buffered -= read;
+        }
+        resumeIfDrained();
+        return read;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int answer;
+        synchronized (this) {
+            if (!awaitChunk()) {
+                return -1;
+            }
+            ChannelBuffer chunk = chunks.getFirst();
+            answer = chunk.readUnsignedByte();
+            if (!chunk.readable()) {
+                chunks.removeFirst();
+            }
+            buffered--;
+        }
+        resumeIfDrained();
+        return answer;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        int read;
+        synchronized (this) {
+            if (!awaitChunk()) {
+                return -1;
+            }
+            ChannelBuffer chunk = chunks.getFirst();
+            read = Math.min(len, chunk.readableBytes());
+            chunk.readBytes(b, off, read);
+            if (!chunk.readable()) {
+                chunks.removeFirst();
+            }
+            buffered -= read;
+        }
+        resumeIfDrained();
+        return read;
+    }
+
+    @Override
+    public synchronized int available() throws IOException {
+        return buffered;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            chunks.clear();
+            buffered = 0;
+            notifyAll();
+        }
+        resumeIfDrained();
+    }
+
+    /**
+     * Waits until a chunk is received, must be called holding the lock
+     *
+     * @return <tt>false</tt> at the end of the stream
+     */
+    private boolean awaitChunk() throws IOException {
+        while (chunks.isEmpty()) {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            if (ended) {
+                return false;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the next chunk");
+            }
+        }
+        return true;
+    }
+
+    private void runReadableTask() {
+        Runnable task;
+        synchronized (this) {
+            task = readableTask;
+            readableTask = null;
+        }
+        if (task != null) {
+            task.run();
+        }
+    }
+
+    private void resumeIfDrained() {
+        synchronized (this) {
+            if (!suspended || buffered > bufferSize / 2) {
+                return;
+            }
+            suspended = false;
+        }
+        channel.setReadable(true);
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.io.IOException;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelStateEvent;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.ExceptionEvent;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
+import org.jboss.netty.handler.codec.frame.CorruptedFrameException;
+
+/**
+ * Decodes the chunks written by a {@link ChunkedStreamInput}. A {@link ChunkedBodyInputStream} is passed on
+ * as the message as soon as the first chunk arrives, and the following chunks are added to it as they arrive
+ * without copying them.
+ * <p/>
+ * The stream is read while chunks are still arriving, so the handlers after this decoder must not run on the
+ * I/O thread, which is ensured by an {@link org.jboss.netty.handler.execution.ExecutionHandler}.
+ * <p/>
+ * This decoder keeps state and must not be shared between channels.
+ */
+public class ChunkedStreamDecoder extends SimpleChannelUpstreamHandler {
+    private final int maxChunkSize;
+    private final int bufferSize;
+    private final ChannelBuffer header = ChannelBuffers.buffer(4);
+    private ChunkedBodyInputStream stream;
+    private int remaining;
+
+    public ChunkedStreamDecoder(int maxChunkSize, int bufferSize) {
+        this.maxChunkSize = maxChunkSize;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+        if (!(e.getMessage() instanceof ChannelBuffer)) {
+            ctx.sendUpstream(e);
+            return;
+        }
+
+        ChannelBuffer buffer = (ChannelBuffer) e.getMessage();
+        while (buffer.readable()) {
+            if (remaining > 0) {
+                int length = Math.min(remaining, buffer.readableBytes());
+                stream.offer(buffer.readSlice(length));
+                remaining -= length;
+                continue;
+            }
+
+            // the length of the chunk may be split over several reads
+            buffer.readBytes(header, Math.min(header.writableBytes(), buffer.readableBytes()));
+            if (header.writable()) {
+                break;
+            }
+            int length = header.readInt();
+            header.clear();
+            if (length < 0 || length > maxChunkSize) {
+                throw new CorruptedFrameException("Invalid chunk length: " + length + ", the maximum is: " + maxChunkSize);
+            }
+
+            if (stream == null) {
+                stream = new ChunkedBodyInputStream(ctx.getChannel(), bufferSize);
+                Channels.fireMessageReceived(ctx, stream, e.getRemoteAddress());
+            }
+            if (length == 0) {
+                stream.end();
+                stream = null;
+            } else {
+                remaining = length;
+            }
+        }
+    }
+
+    @Override
+    public void channelClosed(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+        failStream(new IOException("Channel closed before the end of the stream"));
+        ctx.sendUpstream(e);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, ExceptionEvent e) throws Exception {
+        IOException cause = new IOException("Error receiving the stream");
+        cause.initCause(e.getCause());
+        failStream(cause);
+        ctx.sendUpstream(e);
+    }
+
+    private void failStream(IOException cause) {
+        if (stream != null) {
+            stream.fail(cause);
+            stream = null;
+            remaining = 0;
+        }
+    }
+}
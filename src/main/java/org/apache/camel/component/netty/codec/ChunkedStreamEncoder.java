@@ -0,0 +1,48 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.io.InputStream;
+
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandler;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.oneone.OneToOneEncoder;
+import org.jboss.netty.handler.stream.ChunkedWriteHandler;
+
+/**
+ * Encodes {@link InputStream}s as a {@link ChunkedStreamInput}, which must be written by a
+ * {@link org.jboss.netty.handler.stream.ChunkedWriteHandler} closer to the socket in the pipeline.
+ *
+ * @see ChunkedStreamDecoder
+ */
+@ChannelHandler.Sharable
+public class ChunkedStreamEncoder extends OneToOneEncoder {
+    private final int chunkSize;
+
+    public ChunkedStreamEncoder(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    protected Object encode(ChannelHandlerContext ctx, Channel channel, Object msg) throws Exception {
+        if (msg instanceof InputStream) {
+            return new ChunkedStreamInput((InputStream) msg, chunkSize, ctx.getPipeline().get(ChunkedWriteHandler.class));
+        }
+        return msg;
+    }
+}
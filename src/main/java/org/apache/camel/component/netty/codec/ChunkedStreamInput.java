@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.io.InputStream;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.handler.stream.ChunkedInput;
+import org.jboss.netty.handler.stream.ChunkedWriteHandler;
+
+/**
+ * A {@link ChunkedInput} which reads an {@link InputStream} in chunks, each written as a 4 byte length
+ * followed by the bytes, and ends with a chunk of length 0.
+ * <p/>
+ * The chunks are only read when the {@link ChunkedWriteHandler} can write them, so at most a chunk of the
+ * stream is held in memory. The chunks are read by the I/O thread, so a {@link ChunkedBodyInputStream} received
+ * from another connection is only read as far as it has been received. Waiting for more could block the very
+ * thread which has to receive it, so the transfer is suspended instead and resumed when more is received.
+ *
+ * @see ChunkedStreamDecoder
+ */
+public class ChunkedStreamInput implements ChunkedInput {
+    private final InputStream in;
+    private final int chunkSize;
+    private final Runnable resumeTask;
+    private boolean endOfInput;
+
+    /**
+     * @param in         the stream to write
+     * @param chunkSize  the maximum number of bytes in a chunk
+     * @param writer     the handler writing the chunks, which is resumed when a received stream has more bytes,
+     *                   or <tt>null</tt> to wait for the bytes instead
+     */
+    public ChunkedStreamInput(InputStream in, int chunkSize, final ChunkedWriteHandler writer) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive, was: " + chunkSize);
+        }
+        this.in = in;
+        this.chunkSize = chunkSize;
+        this.resumeTask = writer == null ? null : new Runnable() {
+            public void run() {
+                writer.resumeTransfer();
+            }
+        };
+    }
+
+    public boolean hasNextChunk() throws Exception {
+        return !endOfInput;
+    }
+
+    public Object nextChunk() throws Exception {
+        if (endOfInput) {
+            return null;
+        }
+
+        ChannelBuffer chunk = ChannelBuffers.buffer(4 + chunkSize);
+        chunk.writeInt(0);
+        int read;
+        if (resumeTask != null && in instanceof ChunkedBodyInputStream) {
+            read = ((ChunkedBodyInputStream) in).readAvailable(chunk, chunkSize, resumeTask);
+            if (read == 0) {
+                // nothing received yet, the writer is resumed when there is
+                return null;
+            }
+        } else {
+            read = chunk.writeBytes(in, chunkSize);
+        }
+        if (read <= 0) {
+            // the chunk of length 0 marks the end of the stream
+            endOfInput = true;
+        } else {
+            chunk.setInt(0, read);
+        }
+        return chunk;
+    }
+
+    public boolean isEndOfInput() throws Exception {
+        return endOfInput;
+    }
+
+    public void close() throws Exception {
+        in.close();
+    }
+}
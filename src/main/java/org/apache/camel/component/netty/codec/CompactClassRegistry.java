@@ -0,0 +1,130 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registry of the classes known by both sides of a connection using the {@link CompactObjectCodec}.
+ * <p/>
+ * Each registered class is identified by a small integer, assigned in the order the classes are registered,
+ * so producer and consumer must register the same classes in the same order. A registered class is written
+ * using its {@link CompactSerializer}, or using Java serialization with the class identifier instead of
+ * the class descriptor if no serializer is registered.
+ * <p/>
+ * Classes must be registered before the registry is in use.
+ */
+public class CompactClassRegistry {
+    private final List<Class<?>> types = new CopyOnWriteArrayList<Class<?>>();
+    private final List<CompactSerializer<?>> serializers = new CopyOnWriteArrayList<CompactSerializer<?>>();
+    private final Map<Class<?>, Integer> ids = new ConcurrentHashMap<Class<?>, Integer>();
+    private final Map<String, Class<?>> resolved = new ConcurrentHashMap<String, Class<?>>();
+    private ClassLoader classLoader;
+
+    /**
+     * Registers the class which will be written using Java serialization with a compact class descriptor
+     *
+     * @return the identifier of the class
+     */
+    public int register(Class<?> type) {
+        return register(type, null);
+    }
+
+    /**
+     * Registers the class which will be written using the given serializer
+     *
+     * @return the identifier of the class
+     */
+    public synchronized <T> int register(Class<T> type, CompactSerializer<? super T> serializer) {
+        if (ids.containsKey(type)) {
+            throw new IllegalArgumentException("Class already registered: " + type.getName());
+        }
+        int id = types.size();
+        types.add(type);
+        serializers.add(serializer);
+        ids.put(type, id);
+        return id;
+    }
+
+    /**
+     * Registers the classes by name, which is convenient when configuring the registry in Spring XML
+     */
+    public void setClassNames(List<String> classNames) throws ClassNotFoundException {
+        for (String name : classNames) {
+            register(loadClass(name.trim()));
+        }
+    }
+
+    public List<String> getClassNames() {
+        List<String> answer = new ArrayList<String>(types.size());
+        for (Class<?> type : types) {
+            answer.add(type.getName());
+        }
+        return answer;
+    }
+
+    /**
+     * Gets the identifier of the class, or <tt>-1</tt> if the class is not registered
+     */
+    public int getId(Class<?> type) {
+        Integer id = ids.get(type);
+        return id != null ? id : -1;
+    }
+
+    public Class<?> getType(int id) {
+        if (id < 0 || id >= types.size()) {
+            throw new IllegalArgumentException("Unknown class identifier: " + id);
+        }
+        return types.get(id);
+    }
+
+    public CompactSerializer<?> getSerializer(int id) {
+        return serializers.get(id);
+    }
+
+    /**
+     * Loads the class with the given name, caching the result so classes are only looked up by name once.
+     */
+    public Class<?> loadClass(String name) throws ClassNotFoundException {
+        Class<?> answer = resolved.get(name);
+        if (answer == null) {
+            ClassLoader loader = classLoader;
+            if (loader == null) {
+                loader = Thread.currentThread().getContextClassLoader();
+            }
+            try {
+                answer = Class.forName(name, false, loader != null ? loader : CompactClassRegistry.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                answer = Class.forName(name, false, CompactClassRegistry.class.getClassLoader());
+            }
+            resolved.put(name, answer);
+        }
+        return answer;
+    }
+
+    public ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    public void setClassLoader(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+}
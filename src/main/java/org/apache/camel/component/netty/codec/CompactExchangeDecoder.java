@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.oneone.OneToOneDecoder;
+
+/**
+ * Decodes frames written by the {@link CompactExchangeEncoder}, keeping the {@link HeaderTable} of the
+ * connection in step with the table of the encoder.
+ * <p/>
+ * This decoder keeps state and must not be shared between channels.
+ */
+public class CompactExchangeDecoder extends OneToOneDecoder {
+    private final CompactObjectCodec codec;
+    private final HeaderTable table;
+
+    public CompactExchangeDecoder(CompactObjectCodec codec, int tableSize) {
+        this.codec = codec;
+        this.table = new HeaderTable(tableSize);
+    }
+
+    @Override
+    protected Object decode(ChannelHandlerContext ctx, Channel channel, Object msg) throws Exception {
+        if (!(msg instanceof ChannelBuffer)) {
+            return msg;
+        }
+        ChannelBuffer buffer = (ChannelBuffer) msg;
+        try {
+            if (buffer.getByte(buffer.readerIndex()) == CompactObjectCodec.EXCHANGE_HOLDER) {
+                buffer.skipBytes(1);
+                CompactExchangeHolder holder = CompactExchangeHolder.read(buffer, codec, table);
+                CompactObjectCodec.checkFrameConsumed(buffer);
+                return holder;
+            }
+            return codec.readFrame(buffer);
+        } catch (Exception e) {
+            // the table is out of step with the encoder of the peer
+            channel.close();
+            throw e;
+        }
+    }
+}
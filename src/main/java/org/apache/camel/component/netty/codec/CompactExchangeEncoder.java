@@ -0,0 +1,69 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelEvent;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.oneone.OneToOneEncoder;
+
+/**
+ * Encodes objects using the {@link CompactObjectCodec} like the {@link CompactObjectEncoder}, and writes
+ * the headers of {@link CompactExchangeHolder}s using a {@link HeaderTable} kept for the connection.
+ * <p/>
+ * This encoder keeps state and must not be shared between channels. The peer must decode using a
+ * {@link CompactExchangeDecoder} with the same table size.
+ */
+public class CompactExchangeEncoder extends OneToOneEncoder {
+    private static final int ESTIMATED_LENGTH = 256;
+    private final CompactObjectCodec codec;
+    private final HeaderTable table;
+
+    public CompactExchangeEncoder(CompactObjectCodec codec, int tableSize) {
+        this.codec = codec;
+        this.table = new HeaderTable(tableSize);
+    }
+
+    @Override
+    public void handleDownstream(ChannelHandlerContext ctx, ChannelEvent evt) throws Exception {
+        // the peer must decode in the same order as we encode, so the message must be passed on
+        // to the write queue before another message is encoded
+        synchronized (table) {
+            super.handleDownstream(ctx, evt);
+        }
+    }
+
+    @Override
+    protected Object encode(ChannelHandlerContext ctx, Channel channel, Object msg) throws Exception {
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(ESTIMATED_LENGTH, channel.getConfig().getBufferFactory());
+        try {
+            if (msg instanceof CompactExchangeHolder) {
+                buffer.writeByte(CompactObjectCodec.EXCHANGE_HOLDER);
+                ((CompactExchangeHolder) msg).write(buffer, codec, table);
+            } else {
+                codec.writeObject(buffer, msg);
+            }
+        } catch (Exception e) {
+            // the table may now contain entries the peer never receives
+            channel.close();
+            throw e;
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,304 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holder for transferring an exchange over the wire using the {@link CompactObjectCodec}, the compact
+ * counterpart of {@link org.apache.camel.impl.DefaultExchangeHolder} used with
+ * <tt>transferExchange=true</tt> and <tt>transferExchangeFormat=compact</tt>.
+ * <p/>
+ * The same parts of the exchange is transferred: the exchange id, the in and out body and headers,
+ * the properties, the fault flags and the caused exception. Only serializable values are transferred.
+ * <p/>
+ * The encoding starts with a version byte, well known header names are written as an index and
+ * values are written with the type tags of the {@link CompactObjectCodec}. When written with a per connection
+ * {@link HeaderTable} the names and values already sent on the connection are written as an index into the table.
+ */
+public class CompactExchangeHolder {
+    static final int VERSION = 1;
+    private static final transient Logger LOG = LoggerFactory.getLogger(CompactExchangeHolder.class);
+    private static final int FLAG_OUT = 1;
+    private static final int FLAG_IN_FAULT = 2;
+    private static final int FLAG_OUT_FAULT = 4;
+    private static final int FLAG_EXCEPTION = 8;
+    private static final int FLAG_HEADER_TABLE = 16;
+    // the representations of a map entry when using a header table
+    private static final int INDEXED = 0;
+    private static final int NAME_INDEXED = 1;
+    private static final int NAME_STATIC = 2;
+    private static final int NAME_LITERAL = 3;
+    private static final int INSERT = 4;
+
+    private String exchangeId;
+    private Object inBody;
+    private Map<String, Object> inHeaders;
+    private boolean inFault;
+    private boolean out;
+    private Object outBody;
+    private Map<String, Object> outHeaders;
+    private boolean outFault;
+    private Map<String, Object> properties;
+    private Throwable exception;
+
+    /**
+     * Creates a holder with the transferable parts of the exchange
+     */
+    public static CompactExchangeHolder marshal(Exchange exchange) {
+        CompactExchangeHolder holder = new CompactExchangeHolder();
+        holder.exchangeId = exchange.getExchangeId();
+        holder.inBody = checkSerializable("in body", exchange.getIn().getBody());
+        holder.inHeaders = serializableMap("in header", exchange.getIn().getHeaders());
+        holder.inFault = exchange.getIn().isFault();
+        if (exchange.hasOut()) {
+            holder.out = true;
+            holder.outBody = checkSerializable("out body", exchange.getOut().getBody());
+            holder.outHeaders = serializableMap("out header", exchange.getOut().getHeaders());
+            holder.outFault = exchange.getOut().isFault();
+        }
+        holder.properties = serializableMap("property", exchange.getProperties());
+        holder.exception = exchange.getException();
+        return holder;
+    }
+
+    /**
+     * Transfers the content of the holder onto the exchange
+     */
+    public static void unmarshal(Exchange exchange, CompactExchangeHolder holder) {
+        exchange.setExchangeId(holder.exchangeId);
+        exchange.getIn().setBody(holder.inBody);
+        exchange.getIn().setHeaders(holder.inHeaders);
+        exchange.getIn().setFault(holder.inFault);
+        if (holder.out) {
+            exchange.getOut().setBody(holder.outBody);
+            exchange.getOut().setHeaders(holder.outHeaders);
+            exchange.getOut().setFault(holder.outFault);
+        }
+        for (Map.Entry<String, Object> entry : holder.properties.entrySet()) {
+            exchange.setProperty(entry.getKey(), entry.getValue());
+        }
+        exchange.setException(holder.exception);
+    }
+
+    void write(ChannelBuffer buffer, CompactObjectCodec codec, HeaderTable table) throws Exception {
+        buffer.writeByte(VERSION);
+        int flags = (out ? FLAG_OUT : 0) | (inFault ? FLAG_IN_FAULT : 0) | (outFault ? FLAG_OUT_FAULT : 0) | (exception != null ? FLAG_EXCEPTION : 0)
+                | (table != null ? FLAG_HEADER_TABLE : 0);
+        buffer.writeByte(flags);
+        CompactObjectCodec.writeString(buffer, exchangeId);
+        codec.writeObject(buffer, inBody);
+        writeMap(buffer, inHeaders, codec, table);
+        if (out) {
+            codec.writeObject(buffer, outBody);
+            writeMap(buffer, outHeaders, codec, table);
+        }
+        writeMap(buffer, properties, codec, table);
+        if (exception != null) {
+            codec.writeObject(buffer, exception);
+        }
+    }
+
+    static CompactExchangeHolder read(ChannelBuffer buffer, CompactObjectCodec codec, HeaderTable table) throws Exception {
+        int version = buffer.readUnsignedByte();
+        if (version != VERSION) {
+            throw new StreamCorruptedException("Unsupported exchange holder version: " + version);
+        }
+        int flags = buffer.readUnsignedByte();
+        if ((flags & FLAG_HEADER_TABLE) == 0) {
+            table = null;
+        } else if (table == null) {
+            throw new StreamCorruptedException("The exchange holder was written using a header table, the headerTableSize option must be configured on both sides");
+        }
+
+        CompactExchangeHolder holder = new CompactExchangeHolder();
+        holder.exchangeId = CompactObjectCodec.readString(buffer);
+        holder.inBody = codec.readObject(buffer);
+        holder.inHeaders = readMap(buffer, codec, table);
+        holder.inFault = (flags & FLAG_IN_FAULT) != 0;
+        if ((flags & FLAG_OUT) != 0) {
+            holder.out = true;
+            holder.outBody = codec.readObject(buffer);
+            holder.outHeaders = readMap(buffer, codec, table);
+            holder.outFault = (flags & FLAG_OUT_FAULT) != 0;
+        }
+        holder.properties = readMap(buffer, codec, table);
+        if ((flags & FLAG_EXCEPTION) != 0) {
+            holder.exception = (Throwable) codec.readObject(buffer);
+        }
+        return holder;
+    }
+
+    private static void writeMap(ChannelBuffer buffer, Map<String, Object> map, CompactObjectCodec codec, HeaderTable table) throws Exception {
+        CompactObjectCodec.writeVarLong(buffer, map.size());
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            String name = entry.getKey();
+            Object value = entry.getValue();
+            if (table == null) {
+                writeName(buffer, name);
+                codec.writeObject(buffer, value);
+                continue;
+            }
+
+            // the peer applies the same touches and additions when reading, in the same order
+            boolean indexable = HeaderTable.isIndexable(value);
+            HeaderTable.Entry found = indexable ? table.find(name, value) : null;
+            if (found != null) {
+                table.touch(found);
+                CompactObjectCodec.writeVarLong(buffer, ((long) found.index << 3) | INDEXED);
+                continue;
+            }
+            int insert = indexable ? INSERT : 0;
+            HeaderTable.Entry named = table.findName(name);
+            if (named != null) {
+                table.touch(named);
+                CompactObjectCodec.writeVarLong(buffer, ((long) named.index << 3) | insert | NAME_INDEXED);
+            } else {
+                int index = HeaderNameDictionary.indexOf(name);
+                if (index >= 0) {
+                    CompactObjectCodec.writeVarLong(buffer, ((long) index << 3) | insert | NAME_STATIC);
+                } else {
+                    CompactObjectCodec.writeVarLong(buffer, insert | NAME_LITERAL);
+                    CompactObjectCodec.writeString(buffer, name);
+                }
+            }
+            codec.writeObject(buffer, value);
+            if (indexable) {
+                table.add(name, value);
+            }
+        }
+    }
+
+    private static Map<String, Object> readMap(ChannelBuffer buffer, CompactObjectCodec codec, HeaderTable table) throws Exception {
+        int size = CompactObjectCodec.readLength(buffer);
+        Map<String, Object> answer = new LinkedHashMap<String, Object>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            if (table == null) {
+                String name = readName(buffer);
+                answer.put(name, codec.readObject(buffer));
+                continue;
+            }
+
+            long code = CompactObjectCodec.readVarLong(buffer);
+            int kind = (int) (code & 3);
+            int index = (int) (code >>> 3);
+            String name;
+            if (kind == INDEXED || kind == NAME_INDEXED) {
+                HeaderTable.Entry entry = table.get(index);
+                if (entry == null) {
+                    throw new StreamCorruptedException("Unknown header table index: " + index);
+                }
+                table.touch(entry);
+                if (kind == INDEXED) {
+                    answer.put(entry.name, entry.value);
+                    continue;
+                }
+                name = entry.name;
+            } else if (kind == NAME_STATIC) {
+                name = HeaderNameDictionary.nameAt(index);
+            } else {
+                name = HeaderNameDictionary.intern(CompactObjectCodec.readString(buffer));
+            }
+            Object value = codec.readObject(buffer);
+            if ((code & INSERT) != 0) {
+                table.add(name, value);
+            }
+            answer.put(name, value);
+        }
+        return answer;
+    }
+
+    private static void writeName(ChannelBuffer buffer, String name) {
+        // index 0 means the name follows, otherwise it is the dictionary index + 1
+        int index = HeaderNameDictionary.indexOf(name);
+        CompactObjectCodec.writeVarLong(buffer, index + 1);
+        if (index < 0) {
+            CompactObjectCodec.writeString(buffer, name);
+        }
+    }
+
+    private static String readName(ChannelBuffer buffer) throws StreamCorruptedException {
+        int index = (int) CompactObjectCodec.readVarLong(buffer);
+        if (index == 0) {
+            return HeaderNameDictionary.intern(CompactObjectCodec.readString(buffer));
+        }
+        return HeaderNameDictionary.nameAt(index - 1);
+    }
+
+    private static Map<String, Object> serializableMap(String type, Map<String, Object> map) {
+        Map<String, Object> answer = new LinkedHashMap<String, Object>();
+        if (map != null) {
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                Object value = checkSerializable(type + " " + entry.getKey(), entry.getValue());
+                if (value != null) {
+                    answer.put(entry.getKey(), value);
+                }
+            }
+        }
+        return answer;
+    }
+
+    private static Object checkSerializable(String name, Object value) {
+        if (value == null || value instanceof Serializable) {
+            return value;
+        }
+        LOG.debug("Exchange {} of type: {} cannot be serialized, it will be excluded by the holder", name, value.getClass().getName());
+        return null;
+    }
+
+    public String getExchangeId() {
+        return exchangeId;
+    }
+
+    public Object getInBody() {
+        return inBody;
+    }
+
+    public Map<String, Object> getInHeaders() {
+        return inHeaders;
+    }
+
+    public Object getOutBody() {
+        return outBody;
+    }
+
+    public Map<String, Object> getOutHeaders() {
+        return outHeaders;
+    }
+
+    public Map<String, Object> getProperties() {
+        return properties;
+    }
+
+    public Throwable getException() {
+        return exception;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactExchangeHolder[exchangeId=" + exchangeId + "]";
+    }
+}
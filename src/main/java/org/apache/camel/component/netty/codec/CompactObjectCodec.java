@@ -0,0 +1,370 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBufferInputStream;
+import org.jboss.netty.buffer.ChannelBufferOutputStream;
+import org.jboss.netty.handler.codec.frame.CorruptedFrameException;
+import org.jboss.netty.util.CharsetUtil;
+
+/**
+ * Compact binary object serialization.
+ * <p/>
+ * Each value is written as a type tag followed by the value. Boxed primitives, {@link String}, <tt>byte[]</tt>,
+ * {@link ArrayList}, {@link HashMap} and {@link LinkedHashMap} have dedicated encodings, classes registered on
+ * the {@link CompactClassRegistry} are written using their identifier and their {@link CompactSerializer},
+ * and anything else falls back to Java serialization with compact class descriptors.
+ * <p/>
+ * When reading, the lists, maps, registered classes and exchanges may be nested at most {@link #MAX_DEPTH} levels
+ * deep, so a malicious frame cannot exhaust the stack of the thread decoding it.
+ * <p/>
+ * This class is thread safe.
+ */
+public class CompactObjectCodec {
+    public static final int MAX_DEPTH = 64;
+    static final byte NULL = 0;
+    static final byte TRUE = 1;
+    static final byte FALSE = 2;
+    static final byte BYTE = 3;
+    static final byte SHORT = 4;
+    static final byte INT = 5;
+    static final byte LONG = 6;
+    static final byte FLOAT = 7;
+    static final byte DOUBLE = 8;
+    static final byte CHAR = 9;
+    static final byte STRING = 10;
+    static final byte BYTES = 11;
+    static final byte LIST = 12;
+    static final byte MAP = 13;
+    static final byte LINKED_MAP = 14;
+    static final byte REGISTERED = 15;
+    static final byte SERIALIZED = 16;
+    static final byte EXCHANGE_HOLDER = 17;
+
+    private final CompactClassRegistry registry;
+    // the nesting level of the objects being read by each thread
+    private final ThreadLocal<int[]> depth = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
+
+    public CompactObjectCodec(CompactClassRegistry registry) {
+        this.registry = registry;
+    }
+
+    public CompactClassRegistry getRegistry() {
+        return registry;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void writeObject(ChannelBuffer buffer, Object value) throws Exception {
+        if (value == null) {
+            buffer.writeByte(NULL);
+            return;
+        }
+
+        Class<?> type = value.getClass();
+        if (type == String.class) {
+            buffer.writeByte(STRING);
+            writeString(buffer, (String) value);
+        } else if (type == Integer.class) {
+            buffer.writeByte(INT);
+            writeVarLong(buffer, zigzag((Integer) value));
+        } else if (type == Long.class) {
+            buffer.writeByte(LONG);
+            writeVarLong(buffer, zigzag((Long) value));
+        } else if (type == Boolean.class) {
+            buffer.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (type == byte[].class) {
+            byte[] bytes = (byte[]) value;
+            buffer.writeByte(BYTES);
+            writeVarLong(buffer, bytes.length);
+            buffer.writeBytes(bytes);
+        } else if (type == Double.class) {
+            buffer.writeByte(DOUBLE);
+            buffer.writeLong(Double.doubleToRawLongBits((Double) value));
+        } else if (type == Float.class) {
+            buffer.writeByte(FLOAT);
+            buffer.writeInt(Float.floatToRawIntBits((Float) value));
+        } else if (type == Byte.class) {
+            buffer.writeByte(BYTE);
+            buffer.writeByte((Byte) value);
+        } else if (type == Short.class) {
+            buffer.writeByte(SHORT);
+            buffer.writeShort((Short) value);
+        } else if (type == Character.class) {
+            buffer.writeByte(CHAR);
+            buffer.writeChar((Character) value);
+        } else if (type == ArrayList.class) {
+            List<Object> list = (List<Object>) value;
+            buffer.writeByte(LIST);
+            writeVarLong(buffer, list.size());
+            for (int i = 0; i < list.size(); i++) {
+                writeObject(buffer, list.get(i));
+            }
+        } else if (type == HashMap.class || type == LinkedHashMap.class) {
+            Map<Object, Object> map = (Map<Object, Object>) value;
+            buffer.writeByte(type == HashMap.class ? MAP : LINKED_MAP);
+            writeVarLong(buffer, map.size());
+            for (Map.Entry<Object, Object> entry : map.entrySet()) {
+                writeObject(buffer, entry.getKey());
+                writeObject(buffer, entry.getValue());
+            }
+        } else if (type == CompactExchangeHolder.class) {
+            buffer.writeByte(EXCHANGE_HOLDER);
+            ((CompactExchangeHolder) value).write(buffer, this, null);
+        } else {
+            int id = registry.getId(type);
+            CompactSerializer<Object> serializer = id >= 0 ? (CompactSerializer<Object>) registry.getSerializer(id) : null;
+            if (serializer != null) {
+                buffer.writeByte(REGISTERED);
+                writeVarLong(buffer, id);
+                serializer.write(buffer, value, this);
+            } else {
+                buffer.writeByte(SERIALIZED);
+                // reserve room for the length of the serialized form
+                int lengthIndex = buffer.writerIndex();
+                buffer.writeInt(0);
+                ObjectOutputStream out = new CompactObjectOutputStream(new ChannelBufferOutputStream(buffer), registry);
+                out.writeObject(value);
+                out.flush();
+                buffer.setInt(lengthIndex, buffer.writerIndex() - lengthIndex - 4);
+            }
+        }
+    }
+
+    public Object readObject(ChannelBuffer buffer) throws Exception {
+        byte tag = buffer.readByte();
+        switch (tag) {
+        case NULL:
+            return null;
+        case TRUE:
+            return Boolean.TRUE;
+        case FALSE:
+            return Boolean.FALSE;
+        case BYTE:
+            return buffer.readByte();
+        case SHORT:
+            return buffer.readShort();
+        case INT:
+            return (int) unzigzag(readVarLong(buffer));
+        case LONG:
+            return unzigzag(readVarLong(buffer));
+        case FLOAT:
+            return Float.intBitsToFloat(buffer.readInt());
+        case DOUBLE:
+            return Double.longBitsToDouble(buffer.readLong());
+        case CHAR:
+            return buffer.readChar();
+        case STRING:
+            return readString(buffer);
+        case BYTES:
+            byte[] bytes = new byte[readLength(buffer)];
+            buffer.readBytes(bytes);
+            return bytes;
+        case SERIALIZED:
+            int length = buffer.readInt();
+            if (length < 0 || length > buffer.readableBytes()) {
+                throw new StreamCorruptedException("Invalid length: " + length);
+            }
+            ObjectInputStream in = new CompactObjectInputStream(new ChannelBufferInputStream(buffer.slice(buffer.readerIndex(), length)), registry);
+            buffer.skipBytes(length);
+            return in.readObject();
+        case LIST:
+        case MAP:
+        case LINKED_MAP:
+        case REGISTERED:
+        case EXCHANGE_HOLDER:
+            int[] current = depth.get();
+            if (current[0] >= MAX_DEPTH) {
+                throw new CorruptedFrameException("Objects nested more than " + MAX_DEPTH + " levels deep");
+            }
+            current[0]++;
+            try {
+                return readNested(tag, buffer);
+            } finally {
+                current[0]--;
+            }
+        default:
+            throw new StreamCorruptedException("Unexpected type tag: " + tag);
+        }
+    }
+
+    private Object readNested(byte tag, ChannelBuffer buffer) throws Exception {
+        switch (tag) {
+        case LIST:
+            int size = readLength(buffer);
+            List<Object> list = new ArrayList<Object>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(readObject(buffer));
+            }
+            return list;
+        case MAP:
+        case LINKED_MAP:
+            int entries = readLength(buffer);
+            Map<Object, Object> map = tag == MAP ? new HashMap<Object, Object>(entries * 4 / 3 + 1) : new LinkedHashMap<Object, Object>(entries * 4 / 3 + 1);
+            for (int i = 0; i < entries; i++) {
+                Object key = readObject(buffer);
+                map.put(key, readObject(buffer));
+            }
+            return map;
+        case REGISTERED:
+            int id = (int) readVarLong(buffer);
+            CompactSerializer<?> serializer = registry.getSerializer(id);
+            if (serializer == null) {
+                throw new StreamCorruptedException("No serializer registered for class: " + registry.getType(id).getName());
+            }
+            return serializer.read(buffer, this);
+        default:
+            return CompactExchangeHolder.read(buffer, this, null);
+        }
+    }
+
+    /**
+     * Reads the object a frame consists of, the frame must not contain anything after the object
+     */
+    public Object readFrame(ChannelBuffer buffer) throws Exception {
+        Object answer = readObject(buffer);
+        checkFrameConsumed(buffer);
+        return answer;
+    }
+
+    static void checkFrameConsumed(ChannelBuffer buffer) throws CorruptedFrameException {
+        if (buffer.readable()) {
+            throw new CorruptedFrameException("Unexpected " + buffer.readableBytes() + " bytes after the object in the frame");
+        }
+    }
+
+    /**
+     * Writes the string as its UTF-8 length followed by the UTF-8 bytes, without an intermediate byte array
+     */
+    public static void writeString(ChannelBuffer buffer, String value) {
+        writeVarLong(buffer, utf8Length(value));
+        writeUtf8(buffer, value);
+    }
+
+    /**
+     * Writes the characters as UTF-8 without their length
+     */
+    static void writeUtf8(ChannelBuffer buffer, CharSequence value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.writeByte(c);
+            } else if (c < 0x800) {
+                buffer.writeByte(0xC0 | (c >> 6));
+                buffer.writeByte(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.writeByte(0xF0 | (codePoint >> 18));
+                buffer.writeByte(0x80 | ((codePoint >> 12) & 0x3F));
+                buffer.writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+                buffer.writeByte(0x80 | (codePoint & 0x3F));
+            } else if (isSurrogate(c)) {
+                // unpaired surrogate is replaced the same way as String.getBytes does
+                buffer.writeByte('?');
+            } else {
+                buffer.writeByte(0xE0 | (c >> 12));
+                buffer.writeByte(0x80 | ((c >> 6) & 0x3F));
+                buffer.writeByte(0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    public static String readString(ChannelBuffer buffer) throws StreamCorruptedException {
+        int length = readLength(buffer);
+        String answer = buffer.toString(buffer.readerIndex(), length, CharsetUtil.UTF_8);
+        buffer.skipBytes(length);
+        return answer;
+    }
+
+    static int utf8Length(CharSequence value) {
+        int length = value.length();
+        int answer = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    answer += 1;
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    // 4 bytes for the 2 chars
+                    answer += 2;
+                    i++;
+                } else if (!isSurrogate(c)) {
+                    answer += 2;
+                }
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Writes the value as an unsigned varint, 7 bits per byte with the high bit set on all but the last byte
+     */
+    public static void writeVarLong(ChannelBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.writeByte((int) value);
+    }
+
+    public static long readVarLong(ChannelBuffer buffer) throws StreamCorruptedException {
+        long answer = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.readByte();
+            answer |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return answer;
+            }
+        }
+        throw new StreamCorruptedException("Malformed varint");
+    }
+
+    static int readLength(ChannelBuffer buffer) throws StreamCorruptedException {
+        long length = readVarLong(buffer);
+        if (length < 0 || length > buffer.readableBytes()) {
+            throw new StreamCorruptedException("Invalid length: " + length);
+        }
+        return (int) length;
+    }
+
+    private static boolean isSurrogate(char c) {
+        return c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandler;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.oneone.OneToOneEncoder;
+
+/**
+ * Encodes objects using the {@link CompactObjectCodec}. The result must be framed, for example
+ * using a {@link LengthFieldPrependedFrameEncoder}.
+ *
+ * @see CompactObjectDecoder
+ */
+@ChannelHandler.Sharable
+public class CompactObjectEncoder extends OneToOneEncoder {
+    private static final int ESTIMATED_LENGTH = 256;
+    private final CompactObjectCodec codec;
+
+    public CompactObjectEncoder(CompactObjectCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    protected Object encode(ChannelHandlerContext ctx, Channel channel, Object msg) throws Exception {
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(ESTIMATED_LENGTH, channel.getConfig().getBufferFactory());
+        codec.writeObject(buffer, msg);
+        return buffer;
+    }
+}
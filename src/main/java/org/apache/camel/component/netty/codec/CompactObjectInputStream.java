@@ -0,0 +1,70 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.StreamCorruptedException;
+
+/**
+ * Java serialization stream which reads the class descriptors written by {@link CompactObjectOutputStream},
+ * resolving the classes using the {@link CompactClassRegistry}.
+ */
+class CompactObjectInputStream extends ObjectInputStream {
+    private final CompactClassRegistry registry;
+
+    CompactObjectInputStream(InputStream in, CompactClassRegistry registry) throws IOException {
+        super(in);
+        this.registry = registry;
+    }
+
+    @Override
+    protected void readStreamHeader() throws IOException {
+        // no stream header is written by CompactObjectOutputStream
+    }
+
+    @Override
+    protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+        int type = read();
+        if (type < 0) {
+            throw new EOFException();
+        }
+        switch (type) {
+        case CompactObjectOutputStream.TYPE_FAT_DESCRIPTOR:
+            return super.readClassDescriptor();
+        case CompactObjectOutputStream.TYPE_CLASS_NAME:
+            return ObjectStreamClass.lookupAny(registry.loadClass(readUTF()));
+        case CompactObjectOutputStream.TYPE_REGISTERED:
+            return ObjectStreamClass.lookupAny(registry.getType(readInt()));
+        default:
+            throw new StreamCorruptedException("Unexpected class descriptor type: " + type);
+        }
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+        try {
+            return registry.loadClass(desc.getName());
+        } catch (ClassNotFoundException e) {
+            // primitive types and such
+            return super.resolveClass(desc);
+        }
+    }
+}
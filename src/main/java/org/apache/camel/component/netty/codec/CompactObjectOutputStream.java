@@ -0,0 +1,64 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+
+/**
+ * Java serialization stream which writes the identifier of registered classes, or the name of the class,
+ * instead of the full class descriptor.
+ *
+ * @see CompactObjectInputStream
+ */
+class CompactObjectOutputStream extends ObjectOutputStream {
+    static final int TYPE_FAT_DESCRIPTOR = 0;
+    static final int TYPE_CLASS_NAME = 1;
+    static final int TYPE_REGISTERED = 2;
+
+    private final CompactClassRegistry registry;
+
+    CompactObjectOutputStream(OutputStream out, CompactClassRegistry registry) throws IOException {
+        super(out);
+        this.registry = registry;
+    }
+
+    @Override
+    protected void writeStreamHeader() throws IOException {
+        // no need for the stream header as both sides use this class
+    }
+
+    @Override
+    protected void writeClassDescriptor(ObjectStreamClass desc) throws IOException {
+        Class<?> type = desc.forClass();
+        if (type.isPrimitive() || type.isArray() || type.isInterface() || desc.getSerialVersionUID() == 0) {
+            write(TYPE_FAT_DESCRIPTOR);
+            super.writeClassDescriptor(desc);
+            return;
+        }
+        int id = registry.getId(type);
+        if (id >= 0) {
+            write(TYPE_REGISTERED);
+            writeInt(id);
+        } else {
+            write(TYPE_CLASS_NAME);
+            writeUTF(desc.getName());
+        }
+    }
+}
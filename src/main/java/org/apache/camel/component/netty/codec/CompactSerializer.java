@@ -0,0 +1,33 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+
+/**
+ * Serializer for a class registered on a {@link CompactClassRegistry}, used by the
+ * {@link CompactObjectCodec} instead of Java serialization.
+ * <p/>
+ * Implementations must be thread safe. Nested values can be written and read using the given codec.
+ */
+public interface CompactSerializer<T> {
+
+    void write(ChannelBuffer buffer, T value, CompactObjectCodec codec) throws Exception;
+
+    T read(ChannelBuffer buffer, CompactObjectCodec codec) throws Exception;
+
+}
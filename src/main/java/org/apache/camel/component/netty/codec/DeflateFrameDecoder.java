@@ -0,0 +1,141 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelStateEvent;
+import org.jboss.netty.handler.codec.frame.CorruptedFrameException;
+import org.jboss.netty.handler.codec.frame.FrameDecoder;
+import org.jboss.netty.handler.codec.frame.TooLongFrameException;
+
+/**
+ * Decodes the frames written by the {@link DeflateFrameEncoder}, passing on the payloads as they were
+ * before compression.
+ * <p/>
+ * This decoder keeps an {@link Inflater} which is reused for every message, and must not be shared between channels.
+ */
+public class DeflateFrameDecoder extends FrameDecoder {
+    private final int maxLength;
+    private final byte[] dictionary;
+    private final Inflater inflater;
+
+    /**
+     * @param maxLength  the maximum length of a payload, both compressed and uncompressed
+     */
+    public DeflateFrameDecoder(int maxLength) {
+        this(maxLength, null);
+    }
+
+    /**
+     * @param maxLength   the maximum length of a payload, both compressed and uncompressed
+     * @param dictionary  the preset dictionary used by the encoder, or <tt>null</tt> for none
+     */
+    public DeflateFrameDecoder(int maxLength, byte[] dictionary) {
+        this.maxLength = maxLength;
+        this.dictionary = dictionary;
+        this.inflater = new Inflater(dictionary != null);
+    }
+
+    @Override
+    protected Object decode(ChannelHandlerContext ctx, Channel channel, ChannelBuffer buffer) throws Exception {
+        int start = buffer.readerIndex();
+        if (buffer.readableBytes() < 5) {
+            return null;
+        }
+        int flag = buffer.getUnsignedByte(start);
+        int length = buffer.getInt(start + 1);
+        if (flag != DeflateFrameEncoder.STORED && flag != DeflateFrameEncoder.DEFLATED) {
+            throw new CorruptedFrameException("Unknown compression flag: " + flag);
+        }
+        checkLength(length);
+
+        int headerLength = flag == DeflateFrameEncoder.DEFLATED ? 9 : 5;
+        if (buffer.readableBytes() < headerLength + length) {
+            return null;
+        }
+        if (flag == DeflateFrameEncoder.STORED) {
+            buffer.skipBytes(headerLength);
+            return buffer.readBytes(length);
+        }
+
+        int originalLength = buffer.getInt(start + 5);
+        checkLength(originalLength);
+        buffer.skipBytes(headerLength);
+        return inflate(buffer.readSlice(length), originalLength);
+    }
+
+    private ChannelBuffer inflate(ChannelBuffer compressed, int originalLength) throws Exception {
+        byte[] input;
+        int offset;
+        if (compressed.hasArray()) {
+            input = compressed.array();
+            offset = compressed.arrayOffset() + compressed.readerIndex();
+        } else {
+            input = new byte[compressed.readableBytes()];
+            compressed.getBytes(compressed.readerIndex(), input);
+            offset = 0;
+        }
+
+        inflater.reset();
+        if (dictionary != null) {
+            inflater.setDictionary(dictionary);
+        }
+        inflater.setInput(input, offset, compressed.readableBytes());
+        byte[] output = new byte[originalLength];
+        int size = 0;
+        try {
+            while (size < originalLength && !inflater.finished()) {
+                int inflated = inflater.inflate(output, size, originalLength - size);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                size += inflated;
+            }
+        } catch (DataFormatException e) {
+            throw new CorruptedFrameException("Invalid compressed frame: " + e.getMessage());
+        }
+        // without the zlib header the inflater may not see the end of the input, so only the length is checked
+        if (size != originalLength || (dictionary == null && !inflater.finished())) {
+            throw new CorruptedFrameException("Compressed frame does not inflate to " + originalLength + " bytes");
+        }
+        return ChannelBuffers.wrappedBuffer(output);
+    }
+
+    private void checkLength(int length) throws TooLongFrameException, CorruptedFrameException {
+        if (length < 0) {
+            throw new CorruptedFrameException("Negative frame length: " + length);
+        }
+        if (length > maxLength) {
+            throw new TooLongFrameException("Frame length exceeds " + maxLength + ": " + length);
+        }
+    }
+
+    @Override
+    public void channelClosed(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+        try {
+            super.channelClosed(ctx, e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.util.zip.Deflater;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.ChannelFutureListener;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.oneone.OneToOneEncoder;
+
+/**
+ * Compresses each written buffer into a frame, the counterpart of {@link DeflateFrameDecoder}.
+ * <p/>
+ * A frame starts with a flag byte telling whether the payload is deflated, followed by the 4 byte length of
+ * the payload and for a deflated payload the 4 byte length of the uncompressed payload. Buffers shorter than the
+ * threshold, or which do not get any smaller, are sent as is without copying them.
+ * <p/>
+ * With a preset dictionary, such as a {@link TextlineDictionary}, the payload is deflated without the zlib header
+ * and checksum, and short messages compress well without depending on earlier messages.
+ * <p/>
+ * This encoder keeps a {@link Deflater} which is reused for every message, and must not be shared between channels.
+ */
+public class DeflateFrameEncoder extends OneToOneEncoder {
+    static final int STORED = 0;
+    static final int DEFLATED = 1;
+
+    private final int threshold;
+    private final Deflater deflater;
+    private final byte[] dictionary;
+    private boolean releaseOnClose;
+
+    /**
+     * @param level      the compression level, 0-9 or -1 for the default level
+     * @param threshold  buffers shorter than this number of bytes are not compressed
+     */
+    public DeflateFrameEncoder(int level, int threshold) {
+        this(level, threshold, null);
+    }
+
+    /**
+     * @param level       the compression level, 0-9 or -1 for the default level
+     * @param threshold   buffers shorter than this number of bytes are not compressed
+     * @param dictionary  the preset dictionary, which the decoder must use as well, or <tt>null</tt> for none
+     */
+    public DeflateFrameEncoder(int level, int threshold, byte[] dictionary) {
+        this.threshold = threshold;
+        this.dictionary = dictionary;
+        this.deflater = new Deflater(level, dictionary != null);
+    }
+
+    @Override
+    protected synchronized Object encode(ChannelHandlerContext ctx, Channel channel, Object msg) throws Exception {
+        if (!(msg instanceof ChannelBuffer)) {
+            return msg;
+        }
+
+        if (!releaseOnClose) {
+            // free the native memory of the deflater when the channel is closed
+            releaseOnClose = true;
+            releaseOnClose(channel);
+        }
+
+        ChannelBuffer buffer = (ChannelBuffer) msg;
+        int length = buffer.readableBytes();
+        if (length >= threshold) {
+            ChannelBuffer frame = deflate(buffer, length);
+            if (frame != null) {
+                return frame;
+            }
+        }
+
+        ChannelBuffer header = ChannelBuffers.buffer(5);
+        header.writeByte(STORED);
+        header.writeInt(length);
+        return ChannelBuffers.wrappedBuffer(header, buffer);
+    }
+
+    private ChannelBuffer deflate(ChannelBuffer buffer, int length) {
+        byte[] input;
+        int offset;
+        if (buffer.hasArray()) {
+            input = buffer.array();
+            offset = buffer.arrayOffset() + buffer.readerIndex();
+        } else {
+            input = new byte[length];
+            buffer.getBytes(buffer.readerIndex(), input);
+            offset = 0;
+        }
+
+        deflater.reset();
+        if (dictionary != null) {
+            deflater.setDictionary(dictionary);
+        }
+        deflater.setInput(input, offset, length);
+        deflater.finish();
+
+        // only worth sending when smaller than the stored frame
+        byte[] output = new byte[9 + length];
+        int size = 9;
+        while (!deflater.finished() && size < output.length) {
+            size += deflater.deflate(output, size, output.length - size);
+        }
+        if (!deflater.finished()) {
+            return null;
+        }
+
+        ChannelBuffer frame = ChannelBuffers.wrappedBuffer(output, 0, size);
+        frame.setByte(0, DEFLATED);
+        frame.setInt(1, size - 9);
+        frame.setInt(5, length);
+        return frame;
+    }
+
+    private void releaseOnClose(Channel channel) {
+        channel.getCloseFuture().addListener(new ChannelFutureListener() {
+            public void operationComplete(ChannelFuture future) throws Exception {
+                synchronized (DeflateFrameEncoder.this) {
+                    deflater.end();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.io.StreamCorruptedException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Static dictionary of well known header and property names, which are written by the
+ * {@link CompactExchangeHolder} as an index instead of the name.
+ * <p/>
+ * The dictionary is part of the wire format, so names must only ever be appended.
+ */
+final class HeaderNameDictionary {
+    private static final String[] NAMES = {
+        "breadcrumbId", "CamelCharsetName", "Content-Type", "Content-Encoding", "CamelCorrelationId",
+        "CamelCreatedTimestamp", "CamelToEndpoint", "CamelFileName", "CamelFileNameOnly", "CamelFileNameProduced",
+        "CamelFileLength", "CamelFileLastModified", "CamelFilePath", "CamelFileParent", "CamelFileAbsolutePath",
+        "CamelFileRelativePath", "CamelHttpMethod", "CamelHttpUri", "CamelHttpPath", "CamelHttpQuery",
+        "CamelHttpResponseCode", "CamelHttpCharacterEncoding", "CamelRedelivered", "CamelRedeliveryCounter",
+        "CamelRedeliveryMaxCounter", "CamelRedeliveryExhausted", "CamelTimerFiredTime", "CamelTimerName",
+        "CamelTimerPeriod", "CamelTimerCounter", "CamelSplitIndex", "CamelSplitSize", "CamelSplitComplete",
+        "CamelAggregatedSize", "CamelAggregatedCompletedBy", "CamelBatchIndex", "CamelBatchSize", "CamelBatchComplete",
+        "CamelFailureEndpoint", "CamelFailureHandled", "CamelErrorHandlerHandled", "CamelExceptionCaught",
+        "CamelNettyRemoteAddress", "CamelNettyCloseChannelWhenComplete", "JMSCorrelationID", "JMSMessageID",
+        "JMSDestination", "JMSReplyTo", "JMSType", "JMSTimestamp", "JMSExpiration", "JMSPriority",
+        "JMSDeliveryMode", "JMSRedelivered"
+    };
+    private static final Map<String, Integer> INDEXES = new HashMap<String, Integer>();
+    private static final int MAX_INTERNED = 1024;
+    private static final ConcurrentMap<String, String> INTERNED = new ConcurrentHashMap<String, String>();
+
+    static {
+        for (int i = 0; i < NAMES.length; i++) {
+            INDEXES.put(NAMES[i], i);
+        }
+    }
+
+    private HeaderNameDictionary() {
+    }
+
+    /**
+     * Gets the index of the name, or <tt>-1</tt> if the name is not in the dictionary
+     */
+    static int indexOf(String name) {
+        Integer index = INDEXES.get(name);
+        return index != null ? index : -1;
+    }
+
+    static String nameAt(int index) throws StreamCorruptedException {
+        if (index < 0 || index >= NAMES.length) {
+            throw new StreamCorruptedException("Unknown header name index: " + index);
+        }
+        return NAMES[index];
+    }
+
+    /**
+     * Gets the canonical instance of the decoded name so repeated names share a single instance
+     */
+    static String intern(String name) {
+        String answer = INTERNED.get(name);
+        if (answer != null) {
+            return answer;
+        }
+        if (INTERNED.size() < MAX_INTERNED) {
+            answer = INTERNED.putIfAbsent(name, name);
+        }
+        return answer != null ? answer : name;
+    }
+}
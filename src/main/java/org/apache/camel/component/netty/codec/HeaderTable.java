@@ -0,0 +1,181 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A bounded table of header names and values, evicted in least recently used order, used to
+ * send repeating headers as an index into the table.
+ * <p/>
+ * The encoder of a connection and the decoder of its peer each keep a table, and both apply the
+ * same lookups, additions and evictions in the same order so the tables stay identical. A table
+ * must therefore only be used for a single direction of a single connection, and the messages must
+ * be decoded in the order they were encoded.
+ * <p/>
+ * This class is not thread safe.
+ */
+public class HeaderTable {
+    /**
+     * Values longer than this are not added to the table
+     */
+    static final int MAX_STRING_VALUE_LENGTH = 256;
+
+    private final Entry[] entries;
+    private final Map<Entry, Entry> pairs = new HashMap<Entry, Entry>();
+    private final Map<String, Entry> names = new HashMap<String, Entry>();
+    private int size;
+    // the head is the most recently used entry
+    private Entry head;
+    private Entry tail;
+
+    public HeaderTable(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive, was: " + capacity);
+        }
+        this.entries = new Entry[capacity];
+    }
+
+    public int getCapacity() {
+        return entries.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Whether the value can be added to the table, which requires an immutable value with a stable equals
+     */
+    static boolean isIndexable(Object value) {
+        if (value instanceof String) {
+            return ((String) value).length() <= MAX_STRING_VALUE_LENGTH;
+        }
+        return value == null || value instanceof Boolean || value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte || value instanceof Character;
+    }
+
+    /**
+     * Gets the entry with the name and value, or <tt>null</tt> if not in the table
+     */
+    Entry find(String name, Object value) {
+        return pairs.get(new Entry(-1, name, value));
+    }
+
+    /**
+     * Gets the most recently added entry with the name, or <tt>null</tt> if not in the table
+     */
+    Entry findName(String name) {
+        return names.get(name);
+    }
+
+    /**
+     * Gets the entry at the index, or <tt>null</tt> if there is no such entry
+     */
+    Entry get(int index) {
+        return index >= 0 && index < size ? entries[index] : null;
+    }
+
+    /**
+     * Marks the entry as the most recently used
+     */
+    void touch(Entry entry) {
+        if (entry != head) {
+            unlink(entry);
+            link(entry);
+        }
+    }
+
+    /**
+     * Adds the name and value, evicting the least recently used entry when the table is full
+     */
+    void add(String name, Object value) {
+        int index;
+        if (size < entries.length) {
+            index = size++;
+        } else {
+            Entry evicted = tail;
+            unlink(evicted);
+            pairs.remove(evicted);
+            if (names.get(evicted.name) == evicted) {
+                names.remove(evicted.name);
+            }
+            index = evicted.index;
+        }
+        Entry entry = new Entry(index, name, value);
+        entries[index] = entry;
+        pairs.put(entry, entry);
+        names.put(name, entry);
+        link(entry);
+    }
+
+    private void link(Entry entry) {
+        entry.previous = null;
+        entry.next = head;
+        if (head != null) {
+            head.previous = entry;
+        }
+        head = entry;
+        if (tail == null) {
+            tail = entry;
+        }
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.previous != null) {
+            entry.previous.next = entry.next;
+        } else {
+            head = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.previous = entry.previous;
+        } else {
+            tail = entry.previous;
+        }
+        entry.previous = null;
+        entry.next = null;
+    }
+
+    static final class Entry {
+        final int index;
+        final String name;
+        final Object value;
+        Entry previous;
+        Entry next;
+
+        Entry(int index, String name, Object value) {
+            this.index = index;
+            this.name = name;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry other = (Entry) o;
+            return name.equals(other.name) && (value == null ? other.value == null : value.equals(other.value));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * name.hashCode() + (value != null ? value.hashCode() : 0);
+        }
+    }
+}
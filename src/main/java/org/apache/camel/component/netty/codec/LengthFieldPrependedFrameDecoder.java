@@ -0,0 +1,272 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.io.File;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelStateEvent;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
+import org.jboss.netty.handler.codec.frame.CorruptedFrameException;
+import org.jboss.netty.handler.codec.frame.TooLongFrameException;
+
+/**
+ * Decoder which splits the received buffers into frames using a length field, the counterpart of
+ * {@link LengthFieldPrependedFrameEncoder}.
+ * <p/>
+ * The frames are slices of the received buffers with the length field left out, so the payload is never copied.
+ * Instead of writing the received buffers into a cumulation buffer (which is compacted and therefore would
+ * change the content of slices handed out earlier) a partially received frame is combined with the next
+ * received buffer in a composite buffer.
+ * <p/>
+ * Frames longer than the spill threshold are not kept in memory while they are received. They are written to
+ * a temporary file as the bytes arrive, and passed on as a memory mapped buffer of the file when complete.
+ * The file is written synchronously on the thread receiving the bytes, and the frames are still limited by the
+ * maximum frame length.
+ * <p/>
+ * This decoder keeps state and cannot be shared among channels.
+ */
+public class LengthFieldPrependedFrameDecoder extends SimpleChannelUpstreamHandler {
+    // consolidate the pending bytes when a frame spans more than this number of reads
+    private static final int MAX_COMPONENTS = 16;
+
+    private final int maxFrameLength;
+    private final int lengthFieldOffset;
+    private final int lengthFieldLength;
+    private final int lengthAdjustment;
+    private final int spillThreshold;
+    private final File spillDirectory;
+    private ChannelBuffer pending;
+    private SpillFile spill;
+    private int components;
+    private long bytesToDiscard;
+
+    /**
+     * @param maxFrameLength     the maximum length of a frame including the length field
+     * @param lengthFieldOffset  number of bytes before the length field
+     * @param lengthFieldLength  length of the field in bytes (1, 2, 4 or 8), or 0 to use a varint
+     * @param lengthAdjustment   value to add to the length field to get the number of bytes which follows it
+     */
+    public LengthFieldPrependedFrameDecoder(int maxFrameLength, int lengthFieldOffset, int lengthFieldLength, int lengthAdjustment) {
+        this(maxFrameLength, lengthFieldOffset, lengthFieldLength, lengthAdjustment, 0, null);
+    }
+
+    /**
+     * @param maxFrameLength     the maximum length of a frame including the length field
+     * @param lengthFieldOffset  number of bytes before the length field
+     * @param lengthFieldLength  length of the field in bytes (1, 2, 4 or 8), or 0 to use a varint
+     * @param lengthAdjustment   value to add to the length field to get the number of bytes which follows it
+     * @param spillThreshold     frames longer than this are received into a temporary file, or 0 to keep all frames in memory
+     * @param spillDirectory     directory for the temporary files, or <tt>null</tt> for the default temporary directory
+     */
+    public LengthFieldPrependedFrameDecoder(int maxFrameLength, int lengthFieldOffset, int lengthFieldLength, int lengthAdjustment,
+                                            int spillThreshold, File spillDirectory) {
+        validate(lengthFieldOffset, lengthFieldLength);
+        if (maxFrameLength <= 0) {
+            throw new IllegalArgumentException("maxFrameLength must be a positive integer: " + maxFrameLength);
+        }
+        this.maxFrameLength = maxFrameLength;
+        this.lengthFieldOffset = lengthFieldOffset;
+        this.lengthFieldLength = lengthFieldLength;
+        this.lengthAdjustment = lengthAdjustment;
+        this.spillThreshold = spillThreshold;
+        this.spillDirectory = spillDirectory;
+    }
+
+    static void validate(int lengthFieldOffset, int lengthFieldLength) {
+        if (lengthFieldOffset < 0) {
+            throw new IllegalArgumentException("lengthFieldOffset must be a non-negative integer: " + lengthFieldOffset);
+        }
+        if (lengthFieldLength != 0 && lengthFieldLength != 1 && lengthFieldLength != 2 && lengthFieldLength != 4 && lengthFieldLength != 8) {
+            throw new IllegalArgumentException("lengthFieldLength must be either 1, 2, 4, 8 or 0 for varint: " + lengthFieldLength);
+        }
+    }
+
+    @Override
+    public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+        Object msg = e.getMessage();
+        if (!(msg instanceof ChannelBuffer)) {
+            ctx.sendUpstream(e);
+            return;
+        }
+
+        ChannelBuffer input = (ChannelBuffer) msg;
+        if (bytesToDiscard > 0) {
+            int discard = (int) Math.min(bytesToDiscard, input.readableBytes());
+            input.skipBytes(discard);
+            bytesToDiscard -= discard;
+        }
+        if (spill != null) {
+            ChannelBuffer frame = continueSpill(input);
+            if (frame == null) {
+                return;
+            }
+            Channels.fireMessageReceived(ctx, frame, e.getRemoteAddress());
+        }
+        if (!input.readable()) {
+            return;
+        }
+
+        ChannelBuffer buffer;
+        if (pending == null) {
+            buffer = input;
+        } else if (components < MAX_COMPONENTS) {
+            buffer = ChannelBuffers.wrappedBuffer(pending, input);
+            components++;
+        } else {
+            buffer = ctx.getChannel().getConfig().getBufferFactory().getBuffer(pending.readableBytes() + input.readableBytes());
+            buffer.writeBytes(pending);
+            buffer.writeBytes(input);
+            components = 1;
+        }
+        pending = null;
+
+        try {
+            while (buffer.readable()) {
+                ChannelBuffer frame = decode(buffer);
+                if (frame == null) {
+                    break;
+                }
+                Channels.fireMessageReceived(ctx, frame, e.getRemoteAddress());
+            }
+        } finally {
+            if (buffer.readable()) {
+                pending = buffer.slice();
+                if (components == 0) {
+                    components = 1;
+                }
+            } else {
+                components = 0;
+            }
+        }
+    }
+
+    @Override
+    public void channelClosed(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+        // any partial frame is dropped
+        pending = null;
+        if (spill != null) {
+            spill.discard();
+            spill = null;
+        }
+        ctx.sendUpstream(e);
+    }
+
+    private ChannelBuffer continueSpill(ChannelBuffer buffer) throws Exception {
+        SpillFile file = spill;
+        try {
+            file.write(buffer, (int) Math.min(file.getRemaining(), buffer.readableBytes()));
+            if (file.getRemaining() > 0) {
+                return null;
+            }
+            spill = null;
+            return file.map();
+        } catch (Exception e) {
+            spill = null;
+            file.discard();
+            throw e;
+        }
+    }
+
+    private ChannelBuffer decode(ChannelBuffer buffer) throws Exception {
+        int start = buffer.readerIndex();
+        int fieldIndex = start + lengthFieldOffset;
+        if (buffer.writerIndex() <= fieldIndex) {
+            return null;
+        }
+
+        long length;
+        int fieldLength;
+        if (lengthFieldLength == 0) {
+            length = 0;
+            int index = fieldIndex;
+            int shift = 0;
+            while (true) {
+                if (index >= buffer.writerIndex()) {
+                    return null;
+                }
+                byte b = buffer.getByte(index++);
+                length |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+                shift += 7;
+                if (shift > 63) {
+                    throw new CorruptedFrameException("Malformed varint length field");
+                }
+            }
+            fieldLength = index - fieldIndex;
+        } else {
+            if (buffer.writerIndex() < fieldIndex + lengthFieldLength) {
+                return null;
+            }
+            switch (lengthFieldLength) {
+            case 1:
+                length = buffer.getUnsignedByte(fieldIndex);
+                break;
+            case 2:
+                length = buffer.getUnsignedShort(fieldIndex);
+                break;
+            case 4:
+                length = buffer.getUnsignedInt(fieldIndex);
+                break;
+            default:
+                length = buffer.getLong(fieldIndex);
+            }
+            fieldLength = lengthFieldLength;
+        }
+
+        length += lengthAdjustment;
+        if (length < 0) {
+            buffer.skipBytes(lengthFieldOffset + fieldLength);
+            throw new CorruptedFrameException("Negative adjusted frame length: " + length);
+        }
+
+        long frameLength = lengthFieldOffset + fieldLength + length;
+        if (frameLength > maxFrameLength) {
+            // discard the frame including what has not been received yet
+            int readable = buffer.readableBytes();
+            bytesToDiscard = Math.max(0, frameLength - readable);
+            buffer.skipBytes((int) Math.min(frameLength, readable));
+            throw new TooLongFrameException("Frame length exceeds " + maxFrameLength + ": " + frameLength + " - discarded");
+        }
+        if (buffer.readableBytes() < frameLength) {
+            if (spillThreshold > 0 && frameLength > spillThreshold) {
+                // receive the frame without the length field into a file instead of keeping it in memory
+                spill = new SpillFile(spillDirectory, lengthFieldOffset + length);
+                spill.write(buffer, lengthFieldOffset);
+                buffer.skipBytes(fieldLength);
+                return continueSpill(buffer);
+            }
+            return null;
+        }
+
+        ChannelBuffer frame;
+        int bodyIndex = fieldIndex + fieldLength;
+        if (lengthFieldOffset == 0) {
+            frame = buffer.slice(bodyIndex, (int) length);
+        } else {
+            frame = ChannelBuffers.wrappedBuffer(buffer.slice(start, lengthFieldOffset), buffer.slice(bodyIndex, (int) length));
+        }
+        buffer.skipBytes((int) frameLength);
+        return frame;
+    }
+}
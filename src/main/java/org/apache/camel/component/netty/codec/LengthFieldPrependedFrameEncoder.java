@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandler;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.oneone.OneToOneEncoder;
+
+/**
+ * Encoder which inserts a length field into each outgoing <tt>ChannelBuffer</tt> or <tt>byte[]</tt> message.
+ * <p/>
+ * The length field is inserted after the first <tt>lengthFieldOffset</tt> bytes of the message, and holds the
+ * number of bytes which follows it minus the <tt>lengthAdjustment</tt>. The header is combined with the message
+ * in a composite buffer so the message itself is never copied.
+ *
+ * @see LengthFieldPrependedFrameDecoder
+ */
+@ChannelHandler.Sharable
+public class LengthFieldPrependedFrameEncoder extends OneToOneEncoder {
+    private final int lengthFieldOffset;
+    private final int lengthFieldLength;
+    private final int lengthAdjustment;
+
+    /**
+     * @param lengthFieldOffset  number of bytes of the message to keep before the length field
+     * @param lengthFieldLength  length of the field in bytes (1, 2, 4 or 8), or 0 to use a varint
+     * @param lengthAdjustment   value to add to the length field to get the number of bytes which follows it
+     */
+    public LengthFieldPrependedFrameEncoder(int lengthFieldOffset, int lengthFieldLength, int lengthAdjustment) {
+        LengthFieldPrependedFrameDecoder.validate(lengthFieldOffset, lengthFieldLength);
+        this.lengthFieldOffset = lengthFieldOffset;
+        this.lengthFieldLength = lengthFieldLength;
+        this.lengthAdjustment = lengthAdjustment;
+    }
+
+    @Override
+    protected Object encode(ChannelHandlerContext ctx, Channel channel, Object msg) throws Exception {
+        ChannelBuffer body;
+        if (msg instanceof ChannelBuffer) {
+            body = (ChannelBuffer) msg;
+        } else if (msg instanceof byte[]) {
+            body = ChannelBuffers.wrappedBuffer((byte[]) msg);
+        } else {
+            // other bodies must be converted to a ChannelBuffer before they are written, or they would go out unframed
+            throw new IllegalArgumentException("Cannot prepend a length field to a message of type: "
+                + msg.getClass().getName() + ", it must be a ChannelBuffer or byte[]");
+        }
+
+        int index = body.readerIndex();
+        int remaining = body.readableBytes() - lengthFieldOffset;
+        if (remaining < 0) {
+            throw new IllegalArgumentException("Message is shorter than the lengthFieldOffset: " + lengthFieldOffset);
+        }
+        long length = (long) remaining - lengthAdjustment;
+        if (length < 0) {
+            throw new IllegalArgumentException("Adjusted frame length (" + length + ") is less than zero");
+        }
+
+        ChannelBuffer header = channel.getConfig().getBufferFactory().getBuffer(body.order(), lengthFieldLength == 0 ? 10 : lengthFieldLength);
+        writeLength(header, length);
+
+        if (lengthFieldOffset == 0) {
+            return ChannelBuffers.wrappedBuffer(header, body);
+        }
+        return ChannelBuffers.wrappedBuffer(body.slice(index, lengthFieldOffset), header, body.slice(index + lengthFieldOffset, remaining));
+    }
+
+    private void writeLength(ChannelBuffer header, long length) {
+        switch (lengthFieldLength) {
+        case 0:
+            writeVarint(header, length);
+            break;
+        case 1:
+            checkLength(length, 0xFFL);
+            header.writeByte((int) length);
+            break;
+        case 2:
+            checkLength(length, 0xFFFFL);
+            header.writeShort((int) length);
+            break;
+        case 4:
+            checkLength(length, 0xFFFFFFFFL);
+            header.writeInt((int) length);
+            break;
+        default:
+            header.writeLong(length);
+        }
+    }
+
+    private void checkLength(long length, long max) {
+        if (length > max) {
+            throw new IllegalArgumentException("Length " + length + " does not fit into a length field of " + lengthFieldLength + " bytes");
+        }
+    }
+
+    /**
+     * Writes the value as an unsigned varint, 7 bits per byte with the high bit set on all but the last byte
+     */
+    static void writeVarint(ChannelBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.writeByte((int) value);
+    }
+}
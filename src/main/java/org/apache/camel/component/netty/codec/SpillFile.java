@@ -0,0 +1,84 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.camel.util.IOHelper;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+
+/**
+ * Temporary file which a frame is written to while it is being received, and which is memory mapped
+ * once the frame is complete.
+ */
+final class SpillFile {
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+    private long remaining;
+
+    SpillFile(File directory, long length) throws IOException {
+        this.file = File.createTempFile("camel-netty-", ".frame", directory);
+        this.randomAccessFile = new RandomAccessFile(file, "rw");
+        this.channel = randomAccessFile.getChannel();
+        this.remaining = length;
+    }
+
+    long getRemaining() {
+        return remaining;
+    }
+
+    /**
+     * Moves the given number of bytes from the buffer to the file
+     */
+    void write(ChannelBuffer buffer, int length) throws IOException {
+        remaining -= length;
+        while (length > 0) {
+            length -= buffer.readBytes(channel, length);
+        }
+    }
+
+    /**
+     * Maps the file and deletes it, the mapping stays valid until it is garbage collected
+     */
+    ChannelBuffer map() throws IOException {
+        try {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return ChannelBuffers.wrappedBuffer(mapped);
+        } finally {
+            discard();
+        }
+    }
+
+    void discard() {
+        IOHelper.close(randomAccessFile);
+        if (!file.delete()) {
+            // some platforms cannot delete a file which is mapped
+            file.deleteOnExit();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SpillFile[" + file + "]";
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.camel.util.IOHelper;
+
+/**
+ * Preset dictionary for compressing textline messages with the {@link DeflateFrameEncoder}, which must be the same
+ * on both sides.
+ * <p/>
+ * The dictionary is either loaded from a file, or trained from a file of sample lines by picking the tokens
+ * (such as <tt>key=</tt> and frequent values) which save the most bytes. Deflate finds the strings at the end of
+ * the dictionary with the shortest distances, so the most valuable tokens are placed last.
+ */
+public final class TextlineDictionary {
+    /**
+     * The largest dictionary deflate can use
+     */
+    public static final int MAX_SIZE = 32 * 1024;
+    private static final String SEPARATORS = "=|,;: \t\u0001";
+
+    private TextlineDictionary() {
+    }
+
+    /**
+     * Loads the dictionary from the file, when the file is larger than the maximum size only its end is used
+     */
+    public static byte[] load(File file) throws IOException {
+        RandomAccessFile in = new RandomAccessFile(file, "r");
+        try {
+            long length = in.length();
+            byte[] answer = new byte[(int) Math.min(length, MAX_SIZE)];
+            in.seek(length - answer.length);
+            in.readFully(answer);
+            return answer;
+        } finally {
+            IOHelper.close(in);
+        }
+    }
+
+    /**
+     * Trains a dictionary of at most the given size from the lines of the sample file
+     */
+    public static byte[] train(File sample, Charset charset, int size) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(sample), charset));
+        try {
+            List<String> lines = new ArrayList<String>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+            return train(lines, charset, size);
+        } finally {
+            IOHelper.close(reader);
+        }
+    }
+
+    /**
+     * Trains a dictionary of at most the given size from the sample lines
+     */
+    public static byte[] train(List<String> lines, Charset charset, int size) {
+        size = Math.min(size, MAX_SIZE);
+
+        // count the tokens, each including the separator which ends it
+        final Map<String, Integer> counts = new HashMap<String, Integer>();
+        for (String line : lines) {
+            int start = 0;
+            for (int i = 0; i < line.length(); i++) {
+                if (SEPARATORS.indexOf(line.charAt(i)) >= 0) {
+                    count(counts, line.substring(start, i + 1));
+                    start = i + 1;
+                }
+            }
+            if (start < line.length()) {
+                count(counts, line.substring(start));
+            }
+        }
+
+        // the tokens saving the most bytes first, ties are ordered by the token so both sides train the same dictionary
+        List<String> tokens = new ArrayList<String>();
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() > 1 && entry.getKey().length() > 1) {
+                tokens.add(entry.getKey());
+            }
+        }
+        Collections.sort(tokens, new Comparator<String>() {
+            public int compare(String a, String b) {
+                long scoreA = (long) counts.get(a) * a.length();
+                long scoreB = (long) counts.get(b) * b.length();
+                if (scoreA != scoreB) {
+                    return scoreA > scoreB ? -1 : 1;
+                }
+                return a.compareTo(b);
+            }
+        });
+
+        List<byte[]> selected = new ArrayList<byte[]>();
+        int length = 0;
+        for (String token : tokens) {
+            byte[] bytes = token.getBytes(charset);
+            if (length + bytes.length > size) {
+                continue;
+            }
+            selected.add(bytes);
+            length += bytes.length;
+        }
+
+        // and place the most valuable tokens last
+        byte[] answer = new byte[length];
+        int index = length;
+        for (byte[] bytes : selected) {
+            index -= bytes.length;
+            System.arraycopy(bytes, 0, answer, index, bytes.length);
+        }
+        return answer;
+    }
+
+    private static void count(Map<String, Integer> counts, String token) {
+        Integer count = counts.get(token);
+        counts.put(token, count != null ? count + 1 : 1);
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandler;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.oneone.OneToOneEncoder;
+import org.jboss.netty.util.CharsetUtil;
+
+/**
+ * Encodes {@link CharSequence}s into a buffer allocated from the buffer factory of the channel, and appends the
+ * delimiter if the text does not already end with it.
+ * <p/>
+ * UTF-8, US-ASCII and ISO-8859-1 are written character by character straight into the buffer, so the only garbage
+ * per message is the buffer itself. Other charsets are encoded using a {@link CharsetEncoder} which is reused by
+ * each thread. Unmappable characters are replaced, the same way as the
+ * {@link org.jboss.netty.handler.codec.string.StringEncoder} does.
+ * <p/>
+ * A received {@link ChannelBufferCharSequence} in the same charset is written as the bytes it was received as.
+ */
+@ChannelHandler.Sharable
+public class TextlineEncoder extends OneToOneEncoder {
+    private static final int UTF_8 = 0;
+    private static final int US_ASCII = 1;
+    private static final int ISO_8859_1 = 2;
+    private static final int OTHER = 3;
+
+    private final Charset charset;
+    private final int charsetType;
+    private final String delimiter;
+    private final byte[] delimiterBytes;
+    private final boolean autoAppendDelimiter;
+    private final ThreadLocal<CharsetEncoder> encoders = new ThreadLocal<CharsetEncoder>() {
+        @Override
+        protected CharsetEncoder initialValue() {
+            return charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+    };
+
+    /**
+     * @param charset              the charset to encode with
+     * @param delimiter            the delimiter which ends the lines
+     * @param autoAppendDelimiter  whether to append the delimiter to lines which do not end with it
+     */
+    public TextlineEncoder(Charset charset, String delimiter, boolean autoAppendDelimiter) {
+        this.charset = charset;
+        this.delimiter = delimiter;
+        this.delimiterBytes = delimiter.getBytes(charset);
+        this.autoAppendDelimiter = autoAppendDelimiter;
+        if (CharsetUtil.UTF_8.equals(charset)) {
+            charsetType = UTF_8;
+        } else if (CharsetUtil.US_ASCII.equals(charset)) {
+            charsetType = US_ASCII;
+        } else if (CharsetUtil.ISO_8859_1.equals(charset)) {
+            charsetType = ISO_8859_1;
+        } else {
+            charsetType = OTHER;
+        }
+    }
+
+    @Override
+    protected Object encode(ChannelHandlerContext ctx, Channel channel, Object msg) throws Exception {
+        if (!(msg instanceof CharSequence)) {
+            return msg;
+        }
+
+        if (msg instanceof ChannelBufferCharSequence && charset.equals(((ChannelBufferCharSequence) msg).getCharset())) {
+            // the text is already encoded so the bytes are written as is
+            ChannelBuffer bytes = ((ChannelBufferCharSequence) msg).getBuffer().slice();
+            if (autoAppendDelimiter && !endsWithDelimiter(bytes)) {
+                return ChannelBuffers.wrappedBuffer(bytes, ChannelBuffers.wrappedBuffer(delimiterBytes));
+            }
+            return bytes;
+        }
+
+        CharSequence text = (CharSequence) msg;
+        int extra = autoAppendDelimiter && !endsWithDelimiter(text) ? delimiterBytes.length : 0;
+        ChannelBuffer buffer;
+        switch (charsetType) {
+        case UTF_8:
+            buffer = channel.getConfig().getBufferFactory().getBuffer(CompactObjectCodec.utf8Length(text) + extra);
+            CompactObjectCodec.writeUtf8(buffer, text);
+            break;
+        case US_ASCII:
+        case ISO_8859_1:
+            buffer = channel.getConfig().getBufferFactory().getBuffer(text.length() + extra);
+            writeSingleByte(buffer, text, charsetType == US_ASCII ? 0x7F : 0xFF);
+            break;
+        default:
+            buffer = encodeWithEncoder(channel, text, extra);
+        }
+        if (extra > 0) {
+            buffer.writeBytes(delimiterBytes);
+        }
+        return buffer;
+    }
+
+    private boolean endsWithDelimiter(CharSequence text) {
+        int offset = text.length() - delimiter.length();
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = 0; i < delimiter.length(); i++) {
+            if (text.charAt(offset + i) != delimiter.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean endsWithDelimiter(ChannelBuffer bytes) {
+        int offset = bytes.writerIndex() - delimiterBytes.length;
+        if (offset < bytes.readerIndex()) {
+            return false;
+        }
+        for (int i = 0; i < delimiterBytes.length; i++) {
+            if (bytes.getByte(offset + i) != delimiterBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeSingleByte(ChannelBuffer buffer, CharSequence text, int max) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c > max) {
+                // a surrogate pair is a single character so is replaced once
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    i++;
+                }
+                buffer.writeByte('?');
+            } else {
+                buffer.writeByte(c);
+            }
+        }
+    }
+
+    private ChannelBuffer encodeWithEncoder(Channel channel, CharSequence text, int extra) throws CharacterCodingException {
+        CharsetEncoder encoder = encoders.get();
+        encoder.reset();
+        ChannelBuffer buffer = channel.getConfig().getBufferFactory().getBuffer((int) Math.ceil(text.length() * (double) encoder.maxBytesPerChar()) + extra);
+        ByteBuffer out = buffer.toByteBuffer(0, buffer.capacity());
+        CoderResult result = encoder.encode(CharBuffer.wrap(text), out, true);
+        if (!result.isUnderflow()) {
+            result.throwException();
+        }
+        result = encoder.flush(out);
+        if (!result.isUnderflow()) {
+            result.throwException();
+        }
+        // the byte buffer shares the content but not the indexes of the channel buffer
+        buffer.writerIndex(out.position());
+        return buffer;
+    }
+}
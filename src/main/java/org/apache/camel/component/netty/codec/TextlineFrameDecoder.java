@@ -0,0 +1,145 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.util.Arrays;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.handler.codec.frame.FrameDecoder;
+import org.jboss.netty.handler.codec.frame.TooLongFrameException;
+
+/**
+ * Decoder which splits the received bytes into lines separated by a delimiter of one or more bytes, and passes on
+ * the lines with the delimiter stripped.
+ * <p/>
+ * Multi byte delimiters are searched for using the Boyer-Moore-Horspool skip table, and a single byte delimiter
+ * using {@link ChannelBuffer#indexOf(int, int, byte)}. When a line is not complete the position the search stopped
+ * at is remembered, so the bytes which were already searched are not searched again when more bytes are received.
+ * <p/>
+ * Lines longer than the maximum length are discarded up to and including the delimiter, and reported by firing a
+ * {@link TooLongFrameException}, the same way as the {@link org.jboss.netty.handler.codec.frame.DelimiterBasedFrameDecoder}.
+ * <p/>
+ * This decoder keeps state and cannot be shared among channels.
+ */
+public class TextlineFrameDecoder extends FrameDecoder {
+    private final int maxLineLength;
+    private final byte[] delimiter;
+    private final boolean stripCarriageReturn;
+    private final int[] skipTable;
+    // number of readable bytes already searched without finding the start of a delimiter
+    private int searched;
+    private boolean discarding;
+    private long discardedLength;
+
+    /**
+     * @param maxLineLength        the maximum length of a line without the delimiter
+     * @param delimiter            the delimiter bytes
+     * @param stripCarriageReturn  whether to also strip a carriage return before the delimiter, so <tt>\n</tt> separates
+     *                             lines ending with either <tt>\r\n</tt> or <tt>\n</tt>
+     */
+    public TextlineFrameDecoder(int maxLineLength, byte[] delimiter, boolean stripCarriageReturn) {
+        if (maxLineLength <= 0) {
+            throw new IllegalArgumentException("maxLineLength must be a positive integer: " + maxLineLength);
+        }
+        if (delimiter == null || delimiter.length == 0) {
+            throw new IllegalArgumentException("delimiter must not be empty");
+        }
+        this.maxLineLength = maxLineLength;
+        this.delimiter = delimiter.clone();
+        this.stripCarriageReturn = stripCarriageReturn;
+        this.skipTable = delimiter.length > 1 ? createSkipTable(this.delimiter) : null;
+    }
+
+    private static int[] createSkipTable(byte[] delimiter) {
+        int[] table = new int[256];
+        Arrays.fill(table, delimiter.length);
+        for (int i = 0; i < delimiter.length - 1; i++) {
+            table[delimiter[i] & 0xFF] = delimiter.length - 1 - i;
+        }
+        return table;
+    }
+
+    @Override
+    protected Object decode(ChannelHandlerContext ctx, Channel channel, ChannelBuffer buffer) throws Exception {
+        int start = buffer.readerIndex();
+        int index = indexOf(buffer, start + searched, buffer.writerIndex());
+        if (index < 0) {
+            // a delimiter may start in the last bytes, so those are searched again
+            searched = Math.max(0, buffer.readableBytes() - delimiter.length + 1);
+            if (discarding || searched > maxLineLength) {
+                // keep nothing but the bytes which may be part of the delimiter
+                discarding = true;
+                discardedLength += searched;
+                buffer.skipBytes(searched);
+                searched = 0;
+            }
+            return null;
+        }
+        searched = 0;
+
+        int lineLength = index - start;
+        if (stripCarriageReturn && lineLength > 0 && buffer.getByte(index - 1) == '\r') {
+            lineLength--;
+        }
+        int frameLength = index - start + delimiter.length;
+        if (discarding || lineLength > maxLineLength) {
+            long tooLongLength = discardedLength + lineLength;
+            discarding = false;
+            discardedLength = 0;
+            buffer.skipBytes(frameLength);
+            Channels.fireExceptionCaught(ctx.getChannel(), new TooLongFrameException("frame length exceeds " + maxLineLength + ": " + tooLongLength + " - discarded"));
+            return null;
+        }
+
+        ChannelBuffer line = buffer.readBytes(lineLength);
+        buffer.skipBytes(frameLength - lineLength);
+        return line;
+    }
+
+    /**
+     * Gets the index of the first delimiter starting at or after the from index, or <tt>-1</tt> if none is found
+     */
+    int indexOf(ChannelBuffer buffer, int fromIndex, int toIndex) {
+        if (skipTable == null) {
+            return buffer.indexOf(fromIndex, toIndex, delimiter[0]);
+        }
+
+        int last = delimiter.length - 1;
+        byte lastByte = delimiter[last];
+        int index = fromIndex;
+        while (index + last < toIndex) {
+            byte b = buffer.getByte(index + last);
+            if (b == lastByte && matches(buffer, index, last)) {
+                return index;
+            }
+            index += skipTable[b & 0xFF];
+        }
+        return -1;
+    }
+
+    private boolean matches(ChannelBuffer buffer, int index, int length) {
+        for (int i = 0; i < length; i++) {
+            if (buffer.getByte(index + i) != delimiter[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
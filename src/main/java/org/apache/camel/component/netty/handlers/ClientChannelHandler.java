@@ -24,7 +24,11 @@ import org.apache.camel.component.netty.NettyConstants;
 import org.apache.camel.component.netty.NettyHelper;
 import org.apache.camel.component.netty.NettyPayloadHelper;
 import org.apache.camel.component.netty.NettyProducer;
+import org.apache.camel.component.netty.codec.ChunkedBodyInputStream;
+import org.apache.camel.component.netty.metrics.ChannelMetrics;
+import org.apache.camel.component.netty.metrics.MetricsHandler;
 import org.apache.camel.util.ExchangeHelper;
+import org.jboss.netty.channel.ChannelFutureListener;
 import org.jboss.netty.channel.ChannelHandlerContext;
 import org.jboss.netty.channel.ChannelStateEvent;
 import org.jboss.netty.channel.ExceptionEvent;
@@ -103,11 +107,18 @@ public class ClientChannelHandler extends SimpleChannelUpstreamHandler {
     public void messageReceived(ChannelHandlerContext ctx, MessageEvent messageEvent) throws Exception {
         messageReceived = true;
 
+        // custom pipelines may not have the metrics handler
+        ChannelMetrics channelMetrics = producer.getMetricsHandler() != null ? MetricsHandler.getChannelMetrics(ctx.getChannel()) : null;
+        if (channelMetrics != null) {
+            channelMetrics.getMetrics().messageIn();
+            channelMetrics.getMetrics().requestReplyTime(System.nanoTime() - channelMetrics.getRequestStart());
+        }
+
         Object body = messageEvent.getMessage();
         LOG.debug("Message received: {}", body);
 
-        // if textline enabled then covert to a String which must be used for textline
-        if (producer.getConfiguration().isTextline()) {
+        // if textline enabled then covert to a String which must be used for textline, unless lazy decoded
+        if (producer.getConfiguration().isTextline() && !(producer.getConfiguration().isTextlineCharSequence() && body instanceof CharSequence)) {
             try {
                 body = producer.getContext().getTypeConverter().mandatoryConvertTo(String.class, exchange, body);
             } catch (NoTypeConversionAvailableException e) {
@@ -142,7 +153,12 @@ public class ClientChannelHandler extends SimpleChannelUpstreamHandler {
                 if (LOG.isDebugEnabled()) {
                     LOG.debug("Closing channel when complete at address: {}", producer.getConfiguration().getAddress());
                 }
-                NettyHelper.close(ctx.getChannel());
+                if (body instanceof ChunkedBodyInputStream) {
+                    // the reply is still being received
+                    ((ChunkedBodyInputStream) body).getEndFuture().addListener(ChannelFutureListener.CLOSE);
+                } else {
+                    NettyHelper.close(ctx.getChannel());
+                }
             }
         } finally {
             // signal callback
@@ -0,0 +1,181 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.handlers;
+
+import java.util.List;
+
+import org.apache.camel.component.netty.ChannelHandlerFactory;
+import org.apache.camel.component.netty.NettyConfiguration;
+import org.apache.camel.component.netty.ssl.SSLHandshakeHandler;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelDownstreamHandler;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.ChannelFutureListener;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelLocal;
+import org.jboss.netty.channel.ChannelPipeline;
+import org.jboss.netty.channel.ChannelUpstreamHandler;
+import org.jboss.netty.handler.codec.frame.FrameDecoder;
+import org.jboss.netty.handler.ssl.SslHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Handler which detects the protocol of a new connection from its first bytes, installs the encoders and
+ * decoders for that protocol and then removes itself from the pipeline.
+ * <p/>
+ * The first bytes are classified as:
+ * <ul>
+ *   <li>a TLS record carrying a handshake, in which case a {@link SslHandler} is installed and the decrypted
+ *   bytes are classified again</li>
+ *   <li>{@link #PROTOCOL_TEXTLINE} when the first byte is not zero</li>
+ *   <li>{@link #PROTOCOL_OBJECT} when the bytes are a length field followed by the serialization stream header
+ *   written by the {@link org.jboss.netty.handler.codec.serialization.ObjectEncoder}</li>
+ *   <li>{@link #PROTOCOL_BINARY} otherwise, which is the configured codec</li>
+ * </ul>
+ * The configured codec must therefore frame the messages with a length field of 4 or 8 bytes first, and
+ * frames shorter than 16MB, so the first byte is always zero. This is verified by the configuration.
+ * The detected protocol can be looked up using {@link #getProtocol(Channel)}.
+ * <p/>
+ * This handler keeps state and cannot be shared among channels.
+ */
+public class PortUnificationHandler extends FrameDecoder {
+    public static final String PROTOCOL_TEXTLINE = "textline";
+    public static final String PROTOCOL_OBJECT = "object";
+    public static final String PROTOCOL_BINARY = "binary";
+
+    private static final transient Logger LOG = LoggerFactory.getLogger(PortUnificationHandler.class);
+    private static final ChannelLocal<String> PROTOCOLS = new ChannelLocal<String>();
+    // the TLS record type of a handshake, and the stream version of the object encoder
+    private static final int TLS_HANDSHAKE = 0x16;
+    private static final int STREAM_VERSION = 5;
+
+    private final NettyConfiguration configuration;
+    private final SslHandler sslHandler;
+    private final SSLHandshakeHandler handshakeHandler;
+
+    /**
+     * @param configuration     the configuration with the encoders and decoders of the protocols
+     * @param sslHandler        the handler to install for TLS connections, or <tt>null</tt> to reject them
+     * @param handshakeHandler  the handler starting and timing the handshakes of the TLS connections
+     */
+    public PortUnificationHandler(NettyConfiguration configuration, SslHandler sslHandler, SSLHandshakeHandler handshakeHandler) {
+        this.configuration = configuration;
+        this.sslHandler = sslHandler;
+        this.handshakeHandler = handshakeHandler;
+    }
+
+    /**
+     * Gets the protocol detected for the channel, or <tt>null</tt> if not yet detected
+     */
+    public static String getProtocol(Channel channel) {
+        return PROTOCOLS.get(channel);
+    }
+
+    @Override
+    protected Object decode(ChannelHandlerContext ctx, Channel channel, ChannelBuffer buffer) throws Exception {
+        int readable = buffer.readableBytes();
+        if (readable < 1) {
+            return null;
+        }
+
+        int index = buffer.readerIndex();
+        short first = buffer.getUnsignedByte(index);
+        ChannelPipeline pipeline = ctx.getPipeline();
+        if (first == TLS_HANDSHAKE) {
+            if (readable < 3) {
+                return null;
+            }
+            // SSL 3.0 and TLS 1.x all have major version 3
+            if (buffer.getByte(index + 1) == 3 && buffer.getByte(index + 2) <= 3) {
+                if (sslHandler == null) {
+                    LOG.warn("Closing TLS connection from {} as SSL is not configured", channel.getRemoteAddress());
+                    channel.close();
+                    buffer.skipBytes(readable);
+                    return null;
+                }
+                LOG.debug("Detected TLS on connection from {}", channel.getRemoteAddress());
+                pipeline.addAfter(ctx.getName(), "ssl", sslHandler);
+                // the decrypted bytes are classified by another instance which does not accept TLS again
+                pipeline.addAfter("ssl", "unification-tls", new PortUnificationHandler(configuration, null, handshakeHandler));
+                // the channel is already connected so the handshake is started here
+                handshakeHandler.handshake(sslHandler);
+                return removeSelf(ctx, buffer);
+            }
+        }
+
+        String protocol;
+        if (first != 0) {
+            protocol = PROTOCOL_TEXTLINE;
+        } else if (readable < 4) {
+            return null;
+        } else if (buffer.getInt(index) == 0) {
+            // an empty frame which is not followed by anything else
+            protocol = PROTOCOL_BINARY;
+        } else if (readable < 5) {
+            return null;
+        } else if (buffer.getInt(index) > 0 && buffer.getByte(index + 4) == STREAM_VERSION) {
+            protocol = PROTOCOL_OBJECT;
+        } else {
+            protocol = PROTOCOL_BINARY;
+        }
+
+        LOG.debug("Detected protocol {} on connection from {}", protocol, channel.getRemoteAddress());
+        PROTOCOLS.set(channel, protocol);
+        channel.getCloseFuture().addListener(new ChannelFutureListener() {
+            public void operationComplete(ChannelFuture future) throws Exception {
+                PROTOCOLS.remove(future.getChannel());
+            }
+        });
+        if (PROTOCOL_TEXTLINE.equals(protocol)) {
+            addHandlers(ctx, configuration.getTextlineEncoders(), configuration.getTextlineDecoders());
+        } else if (PROTOCOL_OBJECT.equals(protocol)) {
+            addHandlers(ctx, configuration.getObjectEncoders(), configuration.getObjectDecoders());
+        } else {
+            addHandlers(ctx, configuration.getEncoders(), configuration.getDecoders());
+        }
+        return removeSelf(ctx, buffer);
+    }
+
+    private static void addHandlers(ChannelHandlerContext ctx, List<ChannelDownstreamHandler> encoders, List<ChannelUpstreamHandler> decoders) {
+        // added in reverse order after this handler, so they end up in the same order as in the other pipelines
+        ChannelPipeline pipeline = ctx.getPipeline();
+        for (int x = decoders.size() - 1; x >= 0; x--) {
+            ChannelUpstreamHandler decoder = decoders.get(x);
+            if (decoder instanceof ChannelHandlerFactory) {
+                // use a new instance of those decoders which keeps state
+                decoder = (ChannelUpstreamHandler) ((ChannelHandlerFactory) decoder).newChannelHandler();
+            }
+            pipeline.addAfter(ctx.getName(), "decoder-" + x, decoder);
+        }
+        for (int x = encoders.size() - 1; x >= 0; x--) {
+            ChannelDownstreamHandler encoder = encoders.get(x);
+            if (encoder instanceof ChannelHandlerFactory) {
+                // use a new instance of those encoders which keeps state
+                encoder = (ChannelDownstreamHandler) ((ChannelHandlerFactory) encoder).newChannelHandler();
+            }
+            pipeline.addAfter(ctx.getName(), "encoder-" + x, encoder);
+        }
+    }
+
+    private Object removeSelf(ChannelHandlerContext ctx, ChannelBuffer buffer) {
+        // the bytes received so far are passed on to the handlers which have been installed
+        ctx.getPipeline().remove(this);
+        return buffer.readBytes(buffer.readableBytes());
+    }
+}
@@ -16,15 +16,22 @@
  */
 package org.apache.camel.component.netty.handlers;
 
+import java.io.InputStream;
+
 import org.apache.camel.Exchange;
 import org.apache.camel.ExchangePattern;
 import org.apache.camel.component.netty.NettyConstants;
 import org.apache.camel.component.netty.NettyConsumer;
 import org.apache.camel.component.netty.NettyHelper;
 import org.apache.camel.component.netty.NettyPayloadHelper;
+import org.apache.camel.component.netty.codec.ChunkedBodyInputStream;
+import org.apache.camel.component.netty.metrics.ChannelMetrics;
+import org.apache.camel.component.netty.metrics.MetricsHandler;
+import org.apache.camel.component.netty.metrics.NettyMetrics;
 import org.apache.camel.util.CamelLogger;
 import org.apache.camel.util.ExchangeHelper;
 import org.apache.camel.util.IOHelper;
+import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.channel.ChannelHandler;
 import org.jboss.netty.channel.ChannelHandlerContext;
 import org.jboss.netty.channel.ChannelStateEvent;
@@ -81,9 +88,23 @@ public class ServerChannelHandler extends SimpleChannelUpstreamHandler {
         if (consumer.getConfiguration().isSync()) {
             exchange.setPattern(ExchangePattern.InOut);
         }
+        if (consumer.getConfiguration().isPortUnification()) {
+            exchange.getIn().setHeader(NettyConstants.NETTY_PROTOCOL, PortUnificationHandler.getProtocol(messageEvent.getChannel()));
+        }
         // set the exchange charset property for converting
         if (consumer.getConfiguration().getCharsetName() != null) {
-            exchange.setProperty(Exchange.CHARSET_NAME, IOHelper.normalizeCharset(consumer.getConfiguration().getCharsetName()));
+            exchange.setProperty(Exchange.CHARSET_NAME, consumer.getConfiguration().getCharsetName());
+        }
+
+        NettyMetrics metrics = null;
+        long start = 0;
+        // custom pipelines may not have the metrics handler
+        ChannelMetrics channelMetrics = consumer.getMetricsHandler() != null ? MetricsHandler.getChannelMetrics(messageEvent.getChannel()) : null;
+        if (channelMetrics != null) {
+            metrics = channelMetrics.getMetrics();
+            metrics.messageIn();
+            metrics.exchangeStarted();
+            start = System.nanoTime();
         }
 
         try {
@@ -92,13 +113,24 @@ public class ServerChannelHandler extends SimpleChannelUpstreamHandler {
             consumer.getExceptionHandler().handleException(e);
         }
 
-        // send back response if the communication is synchronous
-        if (consumer.getConfiguration().isSync()) {
-            sendResponse(messageEvent, exchange);
+        try {
+            // send back response if the communication is synchronous
+            if (consumer.getConfiguration().isSync()) {
+                sendResponse(messageEvent, exchange, metrics);
+            }
+        } finally {
+            if (in instanceof ChunkedBodyInputStream) {
+                // discard what the route did not read so the next message can be received
+                IOHelper.close((ChunkedBodyInputStream) in);
+            }
+            if (metrics != null) {
+                metrics.exchangeDone();
+                metrics.requestReplyTime(System.nanoTime() - start);
+            }
         }
     }
 
-    private void sendResponse(MessageEvent messageEvent, Exchange exchange) throws Exception {
+    private void sendResponse(MessageEvent messageEvent, Exchange exchange, NettyMetrics metrics) throws Exception {
         Object body;
         if (ExchangeHelper.isOutCapable(exchange)) {
             body = NettyPayloadHelper.getOut(consumer.getEndpoint(), exchange);
@@ -107,7 +139,10 @@ public class ServerChannelHandler extends SimpleChannelUpstreamHandler {
         }
 
         boolean failed = exchange.isFailed();
-        if (failed && !consumer.getEndpoint().getConfiguration().isTransferExchange()) {
+        if (failed && (consumer.getConfiguration().isRaw() || consumer.getConfiguration().isStreaming())) {
+            // there is no way to send a failure back in raw or streaming mode
+            body = null;
+        } else if (failed && !consumer.getEndpoint().getConfiguration().isTransferExchange()) {
             if (exchange.getException() != null) {
                 body = exchange.getException();
             } else {
@@ -127,9 +162,27 @@ public class ServerChannelHandler extends SimpleChannelUpstreamHandler {
                 NettyHelper.close(messageEvent.getChannel());
             }
         } else {
+            String protocol = PortUnificationHandler.getProtocol(messageEvent.getChannel());
+            if (consumer.getConfiguration().isRaw()) {
+                // files are written without reading them into memory
+                Object fileBody = NettyHelper.getFileBody(body, consumer.getConfiguration());
+                if (fileBody != null) {
+                    body = fileBody;
+                } else {
+                    body = exchange.getContext().getTypeConverter().mandatoryConvertTo(ChannelBuffer.class, exchange, body);
+                }
+            } else if (consumer.getConfiguration().isLengthFieldPrepended()
+                && (protocol == null || PortUnificationHandler.PROTOCOL_BINARY.equals(protocol))) {
+                // the length field is prepended to a ChannelBuffer
+                body = exchange.getContext().getTypeConverter().mandatoryConvertTo(ChannelBuffer.class, exchange, body);
+            }
+            if (consumer.getConfiguration().isStreaming()) {
+                body = exchange.getContext().getTypeConverter().mandatoryConvertTo(InputStream.class, exchange, body);
+            }
             // if textline enabled then covert to a String which must be used for textline
-            if (consumer.getConfiguration().isTextline()) {
-                body = NettyHelper.getTextlineBody(body, exchange, consumer.getConfiguration().getDelimiter(), consumer.getConfiguration().isAutoAppendDelimiter());
+            // which includes connections detected as textline when using port unification
+            if (consumer.getConfiguration().isTextline() || PortUnificationHandler.PROTOCOL_TEXTLINE.equals(protocol)) {
+                body = NettyHelper.getTextlineBody(body, exchange, consumer.getConfiguration());
             }
 
             // we got a body to write
@@ -139,6 +192,9 @@ public class ServerChannelHandler extends SimpleChannelUpstreamHandler {
             } else {
                 NettyHelper.writeBodySync(messageEvent.getChannel(), messageEvent.getRemoteAddress(), body, exchange);
             }
+            if (metrics != null) {
+                metrics.messageOut();
+            }
         }
 
         // should channel be closed after complete?
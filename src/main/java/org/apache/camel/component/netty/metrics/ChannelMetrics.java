@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.metrics;
+
+/**
+ * The metrics state of a channel, which is kept by the {@link MetricsHandler} of its pipeline.
+ */
+public class ChannelMetrics {
+    private volatile NettyMetrics metrics;
+    private volatile long requestStart;
+    private volatile boolean awaitingFirstByte;
+    private volatile boolean connected;
+
+    public ChannelMetrics(NettyMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Gets the metrics to record the channel in, which are those of the remote address once connected
+     */
+    public NettyMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Marks the start of a request, from which the time to the first byte and the request/reply time are measured
+     *
+     * @param nanos the start time as given by {@link System#nanoTime()}
+     */
+    public void requestStarted(long nanos) {
+        requestStart = nanos;
+        awaitingFirstByte = true;
+    }
+
+    /**
+     * Gets the start time of the last request as given by {@link System#nanoTime()}
+     */
+    public long getRequestStart() {
+        return requestStart;
+    }
+
+    void connected(NettyMetrics remoteMetrics) {
+        metrics = remoteMetrics;
+        connected = true;
+        remoteMetrics.connected();
+    }
+
+    void closed() {
+        if (connected) {
+            connected = false;
+            metrics.disconnected();
+        }
+    }
+
+    void bytesReceived(long bytes, long nanos) {
+        metrics.bytesIn(bytes);
+        if (awaitingFirstByte) {
+            awaitingFirstByte = false;
+            metrics.firstByteTime(nanos - requestStart);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.metrics;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.ChannelFutureListener;
+import org.jboss.netty.channel.ChannelHandler;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelStateEvent;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelHandler;
+import org.jboss.netty.channel.WriteCompletionEvent;
+
+/**
+ * Records the connections and the bytes read and written in the {@link NettyMetrics} of the remote address
+ * of each channel.
+ * <p/>
+ * Must be added first in the pipeline so the bytes are counted as they are on the wire. The state of each channel
+ * is kept as the attachment of the context of this handler, which the handlers further in the pipeline get with
+ * {@link #getChannelMetrics(Channel)} to record the messages.
+ */
+@ChannelHandler.Sharable
+public class MetricsHandler extends SimpleChannelHandler {
+    private static final ChannelFutureListener WRITE_FAILURE_LISTENER = new ChannelFutureListener() {
+        public void operationComplete(ChannelFuture future) throws Exception {
+            if (!future.isSuccess()) {
+                ChannelMetrics channelMetrics = getChannelMetrics(future.getChannel());
+                if (channelMetrics != null) {
+                    channelMetrics.getMetrics().writeFailed();
+                }
+            }
+        }
+    };
+
+    private final NettyMetricsRegistry registry;
+    private final boolean client;
+
+    /**
+     * @param registry the registry of the metrics of the endpoint
+     * @param client   whether the channels connect to the remote address, in which case the remote port is part of
+     *                 the remote address, otherwise the remote hosts are told apart and not their ephemeral ports
+     */
+    public MetricsHandler(NettyMetricsRegistry registry, boolean client) {
+        this.registry = registry;
+        this.client = client;
+    }
+
+    /**
+     * Gets the metrics state of the channel, or <tt>null</tt> if the channel has no {@link MetricsHandler}
+     */
+    public static ChannelMetrics getChannelMetrics(Channel channel) {
+        ChannelHandlerContext ctx = channel.getPipeline().getContext(MetricsHandler.class);
+        return ctx != null ? (ChannelMetrics) ctx.getAttachment() : null;
+    }
+
+    @Override
+    public void channelOpen(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+        // channels which are never connected, such as the UDP ones, are recorded in the endpoint metrics
+        ctx.setAttachment(new ChannelMetrics(registry.getMetrics()));
+        super.channelOpen(ctx, e);
+    }
+
+    @Override
+    public void channelConnected(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+        ((ChannelMetrics) ctx.getAttachment()).connected(registry.getRemoteMetrics(e.getChannel().getRemoteAddress(), client));
+        super.channelConnected(ctx, e);
+    }
+
+    @Override
+    public void channelClosed(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+        ((ChannelMetrics) ctx.getAttachment()).closed();
+        super.channelClosed(ctx, e);
+    }
+
+    @Override
+    public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+        if (e.getMessage() instanceof ChannelBuffer) {
+            ((ChannelMetrics) ctx.getAttachment()).bytesReceived(((ChannelBuffer) e.getMessage()).readableBytes(), System.nanoTime());
+        }
+        super.messageReceived(ctx, e);
+    }
+
+    @Override
+    public void writeComplete(ChannelHandlerContext ctx, WriteCompletionEvent e) throws Exception {
+        ((ChannelMetrics) ctx.getAttachment()).getMetrics().bytesOut(e.getWrittenAmount());
+        super.writeComplete(ctx, e);
+    }
+
+    @Override
+    public void writeRequested(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+        // the listener is shared so no garbage is created for each write
+        e.getFuture().addListener(WRITE_FAILURE_LISTENER);
+        super.writeRequested(ctx, e);
+    }
+}
@@ -0,0 +1,267 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.camel.api.management.ManagedAttribute;
+import org.apache.camel.api.management.ManagedResource;
+
+/**
+ * Metrics of the connections of an endpoint, or of the connections with one remote address of an endpoint.
+ * <p/>
+ * The metrics of a remote address also record into the metrics of their endpoint, so the endpoint metrics
+ * are the totals of all the connections. Recording does not lock nor allocate.
+ * <p/>
+ * The durations are recorded in nanoseconds and reported in milliseconds.
+ */
+@ManagedResource(description = "Netty Metrics")
+public class NettyMetrics {
+    private final NettyMetrics parent;
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+    private final AtomicLong messagesIn = new AtomicLong();
+    private final AtomicLong messagesOut = new AtomicLong();
+    private final AtomicLong connects = new AtomicLong();
+    private final AtomicLong disconnects = new AtomicLong();
+    private final AtomicLong openChannels = new AtomicLong();
+    private final AtomicLong writeFailures = new AtomicLong();
+    private final AtomicLong inflightExchanges = new AtomicLong();
+    private final LatencyHistogram connectTime = new LatencyHistogram();
+    private final LatencyHistogram firstByteTime = new LatencyHistogram();
+    private final LatencyHistogram requestReplyTime = new LatencyHistogram();
+
+    public NettyMetrics() {
+        this(null);
+    }
+
+    /**
+     * @param parent the metrics to record into as well, or <tt>null</tt>
+     */
+    public NettyMetrics(NettyMetrics parent) {
+        this.parent = parent;
+    }
+
+    public void bytesIn(long bytes) {
+        bytesIn.addAndGet(bytes);
+        if (parent != null) {
+            parent.bytesIn(bytes);
+        }
+    }
+
+    public void bytesOut(long bytes) {
+        bytesOut.addAndGet(bytes);
+        if (parent != null) {
+            parent.bytesOut(bytes);
+        }
+    }
+
+    public void messageIn() {
+        messagesIn.incrementAndGet();
+        if (parent != null) {
+            parent.messageIn();
+        }
+    }
+
+    public void messageOut() {
+        messagesOut.incrementAndGet();
+        if (parent != null) {
+            parent.messageOut();
+        }
+    }
+
+    public void connected() {
+        connects.incrementAndGet();
+        openChannels.incrementAndGet();
+        if (parent != null) {
+            parent.connected();
+        }
+    }
+
+    public void disconnected() {
+        disconnects.incrementAndGet();
+        openChannels.decrementAndGet();
+        if (parent != null) {
+            parent.disconnected();
+        }
+    }
+
+    public void writeFailed() {
+        writeFailures.incrementAndGet();
+        if (parent != null) {
+            parent.writeFailed();
+        }
+    }
+
+    public void exchangeStarted() {
+        inflightExchanges.incrementAndGet();
+        if (parent != null) {
+            parent.exchangeStarted();
+        }
+    }
+
+    public void exchangeDone() {
+        inflightExchanges.decrementAndGet();
+        if (parent != null) {
+            parent.exchangeDone();
+        }
+    }
+
+    public void connectTime(long nanos) {
+        connectTime.record(nanos);
+        if (parent != null) {
+            parent.connectTime(nanos);
+        }
+    }
+
+    public void firstByteTime(long nanos) {
+        firstByteTime.record(nanos);
+        if (parent != null) {
+            parent.firstByteTime(nanos);
+        }
+    }
+
+    public void requestReplyTime(long nanos) {
+        requestReplyTime.record(nanos);
+        if (parent != null) {
+            parent.requestReplyTime(nanos);
+        }
+    }
+
+    public LatencyHistogram getConnectTime() {
+        return connectTime;
+    }
+
+    public LatencyHistogram getFirstByteTime() {
+        return firstByteTime;
+    }
+
+    public LatencyHistogram getRequestReplyTime() {
+        return requestReplyTime;
+    }
+
+    @ManagedAttribute(description = "Bytes received")
+    public long getBytesIn() {
+        return bytesIn.get();
+    }
+
+    @ManagedAttribute(description = "Bytes written")
+    public long getBytesOut() {
+        return bytesOut.get();
+    }
+
+    @ManagedAttribute(description = "Messages received")
+    public long getMessagesIn() {
+        return messagesIn.get();
+    }
+
+    @ManagedAttribute(description = "Messages sent")
+    public long getMessagesOut() {
+        return messagesOut.get();
+    }
+
+    @ManagedAttribute(description = "Connections established")
+    public long getConnects() {
+        return connects.get();
+    }
+
+    @ManagedAttribute(description = "Connections closed")
+    public long getDisconnects() {
+        return disconnects.get();
+    }
+
+    @ManagedAttribute(description = "Connections currently open")
+    public long getOpenChannels() {
+        return openChannels.get();
+    }
+
+    @ManagedAttribute(description = "Writes which failed")
+    public long getWriteFailures() {
+        return writeFailures.get();
+    }
+
+    @ManagedAttribute(description = "Exchanges currently being processed")
+    public long getInflightExchanges() {
+        return inflightExchanges.get();
+    }
+
+    @ManagedAttribute(description = "Mean connect time in millis")
+    public double getConnectTimeMean() {
+        return connectTime.getMean() / 1000000d;
+    }
+
+    @ManagedAttribute(description = "99th percentile of the connect time in millis")
+    public double getConnectTime99thPercentile() {
+        return toMillis(connectTime.getValueAtPercentile(0.99));
+    }
+
+    @ManagedAttribute(description = "Longest connect time in millis")
+    public double getConnectTimeMax() {
+        return toMillis(connectTime.getMax());
+    }
+
+    @ManagedAttribute(description = "Mean time from writing a request to the first byte of its reply in millis")
+    public double getFirstByteTimeMean() {
+        return firstByteTime.getMean() / 1000000d;
+    }
+
+    @ManagedAttribute(description = "99th percentile of the time to the first byte of a reply in millis")
+    public double getFirstByteTime99thPercentile() {
+        return toMillis(firstByteTime.getValueAtPercentile(0.99));
+    }
+
+    @ManagedAttribute(description = "Longest time to the first byte of a reply in millis")
+    public double getFirstByteTimeMax() {
+        return toMillis(firstByteTime.getMax());
+    }
+
+    @ManagedAttribute(description = "Mean request/reply time in millis")
+    public double getRequestReplyTimeMean() {
+        return requestReplyTime.getMean() / 1000000d;
+    }
+
+    @ManagedAttribute(description = "Median request/reply time in millis")
+    public double getRequestReplyTime50thPercentile() {
+        return toMillis(requestReplyTime.getValueAtPercentile(0.5));
+    }
+
+    @ManagedAttribute(description = "99th percentile of the request/reply time in millis")
+    public double getRequestReplyTime99thPercentile() {
+        return toMillis(requestReplyTime.getValueAtPercentile(0.99));
+    }
+
+    @ManagedAttribute(description = "99.9th percentile of the request/reply time in millis")
+    public double getRequestReplyTime999thPercentile() {
+        return toMillis(requestReplyTime.getValueAtPercentile(0.999));
+    }
+
+    @ManagedAttribute(description = "Longest request/reply time in millis")
+    public double getRequestReplyTimeMax() {
+        return toMillis(requestReplyTime.getMax());
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1000000d;
+    }
+
+    @Override
+    public String toString() {
+        return "NettyMetrics[bytesIn=" + bytesIn + ", bytesOut=" + bytesOut + ", messagesIn=" + messagesIn + ", messagesOut=" + messagesOut
+            + ", connects=" + connects + ", disconnects=" + disconnects + ", openChannels=" + openChannels + ", writeFailures=" + writeFailures
+            + ", inflightExchanges=" + inflightExchanges + ", requestReplyTime=" + requestReplyTime + "]";
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.metrics;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.spi.ManagementAgent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link NettyMetrics} of an endpoint and of the remote addresses of its connections.
+ * <p/>
+ * When JMX is enabled the metrics are registered as MBeans named after the endpoint, with a <tt>remote</tt> key
+ * for those of a remote address. The number of remote addresses is bounded, the connections with the other
+ * addresses are only recorded in the endpoint metrics.
+ */
+public class NettyMetricsRegistry {
+    private static final transient Logger LOG = LoggerFactory.getLogger(NettyMetricsRegistry.class);
+    private final NettyMetrics metrics = new NettyMetrics();
+    private final ConcurrentMap<String, NettyMetrics> remoteMetrics = new ConcurrentHashMap<String, NettyMetrics>();
+    private final int maxRemoteAddresses;
+    private volatile ManagementAgent agent;
+    private volatile String objectName;
+
+    public NettyMetricsRegistry(int maxRemoteAddresses) {
+        this.maxRemoteAddresses = maxRemoteAddresses;
+    }
+
+    /**
+     * Registers the metrics as MBeans, if JMX is enabled
+     *
+     * @param context  the context of the endpoint
+     * @param endpoint the key of the endpoint to name the MBeans after
+     */
+    public void register(CamelContext context, String endpoint) {
+        agent = context.getManagementStrategy().getManagementAgent();
+        if (agent == null) {
+            return;
+        }
+        objectName = objectName(agent, context, endpoint);
+        register(metrics, objectName);
+        for (Map.Entry<String, NettyMetrics> entry : remoteMetrics.entrySet()) {
+            register(entry.getValue(), remoteObjectName(entry.getKey()));
+        }
+    }
+
+    /**
+     * Unregisters the MBeans, the metrics are kept and registered again by the next {@link #register(CamelContext, String)}
+     */
+    public void unregister() {
+        ManagementAgent current = agent;
+        agent = null;
+        if (current == null) {
+            return;
+        }
+        unregister(current, objectName);
+        for (String remote : remoteMetrics.keySet()) {
+            unregister(current, remoteObjectName(remote));
+        }
+    }
+
+    /**
+     * Gets the metrics of the endpoint, which are the totals of all its connections
+     */
+    public NettyMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the metrics of the remote addresses of the connections
+     */
+    public Map<String, NettyMetrics> getRemoteMetrics() {
+        return Collections.unmodifiableMap(remoteMetrics);
+    }
+
+    /**
+     * Gets the metrics of a remote address, which are created on its first connection
+     *
+     * @param address      the remote address
+     * @param includePort  whether the connections with different ports of the same host are told apart
+     * @return the metrics of the address, or those of the endpoint when the number of remote addresses is exceeded
+     */
+    public NettyMetrics getRemoteMetrics(SocketAddress address, boolean includePort) {
+        if (address == null || maxRemoteAddresses <= 0) {
+            return metrics;
+        }
+        String key = toKey(address, includePort);
+        NettyMetrics answer = remoteMetrics.get(key);
+        if (answer != null) {
+            return answer;
+        }
+        if (remoteMetrics.size() >= maxRemoteAddresses) {
+            return metrics;
+        }
+        answer = new NettyMetrics(metrics);
+        NettyMetrics existing = remoteMetrics.putIfAbsent(key, answer);
+        if (existing != null) {
+            return existing;
+        }
+        if (agent != null) {
+            register(answer, remoteObjectName(key));
+        }
+        return answer;
+    }
+
+    /**
+     * Gets the name of the MBeans of an endpoint, to which keys are added to tell the MBeans of the endpoint apart
+     */
+    static String objectName(ManagementAgent agent, CamelContext context, String endpoint) {
+        return agent.getMBeanObjectDomainName() + ":context=" + ObjectName.quote(context.getName())
+            + ",type=netty,name=" + ObjectName.quote(endpoint);
+    }
+
+    private static String toKey(SocketAddress address, boolean includePort) {
+        if (address instanceof InetSocketAddress) {
+            InetSocketAddress inet = (InetSocketAddress) address;
+            String host = inet.getAddress() != null ? inet.getAddress().getHostAddress() : inet.getHostName();
+            return includePort ? host + ":" + inet.getPort() : host;
+        }
+        return address.toString();
+    }
+
+    private String remoteObjectName(String remote) {
+        return objectName + ",remote=" + ObjectName.quote(remote);
+    }
+
+    private void register(NettyMetrics value, String name) {
+        ManagementAgent current = agent;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.register(value, new ObjectName(name));
+        } catch (JMException e) {
+            LOG.warn("Cannot register metrics MBean: " + name + ". This exception is ignored.", e);
+        }
+    }
+
+    private static void unregister(ManagementAgent agent, String name) {
+        try {
+            agent.unregister(new ObjectName(name));
+        } catch (JMException e) {
+            LOG.warn("Cannot unregister metrics MBean: " + name + ". This exception is ignored.", e);
+        }
+    }
+}
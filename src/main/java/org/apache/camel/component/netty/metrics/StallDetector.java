@@ -0,0 +1,269 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.metrics;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.api.management.ManagedAttribute;
+import org.apache.camel.api.management.ManagedResource;
+import org.apache.camel.spi.ManagementAgent;
+import org.jboss.netty.channel.ChannelEvent;
+import org.jboss.netty.channel.ChannelHandler;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelUpstreamHandler;
+import org.jboss.netty.util.Timeout;
+import org.jboss.netty.util.Timer;
+import org.jboss.netty.util.TimerTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Detects the threads which are stuck handling a channel event, such as the I/O threads running a route or
+ * waiting for a write to complete.
+ * <p/>
+ * Added first in a pipeline, this handler timestamps each upstream event when it enters and leaves the pipeline
+ * on the thread it is fired from. The threads are checked at half the threshold on a {@link Timer} and the stack of
+ * a thread stuck beyond the threshold is logged once for each stall. Each event which took longer than the threshold
+ * is counted as a stall and its duration recorded when it leaves the pipeline.
+ * <p/>
+ * The timestamps are kept for each thread so handling an event reads the clock twice and does not allocate.
+ */
+@ManagedResource(description = "Netty Stall Detector")
+@ChannelHandler.Sharable
+public class StallDetector implements ChannelUpstreamHandler {
+    private static final transient Logger LOG = LoggerFactory.getLogger(StallDetector.class);
+    private final long threshold;
+    private final long thresholdNanos;
+    private final ConcurrentMap<Thread, ThreadState> threads = new ConcurrentHashMap<Thread, ThreadState>();
+    private final ThreadLocal<ThreadState> threadState = new ThreadLocal<ThreadState>() {
+        @Override
+        protected ThreadState initialValue() {
+            ThreadState answer = new ThreadState();
+            threads.put(Thread.currentThread(), answer);
+            return answer;
+        }
+    };
+    private final AtomicLong stalls = new AtomicLong();
+    private final LatencyHistogram stallTime = new LatencyHistogram();
+    private volatile int stalledThreads;
+    private volatile Checker checker;
+    private volatile ManagementAgent agent;
+    private volatile ObjectName objectName;
+
+    /**
+     * @param threshold the time in millis after which a thread handling an event is considered stuck
+     */
+    public StallDetector(long threshold) {
+        this.threshold = threshold;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(threshold);
+    }
+
+    public void handleUpstream(ChannelHandlerContext ctx, ChannelEvent e) throws Exception {
+        ThreadState state = threadState.get();
+        // the events fired while handling an event are part of it
+        if (state.depth++ == 0) {
+            state.enteredAt = System.nanoTime();
+        }
+        try {
+            ctx.sendUpstream(e);
+        } finally {
+            if (--state.depth == 0) {
+                long duration = System.nanoTime() - state.enteredAt;
+                state.enteredAt = 0;
+                if (duration > thresholdNanos) {
+                    stalls.incrementAndGet();
+                    stallTime.record(duration);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks the threads at half the threshold, until stopped or the timer is stopped
+     */
+    public void start(Timer timer) {
+        Checker answer = new Checker(timer, Math.max(threshold / 2, 1));
+        checker = answer;
+        answer.schedule();
+    }
+
+    public void stop() {
+        Checker current = checker;
+        if (current != null) {
+            current.stop();
+            checker = null;
+        }
+    }
+
+    /**
+     * Registers the detector as an MBean of the endpoint, if JMX is enabled
+     */
+    public void register(CamelContext context, String endpoint) throws JMException {
+        agent = context.getManagementStrategy().getManagementAgent();
+        if (agent != null) {
+            objectName = new ObjectName(NettyMetricsRegistry.objectName(agent, context, endpoint) + ",detector=stalls");
+            agent.register(this, objectName);
+        }
+    }
+
+    public void unregister() throws JMException {
+        ManagementAgent current = agent;
+        agent = null;
+        if (current != null) {
+            current.unregister(objectName);
+        }
+    }
+
+    /**
+     * Logs the stack of the threads stuck beyond the threshold which were not logged yet, and forgets the threads
+     * which have terminated
+     */
+    void check() {
+        long now = System.nanoTime();
+        int stalled = 0;
+        for (Iterator<Map.Entry<Thread, ThreadState>> it = threads.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<Thread, ThreadState> entry = it.next();
+            Thread thread = entry.getKey();
+            if (!thread.isAlive()) {
+                it.remove();
+                continue;
+            }
+            ThreadState state = entry.getValue();
+            long enteredAt = state.enteredAt;
+            if (enteredAt == 0 || now - enteredAt <= thresholdNanos) {
+                continue;
+            }
+            stalled++;
+            if (state.reportedAt != enteredAt) {
+                state.reportedAt = enteredAt;
+                logStall(thread, TimeUnit.NANOSECONDS.toMillis(now - enteredAt));
+            }
+        }
+        stalledThreads = stalled;
+    }
+
+    private void logStall(Thread thread, long millis) {
+        if (!LOG.isWarnEnabled()) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("Thread ").append(thread.getName()).append(" has been handling a channel event for ").append(millis)
+            .append(" millis, which exceeds the threshold of ").append(threshold).append(" millis:");
+        for (StackTraceElement element : thread.getStackTrace()) {
+            sb.append("\n\tat ").append(element);
+        }
+        LOG.warn(sb.toString());
+    }
+
+    @ManagedAttribute(description = "Time in millis after which a thread is considered stuck")
+    public long getThreshold() {
+        return threshold;
+    }
+
+    @ManagedAttribute(description = "Events which took longer than the threshold")
+    public long getStalls() {
+        return stalls.get();
+    }
+
+    @ManagedAttribute(description = "Threads stuck beyond the threshold when last checked")
+    public int getStalledThreads() {
+        return stalledThreads;
+    }
+
+    @ManagedAttribute(description = "Mean duration of the stalls in millis")
+    public double getStallTimeMean() {
+        return stallTime.getMean() / 1000000d;
+    }
+
+    @ManagedAttribute(description = "99th percentile of the duration of the stalls in millis")
+    public double getStallTime99thPercentile() {
+        return stallTime.getValueAtPercentile(0.99) / 1000000d;
+    }
+
+    @ManagedAttribute(description = "Longest stall in millis")
+    public double getStallTimeMax() {
+        return stallTime.getMax() / 1000000d;
+    }
+
+    public LatencyHistogram getStallTime() {
+        return stallTime;
+    }
+
+    /**
+     * Reschedules itself on the timer until stopped, each start of the detector uses a new checker so a check
+     * still running after a stop cannot keep the previous schedule alive
+     */
+    private final class Checker implements TimerTask {
+        private final Timer timer;
+        private final long interval;
+        private volatile boolean stopped;
+        private volatile Timeout timeout;
+
+        private Checker(Timer timer, long interval) {
+            this.timer = timer;
+            this.interval = interval;
+        }
+
+        public void run(Timeout current) throws Exception {
+            if (current.isCancelled() || stopped) {
+                return;
+            }
+            check();
+            schedule();
+        }
+
+        void schedule() {
+            try {
+                timeout = timer.newTimeout(this, interval, TimeUnit.MILLISECONDS);
+            } catch (IllegalStateException e) {
+                // the timer has been stopped
+                LOG.trace("Timer stopped so no longer checking for stalled threads");
+                return;
+            }
+            // stop may have cancelled the previous timeout while this one was being scheduled
+            if (stopped) {
+                timeout.cancel();
+            }
+        }
+
+        void stop() {
+            stopped = true;
+            Timeout current = timeout;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+
+    /**
+     * The handling state of a thread, written by the thread and read by the checks
+     */
+    private static final class ThreadState {
+        private int depth;
+        private volatile long enteredAt;
+        private volatile long reportedAt;
+    }
+}
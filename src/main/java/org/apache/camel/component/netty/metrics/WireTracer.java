@@ -0,0 +1,272 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.metrics;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.api.management.ManagedAttribute;
+import org.apache.camel.api.management.ManagedOperation;
+import org.apache.camel.api.management.ManagedResource;
+import org.apache.camel.spi.ManagementAgent;
+import org.apache.camel.util.IOHelper;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.ChannelHandler;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.FileRegion;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelHandler;
+import org.jboss.netty.util.CharsetUtil;
+
+/**
+ * Records the buffers read and written by the channels in a ring buffer, which keeps the most recent records
+ * and can be dumped when the history of the connections is needed.
+ * <p/>
+ * Each record holds the time, the channel id, the direction, the length and the first bytes of a buffer. The records
+ * have a fixed size and are kept off heap in a direct buffer. Recording claims a slot with an atomic increment and
+ * copies the fields into it, without locking, allocating nor formatting, so the tracer can be left on.
+ * <p/>
+ * The state of each slot is kept in an array of sequences: a slot is taken for writing with a compare and set, and
+ * the record is published by setting its sequence afterwards. A record is dropped when its slot is still being
+ * written by another thread, which claimed it a full ring earlier or later. The dump is best effort as well: the records being
+ * written or overwritten while being dumped are skipped.
+ */
+@ManagedResource(description = "Netty Wire Tracer")
+@ChannelHandler.Sharable
+public class WireTracer extends SimpleChannelHandler {
+    private static final int TIMESTAMP = 0;
+    private static final int CHANNEL_ID = 8;
+    private static final int LENGTH = 12;
+    private static final int DIRECTION = 16;
+    private static final int CAPTURED = 18;
+    private static final int BYTES = 20;
+    private static final byte IN = 'I';
+    private static final byte OUT = 'O';
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final int capacity;
+    private final int captureBytes;
+    private final int recordSize;
+    private final ByteBuffer records;
+    // per slot the sequence of the record plus one, 0 when empty, or negated while being written
+    private final AtomicLongArray published;
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile ManagementAgent agent;
+    private volatile ObjectName objectName;
+
+    /**
+     * @param capacity     the number of records kept
+     * @param captureBytes the number of bytes kept from the start of each buffer
+     */
+    public WireTracer(int capacity, int captureBytes) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive, was: " + capacity);
+        }
+        this.capacity = capacity;
+        this.captureBytes = Math.min(Math.max(captureBytes, 0), Short.MAX_VALUE);
+        this.recordSize = BYTES + this.captureBytes;
+        if ((long) capacity * recordSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The records of " + recordSize + " bytes do not fit in a buffer of "
+                + Integer.MAX_VALUE + " bytes with capacity: " + capacity);
+        }
+        this.records = ByteBuffer.allocateDirect(capacity * recordSize);
+        this.published = new AtomicLongArray(capacity);
+    }
+
+    @Override
+    public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+        record(e, IN);
+        super.messageReceived(ctx, e);
+    }
+
+    @Override
+    public void writeRequested(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+        record(e, OUT);
+        super.writeRequested(ctx, e);
+    }
+
+    private void record(MessageEvent e, byte direction) {
+        Object message = e.getMessage();
+        ChannelBuffer buffer = null;
+        long length;
+        if (message instanceof ChannelBuffer) {
+            buffer = (ChannelBuffer) message;
+            length = buffer.readableBytes();
+        } else if (message instanceof FileRegion) {
+            length = ((FileRegion) message).getCount();
+        } else {
+            // not a buffer so the length is unknown
+            length = -1;
+        }
+
+        long seq = sequence.getAndIncrement();
+        int slot = (int) (seq % capacity);
+        // take the slot for writing, unless a writer of an earlier or later round still holds it
+        long current = published.get(slot);
+        if (current < 0 || current > seq || !published.compareAndSet(slot, current, -(seq + 1))) {
+            return;
+        }
+        int offset = slot * recordSize;
+        records.putLong(offset + TIMESTAMP, System.currentTimeMillis());
+        records.putInt(offset + CHANNEL_ID, e.getChannel().getId());
+        records.putInt(offset + LENGTH, (int) Math.min(length, Integer.MAX_VALUE));
+        records.put(offset + DIRECTION, direction);
+        int captured = 0;
+        if (buffer != null) {
+            captured = (int) Math.min(length, captureBytes);
+            int readerIndex = buffer.readerIndex();
+            for (int i = 0; i < captured; i++) {
+                records.put(offset + BYTES + i, buffer.getByte(readerIndex + i));
+            }
+        }
+        records.putShort(offset + CAPTURED, (short) captured);
+        // an ordered write so the fields are visible before the record is
+        published.lazySet(slot, seq + 1);
+    }
+
+    /**
+     * Formats the records from the oldest to the most recent
+     */
+    @ManagedOperation(description = "Dump the records")
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            dump(sb);
+        } catch (IOException e) {
+            // cannot happen with a StringBuilder
+            throw new IllegalStateException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the records from the oldest to the most recent to the file, in the UTF-8 encoding
+     */
+    @ManagedOperation(description = "Dump the records to a file")
+    public void dumpToFile(String fileName) throws IOException {
+        dump(new File(fileName));
+    }
+
+    public void dump(File file) throws IOException {
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), CharsetUtil.UTF_8);
+        try {
+            dump(writer);
+            writer.flush();
+        } finally {
+            IOHelper.close(writer);
+        }
+    }
+
+    private void dump(Appendable out) throws IOException {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+        byte[] bytes = new byte[captureBytes];
+        long last = sequence.get();
+        for (long seq = Math.max(0, last - capacity); seq < last; seq++) {
+            int slot = (int) (seq % capacity);
+            if (published.get(slot) != seq + 1) {
+                // still being written or already overwritten
+                continue;
+            }
+            int offset = slot * recordSize;
+            long timestamp = records.getLong(offset + TIMESTAMP);
+            int channelId = records.getInt(offset + CHANNEL_ID);
+            int length = records.getInt(offset + LENGTH);
+            byte direction = records.get(offset + DIRECTION);
+            int captured = records.getShort(offset + CAPTURED);
+            for (int i = 0; i < captured; i++) {
+                bytes[i] = records.get(offset + BYTES + i);
+            }
+            // the compare and set is a full fence, so the fields are read before checking the record is unchanged
+            if (!published.compareAndSet(slot, seq + 1, seq + 1)) {
+                continue;
+            }
+
+            out.append(format.format(new Date(timestamp))).append(" [id: 0x");
+            appendHex(out, channelId);
+            out.append("] ").append(direction == IN ? "IN " : "OUT").append(' ');
+            if (length < 0) {
+                out.append("message");
+            } else {
+                out.append(String.valueOf(length)).append(" bytes");
+            }
+            if (captured > 0) {
+                out.append(':');
+                for (int i = 0; i < captured; i++) {
+                    out.append(' ').append(HEX[(bytes[i] >> 4) & 0x0F]).append(HEX[bytes[i] & 0x0F]);
+                }
+                out.append(" |");
+                for (int i = 0; i < captured; i++) {
+                    out.append(bytes[i] >= 0x20 && bytes[i] < 0x7F ? (char) bytes[i] : '.');
+                }
+                out.append('|');
+            }
+            out.append('\n');
+        }
+    }
+
+    private static void appendHex(Appendable out, int value) throws IOException {
+        for (int shift = 28; shift >= 0; shift -= 4) {
+            out.append(HEX[(value >>> shift) & 0x0F]);
+        }
+    }
+
+    /**
+     * Registers the tracer as an MBean of the endpoint, if JMX is enabled
+     */
+    public void register(CamelContext context, String endpoint) throws JMException {
+        agent = context.getManagementStrategy().getManagementAgent();
+        if (agent != null) {
+            objectName = new ObjectName(NettyMetricsRegistry.objectName(agent, context, endpoint) + ",tracer=wire");
+            agent.register(this, objectName);
+        }
+    }
+
+    public void unregister() throws JMException {
+        ManagementAgent current = agent;
+        agent = null;
+        if (current != null) {
+            current.unregister(objectName);
+        }
+    }
+
+    @ManagedAttribute(description = "Number of records kept")
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @ManagedAttribute(description = "Number of bytes kept from the start of each buffer")
+    public int getCaptureBytes() {
+        return captureBytes;
+    }
+
+    @ManagedAttribute(description = "Number of buffers recorded")
+    public long getRecorded() {
+        return sequence.get();
+    }
+}
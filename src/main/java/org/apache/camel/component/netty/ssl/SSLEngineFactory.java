@@ -17,7 +17,9 @@
 package org.apache.camel.component.netty.ssl;
 
 import java.io.File;
+import java.io.InputStream;
 import java.security.KeyStore;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
@@ -25,37 +27,148 @@ import javax.net.ssl.SSLEngine;
 import javax.net.ssl.TrustManagerFactory;
 
 import org.apache.camel.converter.IOConverter;
+import org.apache.camel.util.IOHelper;
+import org.jboss.netty.util.Timeout;
+import org.jboss.netty.util.Timer;
+import org.jboss.netty.util.TimerTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Creates {@link SSLEngine}s from an {@link SSLContext} which is built once and shared by all the engines.
+ * <p/>
+ * When the context is built from key store files, the files can be checked for changes using
+ * {@link #scheduleReload(Timer, long)}. A changed file is loaded on the timer thread and the new context is used for
+ * the engines created afterwards, while the connections already established keep using the old one. If loading
+ * fails, for example because the file is being written, the old context is kept and the files are checked again
+ * at the next interval.
+ * <p/>
+ * A factory can also be configured on the endpoint using the <tt>sslEngineFactory</tt> option, for example created
+ * from an existing {@link SSLContext}. Subclasses can override the create methods to configure the engines.
+ */
 public class SSLEngineFactory {
 
+    private static final transient Logger LOG = LoggerFactory.getLogger(SSLEngineFactory.class);
     private static final String SSL_PROTOCOL = "TLS";
-    private static SSLContext sslContext;
-    
+
+    private final String keyStoreFormat;
+    private final String securityProvider;
+    private final File keyStoreFile;
+    private final File trustStoreFile;
+    private final char[] passphrase;
+    private final boolean needClientAuth;
+    private volatile SSLContext sslContext;
+    private int sessionCacheSize = -1;
+    private int sessionTimeout = -1;
+    private long keyStoreLastModified;
+    private long trustStoreLastModified;
+
     public SSLEngineFactory(String keyStoreFormat, String securityProvider, File keyStoreFile, File trustStoreFile, char[] passphrase) throws Exception {
-        KeyStore ks = KeyStore.getInstance(keyStoreFormat);
+        this.keyStoreFormat = keyStoreFormat;
+        this.securityProvider = securityProvider;
+        this.keyStoreFile = keyStoreFile;
+        this.trustStoreFile = trustStoreFile;
+        this.passphrase = passphrase;
+        this.needClientAuth = true;
+        this.keyStoreLastModified = lastModified(keyStoreFile);
+        this.trustStoreLastModified = lastModified(trustStoreFile);
+        this.sslContext = createSSLContext();
+    }
+
+    /**
+     * Creates a factory for the given context, which is configured by its creator, for example by the
+     * {@link org.apache.camel.util.jsse.SSLContextParameters}
+     */
+    public SSLEngineFactory(SSLContext sslContext) {
+        this.keyStoreFormat = null;
+        this.securityProvider = null;
+        this.keyStoreFile = null;
+        this.trustStoreFile = null;
+        this.passphrase = null;
+        this.needClientAuth = false;
+        this.sslContext = sslContext;
+    }
 
-        ks.load(IOConverter.toInputStream(keyStoreFile), passphrase);
+    private SSLContext createSSLContext() throws Exception {
+        KeyStore ks = loadKeyStore(keyStoreFile);
 
         KeyManagerFactory kmf = KeyManagerFactory.getInstance(securityProvider);
         kmf.init(ks, passphrase);
 
-        sslContext = SSLContext.getInstance(SSL_PROTOCOL);
+        SSLContext context = SSLContext.getInstance(SSL_PROTOCOL);
         
         if (trustStoreFile != null) { 
-            KeyStore ts = KeyStore.getInstance(keyStoreFormat); 
-            ts.load(IOConverter.toInputStream(trustStoreFile), passphrase); 
+            KeyStore ts = loadKeyStore(trustStoreFile);
             TrustManagerFactory tmf = TrustManagerFactory.getInstance(securityProvider); 
             tmf.init(ts); 
-            sslContext.init(kmf.getKeyManagers(), tmf.getTrustManagers(), null); 
+            context.init(kmf.getKeyManagers(), tmf.getTrustManagers(), null); 
         } else { 
-            sslContext.init(kmf.getKeyManagers(), null, null); 
+            context.init(kmf.getKeyManagers(), null, null); 
+        }
+        return context;
+    }
+
+    private KeyStore loadKeyStore(File file) throws Exception {
+        KeyStore ks = KeyStore.getInstance(keyStoreFormat);
+        InputStream is = IOConverter.toInputStream(file);
+        try {
+            ks.load(is, passphrase);
+        } finally {
+            IOHelper.close(is);
+        }
+        return ks;
+    }
+
+    private static long lastModified(File file) {
+        return file != null ? file.lastModified() : 0;
+    }
+
+    public SSLContext getSSLContext() {
+        return sslContext;
+    }
+
+    /**
+     * Sets the number of sessions kept for resumption by the client and server session caches of the context,
+     * where 0 means no limit and -1 keeps the default of the JVM.
+     */
+    public synchronized void setSessionCacheSize(int sessionCacheSize) {
+        this.sessionCacheSize = sessionCacheSize;
+        configureSessions(sslContext);
+    }
+
+    public int getSessionCacheSize() {
+        return sessionCacheSize;
+    }
+
+    /**
+     * Sets the number of seconds sessions can be resumed, where 0 means no limit and -1 keeps the default of the JVM.
+     */
+    public synchronized void setSessionTimeout(int sessionTimeout) {
+        this.sessionTimeout = sessionTimeout;
+        configureSessions(sslContext);
+    }
+
+    public int getSessionTimeout() {
+        return sessionTimeout;
+    }
+
+    private void configureSessions(SSLContext context) {
+        if (sessionCacheSize >= 0) {
+            context.getClientSessionContext().setSessionCacheSize(sessionCacheSize);
+            context.getServerSessionContext().setSessionCacheSize(sessionCacheSize);
+        }
+        if (sessionTimeout >= 0) {
+            context.getClientSessionContext().setSessionTimeout(sessionTimeout);
+            context.getServerSessionContext().setSessionTimeout(sessionTimeout);
         }
     }
 
     public SSLEngine createServerSSLEngine() {
         SSLEngine serverEngine = sslContext.createSSLEngine();
         serverEngine.setUseClientMode(false);
-        serverEngine.setNeedClientAuth(true);
+        if (needClientAuth) {
+            serverEngine.setNeedClientAuth(true);
+        }
         return serverEngine;
     }
 
@@ -64,5 +177,63 @@ public class SSLEngineFactory {
         clientEngine.setUseClientMode(true);
         return clientEngine;
     }
-    
+
+    /**
+     * Creates a client engine with the address of the peer, which lets the engine resume a session
+     * with the same peer from the session cache instead of doing a full handshake.
+     */
+    public SSLEngine createClientSSLEngine(String host, int port) {
+        SSLEngine clientEngine = sslContext.createSSLEngine(host, port);
+        clientEngine.setUseClientMode(true);
+        return clientEngine;
+    }
+
+    /**
+     * Reloads the key stores if any of the files has been modified since they were loaded.
+     *
+     * @return <tt>true</tt> if reloaded
+     * @throws Exception is thrown if the key stores could not be loaded, in which case the current context is kept
+     */
+    public synchronized boolean reloadIfModified() throws Exception {
+        if (keyStoreFile == null) {
+            return false;
+        }
+        long keyStoreModified = lastModified(keyStoreFile);
+        long trustStoreModified = lastModified(trustStoreFile);
+        if (keyStoreModified == keyStoreLastModified && trustStoreModified == trustStoreLastModified) {
+            return false;
+        }
+
+        LOG.info("Reloading key store: {} and trust store: {} as they have been modified", keyStoreFile, trustStoreFile);
+        SSLContext context = createSSLContext();
+        configureSessions(context);
+        sslContext = context;
+        keyStoreLastModified = keyStoreModified;
+        trustStoreLastModified = trustStoreModified;
+        return true;
+    }
+
+    /**
+     * Checks the key store files for changes at the given interval, until the timer is stopped.
+     */
+    public void scheduleReload(final Timer timer, final long interval) {
+        timer.newTimeout(new TimerTask() {
+            public void run(Timeout timeout) throws Exception {
+                if (timeout.isCancelled()) {
+                    return;
+                }
+                try {
+                    reloadIfModified();
+                } catch (Exception e) {
+                    LOG.warn("Error reloading key store: " + keyStoreFile + ". The previously loaded key store is still used.", e);
+                }
+                try {
+                    timer.newTimeout(this, interval, TimeUnit.MILLISECONDS);
+                } catch (IllegalStateException e) {
+                    // the timer has been stopped
+                    LOG.trace("Timer stopped so no longer checking key store: {}", keyStoreFile);
+                }
+            }
+        }, interval, TimeUnit.MILLISECONDS);
+    }
 }
@@ -0,0 +1,152 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.ssl;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
+
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.ChannelFutureListener;
+import org.jboss.netty.channel.ChannelHandler;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelStateEvent;
+import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
+import org.jboss.netty.handler.ssl.SslHandler;
+import org.jboss.netty.util.Timeout;
+import org.jboss.netty.util.Timer;
+import org.jboss.netty.util.TimerTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Starts the handshake of the {@link SslHandler} in the pipeline as soon as the channel is connected, and
+ * records the outcome and the duration in the {@link SSLHandshakeStatistics}.
+ * <p/>
+ * When a timeout is given the channel is closed if the handshake has not completed in time, so slow or
+ * stalled peers do not hold on to the connection.
+ * <p/>
+ * A handshake is counted as resumed when it negotiated a session this handler has already seen on an earlier
+ * connection. The handler remembers the IDs of the last {@link #MAX_SESSION_IDS} sessions, and as the producer and
+ * the consumer each have their own handler, the two sides of a connection do not see each other's sessions.
+ * <p/>
+ * Must be added after the {@link SslHandler}.
+ */
+@ChannelHandler.Sharable
+public class SSLHandshakeHandler extends SimpleChannelUpstreamHandler {
+    public static final int MAX_SESSION_IDS = 4096;
+    private static final transient Logger LOG = LoggerFactory.getLogger(SSLHandshakeHandler.class);
+    private final Map<ByteBuffer, Boolean> sessionIds = new LinkedHashMap<ByteBuffer, Boolean>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Boolean> eldest) {
+            return size() > MAX_SESSION_IDS;
+        }
+    };
+    private final SSLHandshakeStatistics statistics;
+    private final Timer timer;
+    private final long timeout;
+
+    public SSLHandshakeHandler(SSLHandshakeStatistics statistics) {
+        this(statistics, null, 0);
+    }
+
+    /**
+     * @param statistics the statistics to record the handshakes in
+     * @param timer      the timer to schedule the handshake timeout on, or <tt>null</tt> for no timeout
+     * @param timeout    the time in millis the handshake may take, or <tt>0</tt> for no timeout
+     */
+    public SSLHandshakeHandler(SSLHandshakeStatistics statistics, Timer timer, long timeout) {
+        this.statistics = statistics;
+        this.timer = timer;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void channelConnected(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+        SslHandler sslHandler = ctx.getPipeline().get(SslHandler.class);
+        if (sslHandler != null) {
+            handshake(sslHandler);
+        }
+        super.channelConnected(ctx, e);
+    }
+
+    /**
+     * Starts the handshake, closes the channel if it does not complete in time, and records its outcome when done
+     */
+    public ChannelFuture handshake(final SslHandler sslHandler) {
+        final long startNanos = System.nanoTime();
+        final ChannelFuture future = sslHandler.handshake();
+        final Timeout handshakeTimeout = scheduleTimeout(future);
+        future.addListener(new ChannelFutureListener() {
+            public void operationComplete(ChannelFuture future) throws Exception {
+                if (handshakeTimeout != null) {
+                    handshakeTimeout.cancel();
+                }
+                if (!future.isSuccess()) {
+                    statistics.failedHandshake();
+                    LOG.debug("Handshake failed on channel: {}", future.getChannel());
+                    return;
+                }
+                statistics.handshakeTime(System.nanoTime() - startNanos);
+                SSLSession session = sslHandler.getEngine().getSession();
+                if (isResumed(session)) {
+                    statistics.resumedHandshake();
+                } else {
+                    statistics.fullHandshake();
+                }
+                LOG.trace("Handshake completed on channel: {} with {}", future.getChannel(), session);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Whether the session has been negotiated by an earlier handshake, and remembers it for the next ones
+     */
+    boolean isResumed(SSLSession session) {
+        byte[] id = session.getId();
+        if (id == null || id.length == 0) {
+            // a session without an id cannot be resumed
+            return false;
+        }
+        synchronized (sessionIds) {
+            return sessionIds.put(ByteBuffer.wrap(id.clone()), Boolean.TRUE) != null;
+        }
+    }
+
+    private Timeout scheduleTimeout(final ChannelFuture future) {
+        if (timer == null || timeout <= 0 || future.isDone()) {
+            return null;
+        }
+        return timer.newTimeout(new TimerTask() {
+            public void run(Timeout handshakeTimeout) throws Exception {
+                // fail the handshake first so it is not counted as completed while the channel is closing
+                if (future.setFailure(new SSLException("Handshake timed out after " + timeout + " millis"))) {
+                    statistics.timedOutHandshake();
+                    LOG.debug("Closing channel: {} as the handshake did not complete within {} millis", future.getChannel(), timeout);
+                    future.getChannel().close();
+                }
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+    }
+}
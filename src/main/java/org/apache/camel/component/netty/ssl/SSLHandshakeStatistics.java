@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.ssl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.api.management.ManagedAttribute;
+import org.apache.camel.api.management.ManagedResource;
+import org.apache.camel.component.netty.metrics.LatencyHistogram;
+import org.apache.camel.component.netty.metrics.NettyMetricsRegistry;
+import org.apache.camel.spi.ManagementAgent;
+
+/**
+ * Counts the TLS handshakes of an endpoint.
+ * <p/>
+ * A handshake is counted as resumed when the negotiated session has already been seen by the
+ * {@link SSLHandshakeHandler} on an earlier connection, which means the session was taken from the session cache
+ * and the abbreviated handshake was used.
+ * The time taken by the successful handshakes is recorded as well, from the start of the handshake until
+ * its completion.
+ */
+@ManagedResource(description = "Netty SSL Handshake Statistics")
+public class SSLHandshakeStatistics {
+    private final AtomicLong fullHandshakes = new AtomicLong();
+    private final AtomicLong resumedHandshakes = new AtomicLong();
+    private final AtomicLong failedHandshakes = new AtomicLong();
+    private final AtomicLong timedOutHandshakes = new AtomicLong();
+    private final AtomicLong totalHandshakeTime = new AtomicLong();
+    private final LatencyHistogram handshakeTime = new LatencyHistogram();
+    private volatile ManagementAgent agent;
+    private volatile ObjectName objectName;
+
+    public void fullHandshake() {
+        fullHandshakes.incrementAndGet();
+    }
+
+    public void resumedHandshake() {
+        resumedHandshakes.incrementAndGet();
+    }
+
+    public void failedHandshake() {
+        failedHandshakes.incrementAndGet();
+    }
+
+    public void timedOutHandshake() {
+        timedOutHandshakes.incrementAndGet();
+    }
+
+    /**
+     * Records the duration of a successful handshake
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void handshakeTime(long nanos) {
+        totalHandshakeTime.addAndGet(nanos);
+        handshakeTime.record(nanos);
+    }
+
+    /**
+     * Registers the statistics as an MBean of the endpoint, if JMX is enabled
+     */
+    public void register(CamelContext context, String endpoint) throws JMException {
+        agent = context.getManagementStrategy().getManagementAgent();
+        if (agent != null) {
+            objectName = new ObjectName(NettyMetricsRegistry.objectName(agent, context, endpoint) + ",statistics=sslHandshakes");
+            agent.register(this, objectName);
+        }
+    }
+
+    public void unregister() throws JMException {
+        ManagementAgent current = agent;
+        agent = null;
+        if (current != null) {
+            current.unregister(objectName);
+        }
+    }
+
+    @ManagedAttribute(description = "Handshakes which negotiated a new session")
+    public long getFullHandshakes() {
+        return fullHandshakes.get();
+    }
+
+    @ManagedAttribute(description = "Handshakes which resumed a session")
+    public long getResumedHandshakes() {
+        return resumedHandshakes.get();
+    }
+
+    @ManagedAttribute(description = "Handshakes which failed, including the ones which timed out")
+    public long getFailedHandshakes() {
+        return failedHandshakes.get();
+    }
+
+    /**
+     * Gets the number of handshakes which were closed as they did not complete in time, which are also counted as failed
+     */
+    @ManagedAttribute(description = "Handshakes which did not complete in time")
+    public long getTimedOutHandshakes() {
+        return timedOutHandshakes.get();
+    }
+
+    /**
+     * Gets the total time in millis taken by the successful handshakes
+     */
+    @ManagedAttribute(description = "Total time in millis taken by the successful handshakes")
+    public long getTotalHandshakeTime() {
+        return TimeUnit.NANOSECONDS.toMillis(totalHandshakeTime.get());
+    }
+
+    /**
+     * Gets the average time in millis taken by the successful handshakes
+     */
+    @ManagedAttribute(description = "Mean time in millis taken by the successful handshakes")
+    public double getAverageHandshakeTime() {
+        long count = getFullHandshakes() + getResumedHandshakes();
+        return count == 0 ? 0 : totalHandshakeTime.get() / 1000000d / count;
+    }
+
+    /**
+     * Gets the longest time in millis taken by a successful handshake
+     */
+    @ManagedAttribute(description = "Longest time in millis taken by a successful handshake")
+    public long getMaxHandshakeTime() {
+        return TimeUnit.NANOSECONDS.toMillis(handshakeTime.getMax());
+    }
+
+    @ManagedAttribute(description = "99th percentile of the time in millis taken by the successful handshakes")
+    public double getHandshakeTime99thPercentile() {
+        return handshakeTime.getValueAtPercentile(0.99) / 1000000d;
+    }
+
+    public LatencyHistogram getHandshakeTime() {
+        return handshakeTime;
+    }
+
+    @Override
+    public String toString() {
+        return "SSLHandshakeStatistics[full=" + fullHandshakes + ", resumed=" + resumedHandshakes + ", failed=" + failedHandshakes
+            + ", timedOut=" + timedOutHandshakes + ", averageTime=" + getAverageHandshakeTime() + ", maxTime=" + getMaxHandshakeTime() + "]";
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.netty.codec.CompactClassRegistry;
+import org.apache.camel.impl.JndiRegistry;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class NettyCompactObjectCodecTest extends BaseNettyTest {
+
+    private static final String URI = "netty:tcp://localhost:{{port}}?codec=compactObject&compactClassRegistry=#registry";
+
+    @Override
+    protected JndiRegistry createRegistry() throws Exception {
+        JndiRegistry jndi = super.createRegistry();
+        CompactClassRegistry registry = new CompactClassRegistry();
+        registry.register(Poetry.class);
+        jndi.bind("registry", registry);
+        return jndi;
+    }
+
+    @Test
+    public void testRegisteredClass() throws Exception {
+        Poetry poetry = new Poetry();
+        Poetry reply = template.requestBody(URI, poetry, Poetry.class);
+        assertEquals("Dr. Sarojini Naidu", reply.getPoet());
+        assertEquals(poetry.getPoem(), reply.getPoem());
+    }
+
+    @Test
+    public void testMap() throws Exception {
+        Map<String, Object> map = new HashMap<String, Object>();
+        map.put("count", 3);
+
+        Object reply = template.requestBody(URI, map);
+        assertEquals("Map of 1 entries", reply);
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from(URI)
+                    .process(new Processor() {
+                        public void process(Exchange exchange) throws Exception {
+                            Object body = exchange.getIn().getBody();
+                            if (body instanceof Poetry) {
+                                ((Poetry) body).setPoet("Dr. Sarojini Naidu");
+                                exchange.getOut().setBody(body);
+                            } else {
+                                exchange.getOut().setBody("Map of " + ((Map<?, ?>) body).size() + " entries");
+                            }
+                        }
+                    });
+            }
+        };
+    }
+}
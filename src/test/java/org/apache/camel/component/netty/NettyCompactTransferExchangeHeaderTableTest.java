@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.netty.codec.CompactExchangeHolder;
+import org.apache.camel.impl.DefaultExchange;
+import org.jboss.netty.bootstrap.ClientBootstrap;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelDownstreamHandler;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelPipeline;
+import org.jboss.netty.channel.ChannelUpstreamHandler;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelDownstreamHandler;
+import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
+import org.jboss.netty.channel.socket.nio.NioClientSocketChannelFactory;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class NettyCompactTransferExchangeHeaderTableTest extends BaseNettyTest {
+
+    private static final String URI = "netty:tcp://localhost:{{port}}?transferExchange=true&transferExchangeFormat=compact&headerTableSize=32";
+
+    @Test
+    public void testHeaderTable() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Exchange reply = template.request(URI, new Processor() {
+                public void process(Exchange exchange) throws Exception {
+                    exchange.getIn().setBody("Hello");
+                    exchange.getIn().setHeader("cheese", "feta");
+                    exchange.getIn().setHeader("breadcrumbId", "123");
+                }
+            });
+            assertEquals("Bye feta", reply.getOut().getBody());
+            assertEquals("123", reply.getOut().getHeader("breadcrumbId"));
+            assertEquals("cheddar", reply.getOut().getHeader("cheese"));
+        }
+    }
+
+    @Test
+    public void testSeveralExchangesOnOneConnection() throws Exception {
+        // a client which keeps its connection, built from the codecs of the endpoint
+        NettyConfiguration configuration = context.getEndpoint(URI, NettyEndpoint.class).getConfiguration();
+        final List<Integer> frameSizes = new ArrayList<Integer>();
+        final BlockingQueue<Object> replies = new LinkedBlockingQueue<Object>();
+        ChannelPipeline pipeline = Channels.pipeline();
+        pipeline.addLast("frameSizes", new SimpleChannelDownstreamHandler() {
+            @Override
+            public void writeRequested(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+                frameSizes.add(((ChannelBuffer) e.getMessage()).readableBytes());
+                super.writeRequested(ctx, e);
+            }
+        });
+        for (int x = 0; x < configuration.getDecoders().size(); x++) {
+            ChannelUpstreamHandler decoder = configuration.getDecoders().get(x);
+            if (decoder instanceof ChannelHandlerFactory) {
+                decoder = (ChannelUpstreamHandler) ((ChannelHandlerFactory) decoder).newChannelHandler();
+            }
+            pipeline.addLast("decoder-" + x, decoder);
+        }
+        for (int x = 0; x < configuration.getEncoders().size(); x++) {
+            ChannelDownstreamHandler encoder = configuration.getEncoders().get(x);
+            if (encoder instanceof ChannelHandlerFactory) {
+                encoder = (ChannelDownstreamHandler) ((ChannelHandlerFactory) encoder).newChannelHandler();
+            }
+            pipeline.addLast("encoder-" + x, encoder);
+        }
+        pipeline.addLast("replies", new SimpleChannelUpstreamHandler() {
+            @Override
+            public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+                replies.add(e.getMessage());
+            }
+        });
+
+        NioClientSocketChannelFactory factory = new NioClientSocketChannelFactory(Executors.newCachedThreadPool(), Executors.newCachedThreadPool());
+        try {
+            ClientBootstrap bootstrap = new ClientBootstrap(factory);
+            bootstrap.setPipeline(pipeline);
+            Channel channel = bootstrap.connect(new InetSocketAddress("localhost", getPort())).awaitUninterruptibly().getChannel();
+            assertTrue("Should be connected", channel.isConnected());
+
+            for (int i = 0; i < 3; i++) {
+                Exchange exchange = new DefaultExchange(context);
+                exchange.getIn().setBody("Hello");
+                exchange.getIn().setHeader("cheese", "feta");
+                exchange.getIn().setHeader("breadcrumbId", "123");
+                channel.write(CompactExchangeHolder.marshal(exchange)).awaitUninterruptibly();
+
+                CompactExchangeHolder reply = (CompactExchangeHolder) replies.poll(10, TimeUnit.SECONDS);
+                assertNotNull("Should receive a reply", reply);
+                assertEquals("Bye feta", reply.getOutBody());
+                assertEquals("cheddar", reply.getOutHeaders().get("cheese"));
+            }
+            channel.close().awaitUninterruptibly();
+        } finally {
+            factory.releaseExternalResources();
+        }
+
+        // the later exchanges refer to the headers in the table of the connection
+        assertEquals(3, frameSizes.size());
+        assertTrue("Should be smaller: " + frameSizes, frameSizes.get(1) < frameSizes.get(0));
+        assertTrue("Should be smaller: " + frameSizes, frameSizes.get(2) < frameSizes.get(0));
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from(URI)
+                    .process(new Processor() {
+                        public void process(Exchange exchange) throws Exception {
+                            exchange.getOut().setBody("Bye " + exchange.getIn().getHeader("cheese"));
+                            exchange.getOut().setHeader("breadcrumbId", exchange.getIn().getHeader("breadcrumbId"));
+                            exchange.getOut().setHeader("cheese", "cheddar");
+                        }
+                    });
+            }
+        };
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty;
+
+import org.apache.camel.builder.RouteBuilder;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class NettyCompressionTest extends BaseNettyTest {
+
+    private static final String URI = "netty:tcp://localhost:{{port}}?textline=true&sync=true&compression=true&compressionLevel=9&compressionThreshold=128&decoderMaxLineLength=20000";
+
+    @Test
+    public void testShortLine() throws Exception {
+        String reply = template.requestBody(URI, "Hello World", String.class);
+        assertEquals("Bye World", reply);
+    }
+
+    @Test
+    public void testLongLine() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("Hello World ");
+        }
+        String reply = template.requestBody(URI, sb.toString(), String.class);
+        assertEquals(sb.toString().replaceAll("Hello", "Bye"), reply);
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from(URI)
+                    .transform(body().regexReplaceAll("Hello", "Bye"));
+            }
+        };
+    }
+}
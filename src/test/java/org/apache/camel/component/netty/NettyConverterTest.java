@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty;
+
+import java.nio.ByteBuffer;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.impl.DefaultExchange;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.util.CharsetUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class NettyConverterTest extends Assert {
+
+    @Test
+    public void testToByteArrayOnlyReadableBytes() {
+        ChannelBuffer buffer = ChannelBuffers.wrappedBuffer("Hello World".getBytes());
+        buffer.skipBytes(6);
+
+        assertArrayEquals("World".getBytes(), NettyConverter.toByteArray(buffer));
+        assertEquals("The reader index should not change", 6, buffer.readerIndex());
+    }
+
+    @Test
+    public void testToByteArrayWithoutCopy() {
+        byte[] bytes = "Hello World".getBytes();
+        assertSame(bytes, NettyConverter.toByteArray(ChannelBuffers.wrappedBuffer(bytes)));
+    }
+
+    @Test
+    public void testToByteArrayFromDirectAndComposite() {
+        ChannelBuffer direct = ChannelBuffers.directBuffer(11);
+        direct.writeBytes("Hello World".getBytes());
+        assertArrayEquals("Hello World".getBytes(), NettyConverter.toByteArray(direct));
+
+        ChannelBuffer composite = ChannelBuffers.wrappedBuffer(
+            ChannelBuffers.wrappedBuffer("Hello ".getBytes()), ChannelBuffers.wrappedBuffer("World".getBytes()));
+        assertArrayEquals("Hello World".getBytes(), NettyConverter.toByteArray(composite));
+    }
+
+    @Test
+    public void testToStringWithExchangeCharset() {
+        Exchange exchange = new DefaultExchange(new DefaultCamelContext());
+        exchange.setProperty(Exchange.CHARSET_NAME, "UTF-16");
+
+        ChannelBuffer buffer = ChannelBuffers.copiedBuffer("Hello Wörld", CharsetUtil.UTF_16);
+        assertEquals("Hello Wörld", NettyConverter.toString(buffer, exchange));
+        assertEquals(0, buffer.readerIndex());
+    }
+
+    @Test
+    public void testToStringWithDefaultCharset() {
+        String old = System.getProperty("org.apache.camel.default.charset");
+        System.setProperty("org.apache.camel.default.charset", "UTF-16");
+        try {
+            ChannelBuffer buffer = ChannelBuffers.copiedBuffer("Hello World", CharsetUtil.UTF_16);
+            assertEquals("Hello World", NettyConverter.toString(buffer, new DefaultExchange(new DefaultCamelContext())));
+        } finally {
+            if (old != null) {
+                System.setProperty("org.apache.camel.default.charset", old);
+            } else {
+                System.clearProperty("org.apache.camel.default.charset");
+            }
+        }
+    }
+
+    @Test
+    public void testToNioByteBufferIsView() {
+        ChannelBuffer buffer = ChannelBuffers.wrappedBuffer("Hello World".getBytes());
+        buffer.skipBytes(6);
+
+        ByteBuffer view = NettyConverter.toByteBuffer(buffer);
+        assertEquals(5, view.remaining());
+        buffer.setByte(6, 'w');
+        assertEquals('w', view.get(view.position()));
+    }
+
+    @Test
+    public void testByteArrayIsWrapped() {
+        byte[] bytes = "Hello".getBytes();
+        ChannelBuffer buffer = NettyConverter.toByteBuffer(bytes);
+        assertSame(bytes, buffer.array());
+        assertEquals(5, buffer.readableBytes());
+    }
+
+    @Test
+    public void testStringToChannelBuffer() {
+        Exchange exchange = new DefaultExchange(new DefaultCamelContext());
+        exchange.setProperty(Exchange.CHARSET_NAME, "UTF-8");
+
+        ChannelBuffer buffer = NettyConverter.toChannelBuffer("Hello Wörld", exchange);
+        assertEquals("Hello Wörld", buffer.toString(CharsetUtil.UTF_8));
+        assertEquals(12, buffer.readableBytes());
+    }
+}
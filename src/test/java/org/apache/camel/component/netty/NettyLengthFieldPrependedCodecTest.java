@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty;
+
+import java.util.Properties;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.ResolveEndpointFailedException;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.JndiRegistry;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class NettyLengthFieldPrependedCodecTest extends BaseNettyTest {
+
+    private static final String URI = "netty:tcp://localhost:{{port}}?codec=lengthFieldPrepended&lengthFieldVarint=true";
+    private static final String STRING_URI = "netty:tcp://localhost:{{stringPort}}?codec=lengthFieldPrepended";
+
+    @Test
+    public void testLengthFieldPrepended() throws Exception {
+        getMockEndpoint("mock:result").expectedMessageCount(2);
+        getMockEndpoint("mock:result").allMessages().body().isInstanceOf(ChannelBuffer.class);
+
+        assertEquals("Received 11 bytes", template.requestBody(URI, "Hello World".getBytes(), String.class));
+        assertEquals("Received 0 bytes", template.requestBody(URI, new byte[0], String.class));
+
+        assertMockEndpointsSatisfied();
+    }
+
+    @Test
+    public void testStringBody() throws Exception {
+        getMockEndpoint("mock:string").expectedBodiesReceived("Hello World");
+
+        // the string body and reply are converted to and from ChannelBuffer
+        assertEquals("Hello World received", template.requestBody(STRING_URI, "Hello World", String.class));
+
+        assertMockEndpointsSatisfied();
+    }
+
+    @Test
+    public void testLargeFrame() throws Exception {
+        getMockEndpoint("mock:result").expectedMessageCount(1);
+
+        assertEquals("Received 100000 bytes", template.requestBody(URI, new byte[100000], String.class));
+
+        assertMockEndpointsSatisfied();
+    }
+
+    @Test
+    public void testSpillThresholdRequiresLengthFieldPrepended() throws Exception {
+        try {
+            context.getEndpoint("netty:tcp://localhost:{{port}}?codec=compactObject&spillThreshold=65536");
+            fail("Should have thrown an exception");
+        } catch (ResolveEndpointFailedException e) {
+            assertIsInstanceOf(IllegalArgumentException.class, e.getCause());
+        }
+    }
+
+    @Override
+    protected JndiRegistry createRegistry() throws Exception {
+        JndiRegistry registry = super.createRegistry();
+        Properties prop = (Properties) registry.lookup("prop");
+        prop.setProperty("stringPort", "" + getNextPort());
+        return registry;
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from(URI)
+                    .to("mock:result")
+                    .process(new Processor() {
+                        public void process(Exchange exchange) throws Exception {
+                            int length = exchange.getIn().getBody(ChannelBuffer.class).readableBytes();
+                            exchange.getOut().setBody(("Received " + length + " bytes").getBytes());
+                        }
+                    });
+
+                from(STRING_URI)
+                    .convertBodyTo(String.class)
+                    .to("mock:string")
+                    .transform(body().append(" received"));
+            }
+        };
+    }
+}
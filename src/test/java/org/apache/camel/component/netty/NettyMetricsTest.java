@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty;
+
+import java.util.Set;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.netty.metrics.NettyMetrics;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class NettyMetricsTest extends BaseNettyTest {
+
+    // the producer uses another endpoint than the consumer so their metrics are told apart
+    private static final String PRODUCER_URI = "netty:tcp://localhost:{{port}}?textline=true&sync=true&metrics=true&connectTimeout=5000";
+
+    @Override
+    protected boolean useJmx() {
+        return true;
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals("Bye World", template.requestBody(PRODUCER_URI, "Hello World", String.class));
+        }
+
+        NettyMetrics metrics = context.getEndpoint(PRODUCER_URI, NettyEndpoint.class).getMetricsRegistry().getMetrics();
+        assertEquals(5, metrics.getMessagesOut());
+        assertEquals(5, metrics.getMessagesIn());
+        assertEquals(5, metrics.getConnects());
+        assertEquals(0, metrics.getWriteFailures());
+        assertEquals(0, metrics.getInflightExchanges());
+        // the request and the delimiter
+        assertEquals(5 * "Hello World\n".length(), metrics.getBytesOut());
+        assertEquals(5 * "Bye World\n".length(), metrics.getBytesIn());
+        assertEquals(5, metrics.getConnectTime().getCount());
+        assertEquals(5, metrics.getFirstByteTime().getCount());
+        assertEquals(5, metrics.getRequestReplyTime().getCount());
+        assertTrue(metrics.getRequestReplyTimeMax() >= metrics.getRequestReplyTime50thPercentile());
+
+        // the producer connects to a single remote address
+        assertEquals(1, context.getEndpoint(PRODUCER_URI, NettyEndpoint.class).getMetricsRegistry().getRemoteMetrics().size());
+        NettyMetrics remote = context.getEndpoint(PRODUCER_URI, NettyEndpoint.class).getMetricsRegistry().getRemoteMetrics().values().iterator().next();
+        assertEquals(5, remote.getMessagesOut());
+
+        // the consumer and the producer endpoints, and the remote address of each
+        MBeanServer mbeanServer = context.getManagementStrategy().getManagementAgent().getMBeanServer();
+        Set<ObjectName> names = mbeanServer.queryNames(new ObjectName("org.apache.camel:type=netty,*"), null);
+        assertEquals(4, names.size());
+        long messagesIn = 0;
+        for (ObjectName name : names) {
+            if (name.getKeyProperty("remote") == null) {
+                messagesIn += (Long) mbeanServer.getAttribute(name, "MessagesIn");
+            }
+        }
+        assertEquals(10, messagesIn);
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("netty:tcp://localhost:{{port}}?textline=true&sync=true&metrics=true").transform(constant("Bye World"));
+            }
+        };
+    }
+}
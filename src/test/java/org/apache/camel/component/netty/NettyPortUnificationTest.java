@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.ResolveEndpointFailedException;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.netty.handlers.PortUnificationHandler;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class NettyPortUnificationTest extends BaseNettyTest {
+
+    @Test
+    public void testTextline() throws Exception {
+        getMockEndpoint("mock:result").expectedHeaderReceived(NettyConstants.NETTY_PROTOCOL, PortUnificationHandler.PROTOCOL_TEXTLINE);
+
+        String reply = template.requestBody("netty:tcp://localhost:{{port}}?textline=true&sync=true", "Hello World", String.class);
+        assertEquals("textline: Hello World", reply);
+
+        assertMockEndpointsSatisfied();
+    }
+
+    @Test
+    public void testObject() throws Exception {
+        getMockEndpoint("mock:result").expectedHeaderReceived(NettyConstants.NETTY_PROTOCOL, PortUnificationHandler.PROTOCOL_OBJECT);
+
+        Object reply = template.requestBody("netty:tcp://localhost:{{port}}?sync=true", new Poetry());
+        assertEquals("object: Poetry", reply);
+
+        assertMockEndpointsSatisfied();
+    }
+
+    @Test
+    public void testBinary() throws Exception {
+        getMockEndpoint("mock:result").expectedHeaderReceived(NettyConstants.NETTY_PROTOCOL, PortUnificationHandler.PROTOCOL_BINARY);
+        getMockEndpoint("mock:result").expectedMessageCount(2);
+
+        String uri = "netty:tcp://localhost:{{port}}?codec=lengthFieldPrepended&sync=true";
+        assertEquals("binary: 11 bytes", template.requestBody(uri, "Hello World".getBytes(), String.class));
+        assertEquals("binary: 0 bytes", template.requestBody(uri, new byte[0], String.class));
+
+        assertMockEndpointsSatisfied();
+    }
+
+    @Test
+    public void testLengthFieldMustStartWithZeroByte() throws Exception {
+        // a varint or short length field may start with a byte which looks like text
+        try {
+            context.getEndpoint("netty:tcp://localhost:{{port}}?portUnification=true&lengthFieldVarint=true");
+            fail("Should have thrown an exception");
+        } catch (ResolveEndpointFailedException e) {
+            assertIsInstanceOf(IllegalArgumentException.class, e.getCause());
+        }
+        try {
+            context.getEndpoint("netty:tcp://localhost:{{port}}?portUnification=true&lengthFieldLength=2");
+            fail("Should have thrown an exception");
+        } catch (ResolveEndpointFailedException e) {
+            assertIsInstanceOf(IllegalArgumentException.class, e.getCause());
+        }
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("netty:tcp://localhost:{{port}}?portUnification=true&sync=true")
+                    .to("mock:result")
+                    .process(new Processor() {
+                        public void process(Exchange exchange) throws Exception {
+                            String protocol = exchange.getIn().getHeader(NettyConstants.NETTY_PROTOCOL, String.class);
+                            Object body = exchange.getIn().getBody();
+                            if (PortUnificationHandler.PROTOCOL_BINARY.equals(protocol)) {
+                                int length = ((ChannelBuffer) body).readableBytes();
+                                exchange.getOut().setBody((protocol + ": " + length + " bytes").getBytes());
+                            } else if (body instanceof Poetry) {
+                                exchange.getOut().setBody(protocol + ": Poetry");
+                            } else {
+                                exchange.getOut().setBody(protocol + ": " + body);
+                            }
+                        }
+                    });
+            }
+        };
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty;
+
+import java.io.File;
+import java.util.Properties;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.JndiRegistry;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.util.CharsetUtil;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class NettyRawFileTest extends BaseNettyTest {
+
+    private static final String SSL = "&ssl=true&passphrase=#password&keyStoreFile=#ksf&trustStoreFile=#tsf";
+
+    @Override
+    protected JndiRegistry createRegistry() throws Exception {
+        JndiRegistry registry = super.createRegistry();
+        registry.bind("password", "changeit");
+        registry.bind("ksf", new File("src/test/resources/keystore.jks"));
+        registry.bind("tsf", new File("src/test/resources/keystore.jks"));
+        Properties prop = (Properties) registry.lookup("prop");
+        prop.setProperty("sslPort", "" + getNextPort());
+        return registry;
+    }
+
+    @Test
+    public void testSendFile() throws Exception {
+        getMockEndpoint("mock:results").expectedMessageCount(1);
+        // the file is written as a file region so it arrives in one read as it is small
+        getMockEndpoint("mock:results").message(0).body(String.class).startsWith("Hello World");
+
+        template.sendBody("netty:tcp://localhost:{{port}}?raw=true&sync=false", new File("src/test/data/message1.txt"));
+
+        assertMockEndpointsSatisfied();
+    }
+
+    @Test
+    public void testReplyFile() throws Exception {
+        ChannelBuffer reply = template.requestBody("netty:tcp://localhost:{{port}}?raw=true", "file", ChannelBuffer.class);
+        assertTrue(reply.toString(CharsetUtil.UTF_8).startsWith("Hello World"));
+    }
+
+    @Test
+    public void testReplyFileOverSSL() throws Exception {
+        // ibm jdks dont have sun security algorithms
+        if (isJavaVendor("ibm")) {
+            return;
+        }
+
+        ChannelBuffer reply = template.requestBody("netty:tcp://localhost:{{sslPort}}?raw=true" + SSL, "file", ChannelBuffer.class);
+        assertTrue(reply.toString(CharsetUtil.UTF_8).startsWith("Hello World"));
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                Processor reply = new Processor() {
+                    public void process(Exchange exchange) throws Exception {
+                        if (exchange.getIn().getBody(String.class).equals("file")) {
+                            exchange.getOut().setBody(new File("src/test/data/message1.txt"));
+                        } else {
+                            exchange.getOut().setBody(exchange.getIn().getBody());
+                        }
+                    }
+                };
+
+                from("netty:tcp://localhost:{{port}}?raw=true")
+                    .to("mock:results")
+                    .process(reply);
+
+                from("netty:tcp://localhost:{{sslPort}}?raw=true" + SSL)
+                    .process(reply);
+            }
+        };
+    }
+}
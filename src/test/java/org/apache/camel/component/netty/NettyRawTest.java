@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.ResolveEndpointFailedException;
+import org.apache.camel.builder.RouteBuilder;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.util.CharsetUtil;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class NettyRawTest extends BaseNettyTest {
+
+    @Test
+    public void testRawInOut() throws Exception {
+        getMockEndpoint("mock:result").expectedMessageCount(1);
+        getMockEndpoint("mock:result").message(0).body().isInstanceOf(ChannelBuffer.class);
+
+        ChannelBuffer reply = template.requestBody("netty:tcp://localhost:{{port}}?raw=true",
+            "World".getBytes(), ChannelBuffer.class);
+        assertEquals("Hello World", reply.toString(CharsetUtil.US_ASCII));
+
+        assertMockEndpointsSatisfied();
+    }
+
+    @Test
+    public void testRawBodyOutlivesThePipeline() throws Exception {
+        // the received buffer must stay intact when the exchange continues on another thread
+        getMockEndpoint("mock:later").expectedBodiesReceived("Hello", "World");
+
+        template.sendBody("netty:udp://localhost:{{port}}?raw=true&sync=false", "Hello".getBytes());
+        template.sendBody("netty:udp://localhost:{{port}}?raw=true&sync=false", "World".getBytes());
+
+        assertMockEndpointsSatisfied();
+    }
+
+    @Test
+    public void testRawCannotBeCombinedWithTextline() throws Exception {
+        try {
+            context.getEndpoint("netty:tcp://localhost:{{port}}?raw=true&textline=true");
+            fail("Should have thrown an exception");
+        } catch (ResolveEndpointFailedException e) {
+            assertIsInstanceOf(IllegalArgumentException.class, e.getCause());
+        }
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("netty:tcp://localhost:{{port}}?raw=true")
+                    .to("mock:result")
+                    .process(new Processor() {
+                        public void process(Exchange exchange) throws Exception {
+                            // prepend without copying the received buffer
+                            ChannelBuffer in = exchange.getIn().getBody(ChannelBuffer.class);
+                            ChannelBuffer hello = ChannelBuffers.copiedBuffer("Hello ", CharsetUtil.US_ASCII);
+                            exchange.getOut().setBody(ChannelBuffers.wrappedBuffer(hello, in));
+                        }
+                    });
+
+                from("netty:udp://localhost:{{port}}?raw=true&sync=false")
+                    .to("seda:later");
+
+                from("seda:later")
+                    .delay(100)
+                    .convertBodyTo(String.class)
+                    .to("mock:later");
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.netty.ssl.SSLEngineFactory;
+import org.apache.camel.impl.JndiRegistry;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class NettySSLEngineFactoryTest extends BaseNettyTest {
+
+    private static final String URI = "netty:tcp://localhost:{{port}}?sync=true&ssl=true&sslEngineFactory=#sslEngineFactory";
+
+    @Override
+    protected JndiRegistry createRegistry() throws Exception {
+        JndiRegistry registry = super.createRegistry();
+        File keyStore = new File("src/test/resources/keystore.jks");
+        SSLEngineFactory keyStoreFactory = new SSLEngineFactory("JKS", "SunX509", keyStore, keyStore, "changeit".toCharArray());
+        // a factory for an existing context
+        registry.bind("sslEngineFactory", new SSLEngineFactory(keyStoreFactory.getSSLContext()));
+        return registry;
+    }
+
+    @Test
+    public void testConcurrentConnections() throws Exception {
+        // ibm jdks dont have sun security algorithms
+        if (isJavaVendor("ibm")) {
+            return;
+        }
+
+        // each connection must have its own engine to run at the same time
+        List<Future<Object>> replies = new ArrayList<Future<Object>>();
+        for (int i = 0; i < 10; i++) {
+            replies.add(template.asyncRequestBody(URI, "Hello " + i));
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals("Bye Hello " + i, template.extractFutureBody(replies.get(i), String.class));
+        }
+    }
+
+    @Test
+    public void testSslEngineFactoryImpliesSsl() throws Exception {
+        NettyEndpoint endpoint = context.getEndpoint("netty:tcp://localhost:{{port}}?sync=true&sslEngineFactory=#sslEngineFactory", NettyEndpoint.class);
+        assertTrue("The sslEngineFactory option should enable ssl", endpoint.getConfiguration().isSsl());
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from(URI).transform(body().prepend("Bye "));
+            }
+        };
+    }
+}
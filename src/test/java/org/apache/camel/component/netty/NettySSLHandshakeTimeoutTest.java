@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Set;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.netty.ssl.SSLHandshakeStatistics;
+import org.apache.camel.impl.JndiRegistry;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class NettySSLHandshakeTimeoutTest extends BaseNettyTest {
+
+    private static final String URI = "netty:tcp://localhost:{{port}}?sync=true&ssl=true&passphrase=#password&keyStoreFile=#ksf&trustStoreFile=#tsf"
+        + "&sslHandshakeTimeout=500&sslDelegatedTaskPoolSize=2";
+
+    @Override
+    protected boolean useJmx() {
+        return true;
+    }
+
+    @Override
+    protected JndiRegistry createRegistry() throws Exception {
+        JndiRegistry registry = super.createRegistry();
+        registry.bind("password", "changeit");
+        registry.bind("ksf", new File("src/test/resources/keystore.jks"));
+        registry.bind("tsf", new File("src/test/resources/keystore.jks"));
+        return registry;
+    }
+
+    @Test
+    public void testHandshakeTimedOut() throws Exception {
+        // a peer which connects but never starts the handshake
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress("localhost", getPort()));
+            socket.setSoTimeout(10000);
+            InputStream is = socket.getInputStream();
+            // the server closes the connection when the handshake times out
+            while (is.read() != -1) {
+                // discard
+            }
+        } finally {
+            socket.close();
+        }
+
+        SSLHandshakeStatistics statistics = context.getEndpoint(URI, NettyEndpoint.class).getSslHandshakeStatistics();
+        assertEquals(1, statistics.getTimedOutHandshakes());
+        assertEquals(1, statistics.getFailedHandshakes());
+    }
+
+    @Test
+    public void testHandshakeTimeRecorded() throws Exception {
+        // ibm jdks dont have sun security algorithms
+        if (isJavaVendor("ibm")) {
+            return;
+        }
+
+        assertEquals("Bye World", template.requestBody(URI, "Hello World", String.class));
+
+        // the consumer and producer share the endpoint so both sides of the handshake are counted
+        SSLHandshakeStatistics statistics = context.getEndpoint(URI, NettyEndpoint.class).getSslHandshakeStatistics();
+        assertEquals(0, statistics.getTimedOutHandshakes());
+        assertEquals(2, statistics.getFullHandshakes() + statistics.getResumedHandshakes());
+        assertTrue("Should record the handshake time: " + statistics, statistics.getAverageHandshakeTime() > 0);
+        assertTrue(statistics.getMaxHandshakeTime() <= statistics.getTotalHandshakeTime());
+        assertEquals(2, statistics.getHandshakeTime().getCount());
+
+        // the statistics are registered as an MBean of the endpoint
+        MBeanServer mbeanServer = context.getManagementStrategy().getManagementAgent().getMBeanServer();
+        Set<ObjectName> names = mbeanServer.queryNames(new ObjectName("org.apache.camel:type=netty,statistics=sslHandshakes,*"), null);
+        assertEquals(1, names.size());
+        ObjectName name = names.iterator().next();
+        assertEquals(statistics.getFullHandshakes(), mbeanServer.getAttribute(name, "FullHandshakes"));
+        assertEquals(statistics.getResumedHandshakes(), mbeanServer.getAttribute(name, "ResumedHandshakes"));
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from(URI).transform(constant("Bye World"));
+            }
+        };
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty;
+
+import java.io.File;
+
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.netty.ssl.SSLHandshakeStatistics;
+import org.apache.camel.impl.JndiRegistry;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class NettySSLSessionResumptionTest extends BaseNettyTest {
+
+    private static final String URI = "netty:tcp://localhost:{{port}}?sync=true&ssl=true&passphrase=#password&keyStoreFile=#ksf&trustStoreFile=#tsf"
+        + "&sslSessionCacheSize=100&sslSessionTimeout=60";
+
+    @Override
+    protected JndiRegistry createRegistry() throws Exception {
+        JndiRegistry registry = super.createRegistry();
+        registry.bind("password", "changeit");
+        registry.bind("ksf", new File("src/test/resources/keystore.jks"));
+        registry.bind("tsf", new File("src/test/resources/keystore.jks"));
+        return registry;
+    }
+
+    @Test
+    public void testSessionResumed() throws Exception {
+        // ibm jdks dont have sun security algorithms
+        if (isJavaVendor("ibm")) {
+            return;
+        }
+
+        // each exchange uses a new connection
+        for (int i = 0; i < 3; i++) {
+            assertEquals("Bye World", template.requestBody(URI, "Hello World", String.class));
+        }
+
+        // the consumer and producer share the endpoint so both sides of the handshakes are counted
+        SSLHandshakeStatistics statistics = context.getEndpoint(URI, NettyEndpoint.class).getSslHandshakeStatistics();
+        assertEquals(0, statistics.getFailedHandshakes());
+        assertEquals(6, statistics.getFullHandshakes() + statistics.getResumedHandshakes());
+        assertTrue("Should resume the session: " + statistics, statistics.getResumedHandshakes() > 0);
+    }
+
+    @Test
+    public void testFirstHandshakeIsFull() throws Exception {
+        // ibm jdks dont have sun security algorithms
+        if (isJavaVendor("ibm")) {
+            return;
+        }
+
+        assertEquals("Bye World", template.requestBody(URI, "Hello World", String.class));
+
+        // the producer and the consumer have not seen the session before
+        SSLHandshakeStatistics statistics = context.getEndpoint(URI, NettyEndpoint.class).getSslHandshakeStatistics();
+        assertEquals(2, statistics.getFullHandshakes());
+        assertEquals(0, statistics.getResumedHandshakes());
+    }
+
+    @Test
+    public void testSessionOptionsAreNotShared() throws Exception {
+        // ibm jdks dont have sun security algorithms
+        if (isJavaVendor("ibm")) {
+            return;
+        }
+
+        NettyComponent component = context.getComponent("netty", NettyComponent.class);
+        NettyConfiguration configuration = context.getEndpoint(URI, NettyEndpoint.class).getConfiguration();
+
+        NettyConfiguration other = configuration.copy();
+        other.setSslSessionTimeout(120);
+
+        assertSame(component.getSSLEngineFactory(configuration), component.getSSLEngineFactory(configuration.copy()));
+        assertNotSame(component.getSSLEngineFactory(configuration), component.getSSLEngineFactory(other));
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from(URI).transform(constant("Bye World"));
+            }
+        };
+    }
+}
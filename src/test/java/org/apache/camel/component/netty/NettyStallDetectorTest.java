@@ -0,0 +1,69 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.netty.metrics.StallDetector;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class NettyStallDetectorTest extends BaseNettyTest {
+
+    private static final String URI = "netty:tcp://localhost:{{port}}?textline=true&sync=true&stallThreshold=200";
+
+    @Test
+    public void testStallDetected() throws Exception {
+        assertEquals("Bye World", template.requestBody(URI, "Hello World", String.class));
+
+        StallDetector detector = context.getEndpoint(URI, NettyEndpoint.class).getStallDetector();
+        // the stall is counted when the event has been handled, which may be after the reply is received
+        for (int i = 0; i < 20 && detector.getStalls() == 0; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(1, detector.getStalls());
+        assertTrue("Should record the stall: " + detector.getStallTime(), detector.getStallTimeMax() >= 600);
+    }
+
+    @Test
+    public void testNoStall() throws Exception {
+        assertEquals("Bye World", template.requestBody(URI, "Hi", String.class));
+
+        assertEquals(0, context.getEndpoint(URI, NettyEndpoint.class).getStallDetector().getStalls());
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from(URI).process(new Processor() {
+                    public void process(Exchange exchange) throws Exception {
+                        // the route runs on the I/O thread so blocking stalls it
+                        if ("Hello World".equals(exchange.getIn().getBody(String.class))) {
+                            Thread.sleep(600);
+                        }
+                        exchange.getOut().setBody("Bye World");
+                    }
+                });
+            }
+        };
+    }
+}
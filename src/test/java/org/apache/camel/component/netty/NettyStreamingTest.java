@@ -0,0 +1,151 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Properties;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.ResolveEndpointFailedException;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.netty.codec.ChunkedBodyInputStream;
+import org.apache.camel.impl.JndiRegistry;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class NettyStreamingTest extends BaseNettyTest {
+
+    private static final String URI = "netty:tcp://localhost:{{port}}?streaming=true&chunkSize=4096&streamingBufferSize=16384";
+    private static final String ECHO_URI = "netty:tcp://localhost:{{echoPort}}?streaming=true&chunkSize=4096&streamingBufferSize=16384";
+    private static final int SIZE = 1024 * 1024;
+
+    @Test
+    public void testStreamRequest() throws Exception {
+        String reply = template.requestBody(URI, new ByteArrayInputStream(createData(SIZE)), String.class);
+        assertEquals("Received " + SIZE + " bytes", reply);
+    }
+
+    @Test
+    public void testStreamReply() throws Exception {
+        InputStream reply = template.requestBody(URI, "reply", InputStream.class);
+        assertIsInstanceOf(ChunkedBodyInputStream.class, reply);
+
+        byte[] expected = createData(SIZE);
+        byte[] buffer = new byte[8192];
+        int total = 0;
+        int read;
+        while ((read = reply.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                assertEquals(expected[total + i], buffer[i]);
+            }
+            total += read;
+        }
+        reply.close();
+        assertEquals(SIZE, total);
+    }
+
+    @Test
+    public void testEchoStream() throws Exception {
+        // the received stream is written back while it is still being received
+        InputStream reply = template.requestBody(ECHO_URI, new ByteArrayInputStream(createData(SIZE)), InputStream.class);
+
+        byte[] expected = createData(SIZE);
+        byte[] buffer = new byte[8192];
+        int total = 0;
+        int read;
+        while ((read = reply.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                assertEquals(expected[total + i], buffer[i]);
+            }
+            total += read;
+        }
+        reply.close();
+        assertEquals(SIZE, total);
+    }
+
+    @Test
+    public void testEmptyStream() throws Exception {
+        String reply = template.requestBody(URI, new byte[0], String.class);
+        assertEquals("Received 0 bytes", reply);
+    }
+
+    @Test
+    public void testStreamingCannotBeCombinedWithTextline() throws Exception {
+        try {
+            context.getEndpoint("netty:tcp://localhost:{{port}}?streaming=true&textline=true");
+            fail("Should have thrown an exception");
+        } catch (ResolveEndpointFailedException e) {
+            assertIsInstanceOf(IllegalArgumentException.class, e.getCause());
+        }
+    }
+
+    private static byte[] createData(int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        return data;
+    }
+
+    @Override
+    protected JndiRegistry createRegistry() throws Exception {
+        JndiRegistry registry = super.createRegistry();
+        Properties prop = (Properties) registry.lookup("prop");
+        prop.setProperty("echoPort", "" + getNextPort());
+        return registry;
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from(URI)
+                    .process(new Processor() {
+                        public void process(Exchange exchange) throws Exception {
+                            InputStream in = exchange.getIn().getBody(InputStream.class);
+                            assertIsInstanceOf(ChunkedBodyInputStream.class, in);
+
+                            byte[] buffer = new byte[8192];
+                            int total = 0;
+                            int read;
+                            while ((read = in.read(buffer)) != -1) {
+                                total += read;
+                            }
+                            if (total == "reply".length()) {
+                                exchange.getOut().setBody(new ByteArrayInputStream(createData(SIZE)));
+                            } else {
+                                exchange.getOut().setBody("Received " + total + " bytes");
+                            }
+                        }
+                    });
+
+                from(ECHO_URI)
+                    .process(new Processor() {
+                        public void process(Exchange exchange) throws Exception {
+                            // reply with the stream as it is received
+                            exchange.getOut().setBody(exchange.getIn().getBody(InputStream.class));
+                        }
+                    });
+            }
+        };
+    }
+}
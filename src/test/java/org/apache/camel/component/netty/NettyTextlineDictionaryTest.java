@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.JndiRegistry;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class NettyTextlineDictionaryTest extends BaseNettyTest {
+
+    private static final String URI = "netty:tcp://localhost:{{port}}?textline=true&sync=true&textlineDictionarySample=target/textline-sample.txt";
+
+    @Override
+    protected JndiRegistry createRegistry() throws Exception {
+        // both sides train the same dictionary from the sample
+        FileOutputStream fos = new FileOutputStream(new File("target/textline-sample.txt"));
+        try {
+            for (int i = 0; i < 100; i++) {
+                fos.write(("level=INFO|logger=org.apache.camel|thread=worker-" + (i % 4) + "|message=Processed order " + i + "\n").getBytes());
+            }
+        } finally {
+            fos.close();
+        }
+        return super.createRegistry();
+    }
+
+    @Test
+    public void testTextlineWithDictionary() throws Exception {
+        getMockEndpoint("mock:result").expectedBodiesReceived("level=INFO|logger=org.apache.camel|thread=worker-1|message=Processed order 1234");
+
+        String reply = template.requestBody(URI, "level=INFO|logger=org.apache.camel|thread=worker-1|message=Processed order 1234", String.class);
+        assertEquals("level=DEBUG|logger=org.apache.camel|thread=worker-1|message=Processed order 1234", reply);
+
+        assertMockEndpointsSatisfied();
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from(URI)
+                    .to("mock:result")
+                    .transform(body().regexReplaceAll("INFO", "DEBUG"));
+            }
+        };
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty;
+
+import org.apache.camel.builder.RouteBuilder;
+import org.jboss.netty.channel.AdaptiveReceiveBufferSizePredictorFactory;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class NettyUDPAdaptiveReceiveBufferTest extends BaseNettyTest {
+
+    private static final String URI = "netty:udp://localhost:{{port}}?sync=false&textline=true"
+        + "&adaptiveReceiveBufferSizePredictor=true"
+        + "&receiveBufferSizePredictorMinimum=64&receiveBufferSizePredictorInitial=128";
+
+    @Test
+    public void testAdaptiveReceiveBufferSizePredictor() throws Exception {
+        getMockEndpoint("mock:result").expectedBodiesReceived("Hello World", "Bye World");
+
+        template.sendBody(URI, "Hello World");
+        template.sendBody(URI, "Bye World");
+
+        assertMockEndpointsSatisfied();
+
+        NettyConsumer consumer = (NettyConsumer) context.getRoutes().get(0).getConsumer();
+        Object factory = consumer.getConnectionlessServerBootstrap().getOption("receiveBufferSizePredictorFactory");
+        assertIsInstanceOf(AdaptiveReceiveBufferSizePredictorFactory.class, factory);
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from(URI).to("mock:result");
+            }
+        };
+    }
+}
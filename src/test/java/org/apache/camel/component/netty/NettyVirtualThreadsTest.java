@@ -0,0 +1,130 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.JndiRegistry;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class NettyVirtualThreadsTest extends BaseNettyTest {
+
+    private final Set<String> threadNames = new CopyOnWriteArraySet<String>();
+
+    @Override
+    protected JndiRegistry createRegistry() throws Exception {
+        JndiRegistry registry = super.createRegistry();
+        Properties prop = (Properties) registry.lookup("prop");
+        prop.setProperty("orderedPort", "" + getNextPort());
+        return registry;
+    }
+
+    @Test
+    public void testBlockingRoutes() throws Exception {
+        getMockEndpoint("mock:result").expectedMessageCount(20);
+
+        ExecutorService executor = Executors.newFixedThreadPool(20);
+        List<Future<String>> responses = new ArrayList<Future<String>>();
+        for (int i = 0; i < 20; i++) {
+            final int index = i;
+            responses.add(executor.submit(new Callable<String>() {
+                public String call() throws Exception {
+                    return template.requestBody("netty:tcp://localhost:{{port}}?textline=true&sync=true", "Hello " + index, String.class);
+                }
+            }));
+        }
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals("Bye Hello " + i, responses.get(i).get());
+        }
+        assertMockEndpointsSatisfied();
+        executor.shutdownNow();
+
+        // the blocking routes must not run on the I/O threads
+        for (String name : threadNames) {
+            assertFalse("Should not run on an I/O thread: " + name, name.contains("NettyTCPWorker"));
+        }
+    }
+
+    @Test
+    public void testOrderedExecution() throws Exception {
+        List<String> expected = new ArrayList<String>();
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            expected.add("Message " + i);
+            lines.append("Message ").append(i).append('\n');
+        }
+        getMockEndpoint("mock:ordered").expectedBodiesReceived(expected);
+
+        // all the messages are sent on the same connection
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress("localhost", Integer.parseInt(context.resolvePropertyPlaceholders("{{orderedPort}}"))));
+            OutputStream os = socket.getOutputStream();
+            os.write(lines.toString().getBytes());
+            os.flush();
+
+            assertMockEndpointsSatisfied();
+        } finally {
+            socket.close();
+        }
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("netty:tcp://localhost:{{port}}?textline=true&sync=true&virtualThreads=true&maxPoolSize=4")
+                    .process(new Processor() {
+                        public void process(Exchange exchange) throws Exception {
+                            threadNames.add(Thread.currentThread().getName());
+                            // a blocking call
+                            Thread.sleep(200);
+                            exchange.getOut().setBody("Bye " + exchange.getIn().getBody(String.class));
+                        }
+                    }).to("mock:result");
+
+                from("netty:tcp://localhost:{{orderedPort}}?textline=true&sync=false&virtualThreads=true&orderedExecution=true")
+                    .process(new Processor() {
+                        public void process(Exchange exchange) throws Exception {
+                            // the earlier messages wait longer so they would arrive last if not ordered
+                            String body = exchange.getIn().getBody(String.class);
+                            Thread.sleep(100 - 10 * Integer.parseInt(body.substring(body.length() - 1)));
+                        }
+                    }).to("mock:ordered");
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty;
+
+import java.io.File;
+
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.netty.metrics.WireTracer;
+import org.apache.camel.converter.IOConverter;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class NettyWireTracerTest extends BaseNettyTest {
+
+    private static final String URI = "netty:tcp://localhost:{{port}}?textline=true&sync=true&wireTraceSize=4&wireTraceBytes=8";
+
+    @Test
+    public void testDump() throws Exception {
+        assertEquals("Bye World", template.requestBody(URI, "Hello World", String.class));
+
+        // the consumer and producer share the endpoint so both sides are recorded
+        WireTracer tracer = context.getEndpoint(URI, NettyEndpoint.class).getWireTracer();
+        assertEquals(4, tracer.getRecorded());
+
+        String[] lines = tracer.dump().split("\n");
+        assertEquals(4, lines.length);
+        // the request written by the producer and read by the consumer
+        assertTrue(lines[0], lines[0].contains("] OUT 12 bytes: 48 65 6c 6c 6f 20 57 6f |Hello Wo|"));
+        assertTrue(lines[1], lines[1].contains("] IN  12 bytes: 48 65 6c 6c 6f 20 57 6f |Hello Wo|"));
+        assertTrue(lines[2], lines[2].contains("] OUT 10 bytes:"));
+        assertTrue(lines[3], lines[3].endsWith("] IN  10 bytes: 42 79 65 20 57 6f 72 6c |Bye Worl|"));
+    }
+
+    @Test
+    public void testRingBufferWraps() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("Bye World", template.requestBody(URI, "Hello " + i, String.class));
+        }
+
+        WireTracer tracer = context.getEndpoint(URI, NettyEndpoint.class).getWireTracer();
+        assertEquals(12, tracer.getRecorded());
+
+        // only the last request and reply are kept
+        String dump = tracer.dump();
+        assertEquals(4, dump.split("\n").length);
+        assertTrue(dump, dump.contains("|Hello 2"));
+        assertFalse(dump, dump.contains("|Hello 1"));
+    }
+
+    @Test
+    public void testDumpToFile() throws Exception {
+        assertEquals("Bye World", template.requestBody(URI, "Hello World", String.class));
+
+        File file = new File("target/wiretrace/dump.txt");
+        file.delete();
+        file.getParentFile().mkdirs();
+        WireTracer tracer = context.getEndpoint(URI, NettyEndpoint.class).getWireTracer();
+        tracer.dumpToFile(file.getPath());
+
+        assertEquals(tracer.dump(), IOConverter.toString(file, null));
+    }
+
+    @Test
+    public void testRecordsMustFitInBuffer() throws Exception {
+        try {
+            new WireTracer(Integer.MAX_VALUE / 16, 32);
+            fail("Should have thrown an exception");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from(URI).transform(constant("Bye World"));
+            }
+        };
+    }
+}
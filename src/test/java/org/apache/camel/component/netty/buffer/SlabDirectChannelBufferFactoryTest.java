@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.buffer;
+
+import java.nio.ByteOrder;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.util.CharsetUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class SlabDirectChannelBufferFactoryTest extends Assert {
+
+    private final SlabDirectChannelBufferFactory factory = new SlabDirectChannelBufferFactory(ByteOrder.BIG_ENDIAN, 65536);
+
+    @Test
+    public void testGetBuffer() {
+        ChannelBuffer buffer = factory.getBuffer(100);
+        assertTrue(buffer.isDirect());
+        assertEquals(100, buffer.capacity());
+        assertEquals(0, buffer.readableBytes());
+
+        buffer.writeInt(42);
+        assertEquals(42, buffer.readInt());
+    }
+
+    @Test
+    public void testSegmentsDoNotOverlap() {
+        ChannelBuffer first = factory.getBuffer(64);
+        ChannelBuffer second = factory.getBuffer(64);
+        first.writeBytes(new byte[64]);
+        for (int i = 0; i < 64; i++) {
+            second.writeByte(0xFF);
+        }
+
+        for (int i = 0; i < 64; i++) {
+            assertEquals(0, first.getByte(i));
+        }
+    }
+
+    @Test
+    public void testSlabIsReplacedWhenExhausted() {
+        // a 64kb slab holds exactly one buffer of the largest size class
+        ChannelBuffer first = factory.getBuffer(65536);
+        ChannelBuffer second = factory.getBuffer(65536);
+        first.writeInt(1);
+        second.writeInt(2);
+        assertEquals(1, first.getInt(0));
+        assertEquals(2, second.getInt(0));
+    }
+
+    @Test
+    public void testLargeAndEmptyBuffers() {
+        assertTrue(factory.getBuffer(100000).isDirect());
+        assertSame(ChannelBuffers.EMPTY_BUFFER, factory.getBuffer(0));
+    }
+
+    @Test
+    public void testCopyFromArray() {
+        ChannelBuffer buffer = factory.getBuffer(ByteOrder.BIG_ENDIAN, "Hello World".getBytes(), 6, 5);
+        assertEquals(5, buffer.readableBytes());
+        assertEquals("World", buffer.toString(CharsetUtil.US_ASCII));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSlabTooSmall() {
+        new SlabDirectChannelBufferFactory(ByteOrder.BIG_ENDIAN, 1024);
+    }
+}
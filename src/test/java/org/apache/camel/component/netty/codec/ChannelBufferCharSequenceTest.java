@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.handler.codec.embedder.EncoderEmbedder;
+import org.jboss.netty.util.CharsetUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class ChannelBufferCharSequenceTest extends Assert {
+
+    @Test
+    public void testAsciiView() {
+        ChannelBuffer buffer = ChannelBuffers.copiedBuffer("Hello Camel", CharsetUtil.UTF_8);
+        ChannelBufferCharSequence text = new ChannelBufferCharSequence(buffer, CharsetUtil.UTF_8);
+
+        assertEquals(11, text.length());
+        assertEquals('C', text.charAt(6));
+        CharSequence camel = text.subSequence(6, 11);
+        assertTrue("Should be a view of the same buffer", camel instanceof ChannelBufferCharSequence);
+        assertEquals("Camel", camel.toString());
+        assertSame(text.toString(), text.toString());
+
+        // the characters are read from the buffer
+        buffer.setByte(0, 'J');
+        assertEquals('J', text.charAt(0));
+    }
+
+    @Test
+    public void testMultiByteDecoded() {
+        String s = "Gr\u00fc\u00dfe \u20ac";
+        ChannelBufferCharSequence text = new ChannelBufferCharSequence(ChannelBuffers.copiedBuffer(s, CharsetUtil.UTF_8), CharsetUtil.UTF_8);
+
+        assertEquals(s.length(), text.length());
+        assertEquals('\u00fc', text.charAt(2));
+        assertEquals("\u20ac", text.subSequence(6, 7).toString());
+        assertEquals(s, text.toString());
+    }
+
+    @Test
+    public void testIsoLatin() {
+        ChannelBuffer buffer = ChannelBuffers.copiedBuffer("Gr\u00fc\u00dfe", CharsetUtil.ISO_8859_1);
+        ChannelBufferCharSequence text = new ChannelBufferCharSequence(buffer, CharsetUtil.ISO_8859_1);
+
+        assertEquals(5, text.length());
+        assertEquals('\u00df', text.charAt(3));
+    }
+
+    @Test
+    public void testEncoderWritesBytesAsIs() {
+        EncoderEmbedder<ChannelBuffer> encoder = new EncoderEmbedder<ChannelBuffer>(new TextlineEncoder(CharsetUtil.UTF_8, "\n", true));
+        ChannelBuffer buffer = ChannelBuffers.copiedBuffer("Gr\u00fc\u00dfe", CharsetUtil.UTF_8);
+
+        encoder.offer(new ChannelBufferCharSequence(buffer, CharsetUtil.UTF_8));
+        assertEquals("Gr\u00fc\u00dfe\n", encoder.poll().toString(CharsetUtil.UTF_8));
+
+        // a different charset is encoded again
+        encoder.offer(new ChannelBufferCharSequence(ChannelBuffers.copiedBuffer("Gr\u00fc\u00dfe", CharsetUtil.ISO_8859_1), CharsetUtil.ISO_8859_1));
+        assertEquals("Gr\u00fc\u00dfe\n", encoder.poll().toString(CharsetUtil.UTF_8));
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.impl.DefaultExchange;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.handler.codec.embedder.CodecEmbedderException;
+import org.jboss.netty.handler.codec.embedder.DecoderEmbedder;
+import org.jboss.netty.handler.codec.embedder.EncoderEmbedder;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class CompactExchangeHeaderTableTest extends Assert {
+
+    private final DefaultCamelContext context = new DefaultCamelContext();
+    private final CompactObjectCodec codec = new CompactObjectCodec(new CompactClassRegistry());
+
+    @Test
+    public void testRepeatedHeadersAreIndexed() throws Exception {
+        EncoderEmbedder<ChannelBuffer> encoder = new EncoderEmbedder<ChannelBuffer>(new CompactExchangeEncoder(codec, 64));
+        DecoderEmbedder<Object> decoder = new DecoderEmbedder<Object>(new CompactExchangeDecoder(codec, 64));
+
+        int first = 0;
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> headers = new HashMap<String, Object>();
+            headers.put("customerName", "Camel Riders Inc.");
+            headers.put("customerRegion", "north-west");
+            headers.put("priority", 5);
+            headers.put("sequence", i);
+
+            ChannelBuffer frame = encode(encoder, headers);
+            if (i == 0) {
+                first = frame.readableBytes();
+            } else {
+                assertTrue("Repeated headers should be smaller: " + frame.readableBytes() + " vs " + first, frame.readableBytes() < first / 2);
+            }
+            assertEquals(headers, decode(decoder, frame));
+        }
+    }
+
+    @Test
+    public void testEvictionKeepsTablesInStep() throws Exception {
+        EncoderEmbedder<ChannelBuffer> encoder = new EncoderEmbedder<ChannelBuffer>(new CompactExchangeEncoder(codec, 2));
+        DecoderEmbedder<Object> decoder = new DecoderEmbedder<Object>(new CompactExchangeDecoder(codec, 2));
+
+        String[] names = {"a", "b", "c", "a", "c", "c", "b", "a"};
+        for (int i = 0; i < names.length; i++) {
+            Map<String, Object> headers = new HashMap<String, Object>();
+            headers.put(names[i], i % 3 == 0 ? "x" : "y");
+            headers.put("b", "y");
+            assertEquals(headers, decode(decoder, encode(encoder, headers)));
+        }
+    }
+
+    @Test
+    public void testDecoderWithoutTable() throws Exception {
+        EncoderEmbedder<ChannelBuffer> encoder = new EncoderEmbedder<ChannelBuffer>(new CompactExchangeEncoder(codec, 16));
+        DecoderEmbedder<Object> decoder = new DecoderEmbedder<Object>(new CompactObjectDecoder(codec));
+
+        Map<String, Object> headers = new HashMap<String, Object>();
+        headers.put("foo", "bar");
+        try {
+            decoder.offer(encode(encoder, headers));
+            fail("Should have thrown an exception");
+        } catch (CodecEmbedderException e) {
+            // expected
+        }
+    }
+
+    private ChannelBuffer encode(EncoderEmbedder<ChannelBuffer> encoder, Map<String, Object> headers) {
+        Exchange exchange = new DefaultExchange(context);
+        exchange.setExchangeId("ID-1");
+        exchange.getIn().setBody("Hello");
+        exchange.getIn().setHeaders(headers);
+        encoder.offer(CompactExchangeHolder.marshal(exchange));
+        return encoder.poll();
+    }
+
+    private Map<String, Object> decode(DecoderEmbedder<Object> decoder, ChannelBuffer frame) {
+        decoder.offer(frame);
+        CompactExchangeHolder holder = (CompactExchangeHolder) decoder.poll();
+        assertEquals("Hello", holder.getInBody());
+        return holder.getInHeaders();
+    }
+}
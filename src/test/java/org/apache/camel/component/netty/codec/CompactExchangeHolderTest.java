@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.io.StreamCorruptedException;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.impl.DefaultExchange;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class CompactExchangeHolderTest extends Assert {
+
+    private final DefaultCamelContext context = new DefaultCamelContext();
+    private final CompactObjectCodec codec = new CompactObjectCodec(new CompactClassRegistry());
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getIn().setBody("Hello");
+        exchange.getIn().setHeader("breadcrumbId", "abc");
+        exchange.getIn().setHeader("count", 3);
+        exchange.getIn().setHeader("threads", Thread.currentThread());
+        exchange.getOut().setBody(42L);
+        exchange.getOut().setHeader("cheese", "gouda");
+        exchange.getOut().setFault(true);
+        exchange.setProperty("ham", "old");
+        exchange.setException(new IllegalArgumentException("Damn"));
+
+        Exchange answer = new DefaultExchange(context);
+        CompactExchangeHolder.unmarshal(answer, (CompactExchangeHolder) roundTrip(CompactExchangeHolder.marshal(exchange)));
+
+        assertEquals(exchange.getExchangeId(), answer.getExchangeId());
+        assertEquals("Hello", answer.getIn().getBody());
+        assertEquals("abc", answer.getIn().getHeader("breadcrumbId"));
+        assertEquals(3, answer.getIn().getHeader("count"));
+        assertFalse("Should not transfer non serializable headers", answer.getIn().getHeaders().containsKey("threads"));
+        assertFalse(answer.getIn().isFault());
+        assertEquals(42L, answer.getOut().getBody());
+        assertEquals("gouda", answer.getOut().getHeader("cheese"));
+        assertTrue(answer.getOut().isFault());
+        assertEquals("old", answer.getProperty("ham"));
+        assertEquals("Damn", answer.getException().getMessage());
+    }
+
+    @Test
+    public void testWithoutOut() throws Exception {
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getIn().setBody("Hello");
+
+        Exchange answer = new DefaultExchange(context);
+        CompactExchangeHolder.unmarshal(answer, (CompactExchangeHolder) roundTrip(CompactExchangeHolder.marshal(exchange)));
+
+        assertEquals("Hello", answer.getIn().getBody());
+        assertFalse(answer.hasOut());
+        assertNull(answer.getException());
+    }
+
+    @Test
+    public void testWellKnownHeaderNamesAreIndexed() throws Exception {
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getIn().setHeader("breadcrumbId", "x");
+        ChannelBuffer known = ChannelBuffers.dynamicBuffer();
+        codec.writeObject(known, CompactExchangeHolder.marshal(exchange));
+
+        exchange.getIn().removeHeader("breadcrumbId");
+        exchange.getIn().setHeader("breadcrumbIdentifier", "x");
+        ChannelBuffer unknown = ChannelBuffers.dynamicBuffer();
+        codec.writeObject(unknown, CompactExchangeHolder.marshal(exchange));
+
+        assertEquals("breadcrumbIdentifier".length() + 1, unknown.readableBytes() - known.readableBytes());
+    }
+
+    @Test
+    public void testUnsupportedVersion() throws Exception {
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+        codec.writeObject(buffer, CompactExchangeHolder.marshal(new DefaultExchange(context)));
+        buffer.setByte(1, CompactExchangeHolder.VERSION + 1);
+        try {
+            codec.readObject(buffer);
+            fail("Should have thrown an exception");
+        } catch (StreamCorruptedException e) {
+            // expected
+        }
+    }
+
+    private Object roundTrip(Object value) throws Exception {
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+        codec.writeObject(buffer, value);
+        Object answer = codec.readObject(buffer);
+        assertFalse(buffer.readable());
+        return answer;
+    }
+}
@@ -0,0 +1,218 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.handler.codec.frame.CorruptedFrameException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class CompactObjectCodecTest extends Assert {
+
+    private final CompactClassRegistry registry = new CompactClassRegistry();
+    private final CompactObjectCodec codec = new CompactObjectCodec(registry);
+
+    @Test
+    public void testPrimitivesAndStrings() throws Exception {
+        Object[] values = {null, true, false, (byte) -1, (short) 300, 0, -1, Integer.MAX_VALUE, Integer.MIN_VALUE,
+            Long.MIN_VALUE, 12345678901L, 1.5f, Math.PI, 'x', "", "Hello Wörld € 😀"};
+        for (Object value : values) {
+            assertEquals(value, roundTrip(value));
+        }
+    }
+
+    @Test
+    public void testSmallIntegersAreCompact() throws Exception {
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+        codec.writeObject(buffer, 42);
+        assertEquals(2, buffer.readableBytes());
+    }
+
+    @Test
+    public void testUnpairedSurrogate() throws Exception {
+        assertEquals("a?b", roundTrip("a\uD800b"));
+    }
+
+    @Test
+    public void testBytes() throws Exception {
+        byte[] bytes = {1, 2, 3};
+        assertArrayEquals(bytes, (byte[]) roundTrip(bytes));
+    }
+
+    @Test
+    public void testCollections() throws Exception {
+        List<Object> list = new ArrayList<Object>();
+        list.add("foo");
+        list.add(123);
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        map.put("b", list);
+        map.put("a", new HashMap<String, Object>());
+
+        Object answer = roundTrip(map);
+        assertIsInstanceOf(LinkedHashMap.class, answer);
+        assertEquals(map, answer);
+        assertEquals("b", ((Map<?, ?>) answer).keySet().iterator().next());
+    }
+
+    @Test
+    public void testSerializableFallback() throws Exception {
+        Date date = new Date();
+        assertEquals(date, roundTrip(date));
+
+        Person person = new Person("Claus", 40);
+        Person answer = (Person) roundTrip(person);
+        assertEquals("Claus", answer.name);
+        assertEquals(40, answer.age);
+    }
+
+    @Test
+    public void testRegisteredClassIsSmallerThanJavaSerialization() throws Exception {
+        Person person = new Person("Claus", 40);
+        ChannelBuffer unregistered = ChannelBuffers.dynamicBuffer();
+        codec.writeObject(unregistered, person);
+
+        registry.register(Person.class);
+        ChannelBuffer registered = ChannelBuffers.dynamicBuffer();
+        codec.writeObject(registered, person);
+        assertTrue(registered.readableBytes() < unregistered.readableBytes());
+        assertEquals("Claus", ((Person) codec.readObject(registered)).name);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(bos);
+        oos.writeObject(person);
+        oos.close();
+        assertTrue(unregistered.readableBytes() < bos.size());
+    }
+
+    @Test
+    public void testRegisteredSerializer() throws Exception {
+        registry.register(Person.class, new CompactSerializer<Person>() {
+            public void write(ChannelBuffer buffer, Person value, CompactObjectCodec codec) throws Exception {
+                CompactObjectCodec.writeString(buffer, value.name);
+                buffer.writeByte(value.age);
+            }
+
+            public Person read(ChannelBuffer buffer, CompactObjectCodec codec) throws Exception {
+                return new Person(CompactObjectCodec.readString(buffer), buffer.readByte());
+            }
+        });
+
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+        List<Object> list = new ArrayList<Object>();
+        list.add(new Person("Claus", 40));
+        list.add("end");
+        codec.writeObject(buffer, list);
+        // tag, size, then tag, id, string length, 5 chars, age, then tag, length and 3 chars
+        assertEquals(16, buffer.readableBytes());
+
+        List<?> answer = (List<?>) codec.readObject(buffer);
+        assertEquals("Claus", ((Person) answer.get(0)).name);
+        assertEquals("end", answer.get(1));
+        assertFalse(buffer.readable());
+    }
+
+    @Test
+    public void testRegisterByClassName() throws Exception {
+        List<String> names = new ArrayList<String>();
+        names.add(Person.class.getName());
+        names.add("java.util.Date");
+        registry.setClassNames(names);
+
+        assertEquals(0, registry.getId(Person.class));
+        assertEquals(1, registry.getId(Date.class));
+        assertEquals(-1, registry.getId(String.class));
+        assertEquals(names, registry.getClassNames());
+    }
+
+    @Test
+    public void testNestingLimit() throws Exception {
+        List<Object> list = new ArrayList<Object>();
+        for (int i = 1; i < CompactObjectCodec.MAX_DEPTH; i++) {
+            List<Object> outer = new ArrayList<Object>();
+            outer.add(list);
+            list = outer;
+        }
+        assertEquals(list, roundTrip(list));
+
+        // a frame of nested list tags, each holding a single element
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+        for (int i = 0; i <= CompactObjectCodec.MAX_DEPTH; i++) {
+            buffer.writeByte(CompactObjectCodec.LIST);
+            buffer.writeByte(1);
+        }
+        buffer.writeByte(CompactObjectCodec.NULL);
+        try {
+            codec.readObject(buffer);
+            fail("Should have thrown an exception");
+        } catch (CorruptedFrameException e) {
+            // expected
+        }
+
+        // the depth is reset after the failure
+        assertEquals(list, roundTrip(list));
+    }
+
+    @Test
+    public void testTrailingBytesAreRejected() throws Exception {
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+        codec.writeObject(buffer, "Hello");
+        buffer.writeByte(0);
+        try {
+            new CompactObjectDecoder(codec).decode(null, null, buffer);
+            fail("Should have thrown an exception");
+        } catch (CorruptedFrameException e) {
+            // expected
+        }
+    }
+
+    private Object roundTrip(Object value) throws Exception {
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+        codec.writeObject(buffer, value);
+        Object answer = codec.readObject(buffer);
+        assertFalse("All bytes should be read", buffer.readable());
+        return answer;
+    }
+
+    private static void assertIsInstanceOf(Class<?> type, Object value) {
+        assertTrue("Expected " + type + " but was " + value, type.isInstance(value));
+    }
+
+    public static class Person implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final String name;
+        private final int age;
+
+        public Person(String name, int age) {
+            this.name = name;
+            this.age = age;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.util.Random;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.handler.codec.embedder.CodecEmbedderException;
+import org.jboss.netty.handler.codec.embedder.DecoderEmbedder;
+import org.jboss.netty.handler.codec.embedder.EncoderEmbedder;
+import org.jboss.netty.handler.codec.frame.TooLongFrameException;
+import org.jboss.netty.util.CharsetUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class DeflateFrameCodecTest extends Assert {
+
+    private static final String JSON = "{\"id\": 1, \"name\": \"camel\", \"tags\": [\"netty\", \"camel\", \"netty\", \"camel\"]}";
+
+    @Test
+    public void testCompressedRoundTrip() {
+        EncoderEmbedder<ChannelBuffer> encoder = new EncoderEmbedder<ChannelBuffer>(new DeflateFrameEncoder(-1, 64));
+        DecoderEmbedder<ChannelBuffer> decoder = new DecoderEmbedder<ChannelBuffer>(new DeflateFrameDecoder(1024 * 1024));
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append(JSON).append('\n');
+        }
+        String text = sb.toString();
+
+        // the same encoder is used for several messages
+        for (int i = 0; i < 3; i++) {
+            encoder.offer(ChannelBuffers.copiedBuffer(text, CharsetUtil.UTF_8));
+            ChannelBuffer frame = encoder.poll();
+            assertEquals(DeflateFrameEncoder.DEFLATED, frame.getByte(0));
+            assertTrue("Should be compressed: " + frame.readableBytes(), frame.readableBytes() < text.length() / 5);
+
+            decoder.offer(frame);
+            assertEquals(text, decoder.poll().toString(CharsetUtil.UTF_8));
+        }
+    }
+
+    @Test
+    public void testBelowThresholdIsStored() {
+        EncoderEmbedder<ChannelBuffer> encoder = new EncoderEmbedder<ChannelBuffer>(new DeflateFrameEncoder(9, 1024));
+        DecoderEmbedder<ChannelBuffer> decoder = new DecoderEmbedder<ChannelBuffer>(new DeflateFrameDecoder(1024));
+
+        encoder.offer(ChannelBuffers.copiedBuffer(JSON, CharsetUtil.UTF_8));
+        ChannelBuffer frame = encoder.poll();
+        assertEquals(DeflateFrameEncoder.STORED, frame.getByte(0));
+        assertEquals(5 + JSON.length(), frame.readableBytes());
+
+        // the frame may arrive in pieces
+        decoder.offer(frame.readBytes(3));
+        assertNull(decoder.poll());
+        decoder.offer(frame);
+        assertEquals(JSON, decoder.poll().toString(CharsetUtil.UTF_8));
+    }
+
+    @Test
+    public void testIncompressibleIsStored() {
+        EncoderEmbedder<ChannelBuffer> encoder = new EncoderEmbedder<ChannelBuffer>(new DeflateFrameEncoder(-1, 0));
+        byte[] random = new byte[256];
+        new Random(42).nextBytes(random);
+
+        encoder.offer(ChannelBuffers.wrappedBuffer(random));
+        assertEquals(DeflateFrameEncoder.STORED, encoder.poll().getByte(0));
+    }
+
+    @Test
+    public void testInflatedLengthIsLimited() {
+        EncoderEmbedder<ChannelBuffer> encoder = new EncoderEmbedder<ChannelBuffer>(new DeflateFrameEncoder(-1, 0));
+        DecoderEmbedder<ChannelBuffer> decoder = new DecoderEmbedder<ChannelBuffer>(new DeflateFrameDecoder(1024));
+
+        encoder.offer(ChannelBuffers.wrappedBuffer(new byte[1024 * 1024]));
+        try {
+            decoder.offer(encoder.poll());
+            fail("Should have thrown an exception");
+        } catch (CodecEmbedderException e) {
+            assertTrue(e.getCause() instanceof TooLongFrameException);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.io.File;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.handler.codec.embedder.CodecEmbedderException;
+import org.jboss.netty.handler.codec.embedder.DecoderEmbedder;
+import org.jboss.netty.handler.codec.embedder.EncoderEmbedder;
+import org.jboss.netty.handler.codec.frame.TooLongFrameException;
+import org.jboss.netty.util.CharsetUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class LengthFieldPrependedFrameCodecTest extends Assert {
+
+    @Test
+    public void testEncodeFixedLength() {
+        EncoderEmbedder<ChannelBuffer> encoder = new EncoderEmbedder<ChannelBuffer>(new LengthFieldPrependedFrameEncoder(0, 2, 0));
+        encoder.offer(ChannelBuffers.copiedBuffer("Hello", CharsetUtil.US_ASCII));
+
+        ChannelBuffer frame = encoder.poll();
+        assertEquals(7, frame.readableBytes());
+        assertEquals(5, frame.readUnsignedShort());
+        assertEquals("Hello", frame.toString(CharsetUtil.US_ASCII));
+    }
+
+    @Test
+    public void testEncodeVarintWithOffsetAndAdjustment() {
+        EncoderEmbedder<ChannelBuffer> encoder = new EncoderEmbedder<ChannelBuffer>(new LengthFieldPrependedFrameEncoder(1, 0, -1));
+        byte[] body = new byte[301];
+        body[0] = 7;
+        encoder.offer(body);
+
+        ChannelBuffer frame = encoder.poll();
+        assertEquals(7, frame.readByte());
+        // 300 bytes follow the field, plus the adjustment of 1 = 301 which is 0xAD 0x02 as varint
+        assertEquals((byte) 0xAD, frame.readByte());
+        assertEquals(0x02, frame.readByte());
+        assertEquals(300, frame.readableBytes());
+    }
+
+    @Test
+    public void testRoundTripReceivedByteByByte() {
+        EncoderEmbedder<ChannelBuffer> encoder = new EncoderEmbedder<ChannelBuffer>(new LengthFieldPrependedFrameEncoder(1, 0, 0));
+        encoder.offer(ChannelBuffers.copiedBuffer("AHello", CharsetUtil.US_ASCII));
+        encoder.offer(ChannelBuffers.copiedBuffer("BWorld", CharsetUtil.US_ASCII));
+        ChannelBuffer wire = ChannelBuffers.wrappedBuffer(encoder.poll(), encoder.poll());
+
+        DecoderEmbedder<ChannelBuffer> decoder = new DecoderEmbedder<ChannelBuffer>(new LengthFieldPrependedFrameDecoder(1024, 1, 0, 0));
+        while (wire.readable()) {
+            decoder.offer(wire.readBytes(1));
+        }
+
+        assertEquals("AHello", decoder.poll().toString(CharsetUtil.US_ASCII));
+        assertEquals("BWorld", decoder.poll().toString(CharsetUtil.US_ASCII));
+        assertNull(decoder.poll());
+    }
+
+    @Test
+    public void testDecodeFramesAreSlices() {
+        ChannelBuffer wire = ChannelBuffers.buffer(14);
+        wire.writeInt(3);
+        wire.writeBytes("Foo".getBytes());
+        wire.writeInt(3);
+        wire.writeBytes("Bar".getBytes());
+
+        DecoderEmbedder<ChannelBuffer> decoder = new DecoderEmbedder<ChannelBuffer>(new LengthFieldPrependedFrameDecoder(1024, 0, 4, 0));
+        decoder.offer(wire);
+
+        ChannelBuffer foo = decoder.poll();
+        assertEquals("Foo", foo.toString(CharsetUtil.US_ASCII));
+        assertSame(wire.array(), foo.array());
+        assertEquals("Bar", decoder.poll().toString(CharsetUtil.US_ASCII));
+    }
+
+    @Test
+    public void testDecodeTooLongFrame() {
+        ChannelBuffer wire = ChannelBuffers.buffer(20);
+        wire.writeShort(10);
+        wire.writeBytes(new byte[10]);
+        wire.writeShort(2);
+        wire.writeBytes("OK".getBytes());
+
+        DecoderEmbedder<ChannelBuffer> decoder = new DecoderEmbedder<ChannelBuffer>(new LengthFieldPrependedFrameDecoder(8, 0, 2, 0));
+        try {
+            decoder.offer(wire.readBytes(6));
+            fail("Should have thrown an exception");
+        } catch (CodecEmbedderException e) {
+            assertIsInstanceOf(TooLongFrameException.class, e.getCause());
+        }
+        // the rest of the too long frame is discarded
+        decoder.offer(wire);
+        assertEquals("OK", decoder.poll().toString(CharsetUtil.US_ASCII));
+    }
+
+    @Test
+    public void testDecodeSpilledFrame() {
+        File directory = new File("target/spill");
+        directory.mkdirs();
+        ChannelBuffer wire = ChannelBuffers.buffer(1 + 2 + 100 + 1 + 2 + 2);
+        wire.writeByte('#');
+        wire.writeShort(100);
+        for (int i = 0; i < 100; i++) {
+            wire.writeByte(i);
+        }
+        wire.writeByte('#');
+        wire.writeShort(2);
+        wire.writeBytes("OK".getBytes());
+
+        DecoderEmbedder<ChannelBuffer> decoder = new DecoderEmbedder<ChannelBuffer>(new LengthFieldPrependedFrameDecoder(1024, 1, 2, 0, 16, directory));
+        // the long frame arrives in pieces and is received into a file
+        decoder.offer(wire.readBytes(10));
+        assertNull(decoder.poll());
+        assertEquals(1, directory.list().length);
+        decoder.offer(wire.readBytes(50));
+        assertNull(decoder.poll());
+        decoder.offer(wire);
+
+        ChannelBuffer frame = decoder.poll();
+        assertEquals(101, frame.readableBytes());
+        assertEquals('#', frame.readByte());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, frame.readByte());
+        }
+        // the short frame in the same read is not spilled
+        assertEquals("#OK", decoder.poll().toString(CharsetUtil.US_ASCII));
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLengthFieldLength() {
+        new LengthFieldPrependedFrameEncoder(0, 3, 0);
+    }
+
+    private static void assertIsInstanceOf(Class<?> type, Object value) {
+        assertTrue("Expected " + type + " but was " + value, type.isInstance(value));
+    }
+}
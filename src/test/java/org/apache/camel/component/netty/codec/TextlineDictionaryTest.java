@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.handler.codec.embedder.DecoderEmbedder;
+import org.jboss.netty.handler.codec.embedder.EncoderEmbedder;
+import org.jboss.netty.util.CharsetUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class TextlineDictionaryTest extends Assert {
+
+    @Test
+    public void testTrainIsDeterministic() {
+        List<String> sample = createSample(200);
+        byte[] dictionary = TextlineDictionary.train(sample, CharsetUtil.UTF_8, 1024);
+        assertTrue(dictionary.length > 0);
+        assertTrue(dictionary.length <= 1024);
+        assertArrayEquals(dictionary, TextlineDictionary.train(createSample(200), CharsetUtil.UTF_8, 1024));
+
+        String text = new String(dictionary, CharsetUtil.UTF_8);
+        assertTrue("Should contain a frequent token: " + text, text.contains("8=FIX.4.2|"));
+    }
+
+    @Test
+    public void testShortLinesCompressWithDictionary() {
+        byte[] dictionary = TextlineDictionary.train(createSample(200), CharsetUtil.UTF_8, 4096);
+        String line = "8=FIX.4.2|35=D|49=CAMEL|56=NETTY|11=ORD1234|55=IBM|54=1|38=100|40=2|44=123.45|10=000\n";
+
+        EncoderEmbedder<ChannelBuffer> plain = new EncoderEmbedder<ChannelBuffer>(new DeflateFrameEncoder(-1, 0));
+        plain.offer(ChannelBuffers.copiedBuffer(line, CharsetUtil.UTF_8));
+        int plainLength = plain.poll().readableBytes();
+
+        EncoderEmbedder<ChannelBuffer> encoder = new EncoderEmbedder<ChannelBuffer>(new DeflateFrameEncoder(-1, 0, dictionary));
+        DecoderEmbedder<ChannelBuffer> decoder = new DecoderEmbedder<ChannelBuffer>(new DeflateFrameDecoder(1024, dictionary));
+        for (int i = 0; i < 3; i++) {
+            encoder.offer(ChannelBuffers.copiedBuffer(line, CharsetUtil.UTF_8));
+            ChannelBuffer frame = encoder.poll();
+            assertEquals(DeflateFrameEncoder.DEFLATED, frame.getByte(0));
+            assertTrue("Should be smaller with the dictionary: " + frame.readableBytes() + " vs " + plainLength,
+                frame.readableBytes() < plainLength / 2);
+
+            decoder.offer(frame);
+            assertEquals(line, decoder.poll().toString(CharsetUtil.UTF_8));
+        }
+    }
+
+    static List<String> createSample(int count) {
+        List<String> lines = new ArrayList<String>();
+        String[] symbols = {"IBM", "MSFT", "ORCL", "AAPL"};
+        for (int i = 0; i < count; i++) {
+            lines.add("8=FIX.4.2|35=D|49=CAMEL|56=NETTY|11=ORD" + (1000 + i) + "|55=" + symbols[i % symbols.length]
+                + "|54=" + (i % 2 + 1) + "|38=100|40=2|44=" + (100 + i % 50) + ".45|10=000");
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.nio.charset.Charset;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.handler.codec.embedder.EncoderEmbedder;
+import org.jboss.netty.util.CharsetUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class TextlineEncoderTest extends Assert {
+
+    private static final String TEXT = "Hello W\u00f6rld \u20ac \ud83d\ude00 and an unpaired \ud83d surrogate";
+
+    @Test
+    public void testEncodeSameAsString() {
+        for (String name : new String[]{"UTF-8", "US-ASCII", "ISO-8859-1", "UTF-16BE", "windows-1252"}) {
+            Charset charset = Charset.forName(name);
+            EncoderEmbedder<ChannelBuffer> encoder = new EncoderEmbedder<ChannelBuffer>(new TextlineEncoder(charset, "\n", true));
+            encoder.offer(TEXT);
+            assertEquals("Encoding with " + name, ChannelBuffers.wrappedBuffer((TEXT + "\n").getBytes(charset)), encoder.poll());
+        }
+    }
+
+    @Test
+    public void testDelimiterAppendedOnlyWhenMissing() {
+        EncoderEmbedder<ChannelBuffer> encoder = new EncoderEmbedder<ChannelBuffer>(new TextlineEncoder(CharsetUtil.UTF_8, "\r\n\r\n", true));
+
+        encoder.offer(new StringBuilder("Hello World"));
+        assertEquals("Hello World\r\n\r\n", encoder.poll().toString(CharsetUtil.UTF_8));
+
+        encoder.offer("Hello World\r\n\r\n");
+        assertEquals("Hello World\r\n\r\n", encoder.poll().toString(CharsetUtil.UTF_8));
+
+        encoder.offer("");
+        assertEquals("\r\n\r\n", encoder.poll().toString(CharsetUtil.UTF_8));
+    }
+
+    @Test
+    public void testNoAutoAppendDelimiter() {
+        EncoderEmbedder<ChannelBuffer> encoder = new EncoderEmbedder<ChannelBuffer>(new TextlineEncoder(CharsetUtil.UTF_8, "\n", false));
+
+        encoder.offer("Hello World");
+        assertEquals("Hello World", encoder.poll().toString(CharsetUtil.UTF_8));
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.codec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.handler.codec.embedder.CodecEmbedderException;
+import org.jboss.netty.handler.codec.embedder.DecoderEmbedder;
+import org.jboss.netty.handler.codec.frame.DelimiterBasedFrameDecoder;
+import org.jboss.netty.handler.codec.frame.Delimiters;
+import org.jboss.netty.handler.codec.frame.TooLongFrameException;
+import org.jboss.netty.util.CharsetUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class TextlineFrameDecoderTest extends Assert {
+
+    @Test
+    public void testLineDelimiter() {
+        DecoderEmbedder<ChannelBuffer> decoder = new DecoderEmbedder<ChannelBuffer>(new TextlineFrameDecoder(1024, new byte[]{'\n'}, true));
+
+        decoder.offer(ChannelBuffers.copiedBuffer("Hello\r\nWorld\n\nBye", CharsetUtil.UTF_8));
+        assertEquals("Hello", decoder.poll().toString(CharsetUtil.UTF_8));
+        assertEquals("World", decoder.poll().toString(CharsetUtil.UTF_8));
+        assertEquals("", decoder.poll().toString(CharsetUtil.UTF_8));
+        assertNull(decoder.poll());
+
+        decoder.offer(ChannelBuffers.copiedBuffer(" World\n", CharsetUtil.UTF_8));
+        assertEquals("Bye World", decoder.poll().toString(CharsetUtil.UTF_8));
+    }
+
+    @Test
+    public void testMultiByteDelimiterReceivedByteByByte() {
+        byte[] delimiter = "\r\n\r\n".getBytes(CharsetUtil.UTF_8);
+        DecoderEmbedder<ChannelBuffer> decoder = new DecoderEmbedder<ChannelBuffer>(new TextlineFrameDecoder(1024, delimiter, false));
+
+        byte[] bytes = "GET / HTTP/1.0\r\nHost: camel\r\n\r\nGET /netty HTTP/1.0\r\n\r\n".getBytes(CharsetUtil.UTF_8);
+        for (byte b : bytes) {
+            decoder.offer(ChannelBuffers.wrappedBuffer(new byte[]{b}));
+        }
+        assertEquals("GET / HTTP/1.0\r\nHost: camel", decoder.poll().toString(CharsetUtil.UTF_8));
+        assertEquals("GET /netty HTTP/1.0", decoder.poll().toString(CharsetUtil.UTF_8));
+        assertNull(decoder.poll());
+    }
+
+    @Test
+    public void testTooLongLineIsDiscarded() {
+        DecoderEmbedder<ChannelBuffer> decoder = new DecoderEmbedder<ChannelBuffer>(new TextlineFrameDecoder(8, "||".getBytes(CharsetUtil.UTF_8), false));
+
+        // the line is discarded up to the delimiter which arrives later
+        decoder.offer(ChannelBuffers.copiedBuffer("0123456789", CharsetUtil.UTF_8));
+        try {
+            decoder.offer(ChannelBuffers.copiedBuffer("ABC|", CharsetUtil.UTF_8));
+            decoder.offer(ChannelBuffers.copiedBuffer("|Hello||", CharsetUtil.UTF_8));
+            fail("Should have thrown an exception");
+        } catch (CodecEmbedderException e) {
+            assertTrue(e.getCause() instanceof TooLongFrameException);
+        }
+
+        decoder.offer(ChannelBuffers.copiedBuffer("World||", CharsetUtil.UTF_8));
+        List<String> lines = new ArrayList<String>();
+        ChannelBuffer line;
+        while ((line = decoder.poll()) != null) {
+            lines.add(line.toString(CharsetUtil.UTF_8));
+        }
+        assertTrue("Should decode the lines after the discarded one: " + lines, lines.contains("World"));
+        assertFalse(lines.contains("ABC"));
+    }
+
+    @Test
+    public void testSameLinesAsDelimiterBasedFrameDecoder() {
+        Random random = new Random(5);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            int length = random.nextInt(100);
+            for (int j = 0; j < length; j++) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+            sb.append(random.nextBoolean() ? "\r\n" : "\n");
+        }
+        byte[] bytes = sb.toString().getBytes(CharsetUtil.UTF_8);
+
+        DecoderEmbedder<ChannelBuffer> expected = new DecoderEmbedder<ChannelBuffer>(new DelimiterBasedFrameDecoder(1024, true, Delimiters.lineDelimiter()));
+        DecoderEmbedder<ChannelBuffer> actual = new DecoderEmbedder<ChannelBuffer>(new TextlineFrameDecoder(1024, new byte[]{'\n'}, true));
+        int index = 0;
+        while (index < bytes.length) {
+            int length = Math.min(1 + random.nextInt(300), bytes.length - index);
+            expected.offer(ChannelBuffers.wrappedBuffer(bytes, index, length));
+            actual.offer(ChannelBuffers.wrappedBuffer(bytes, index, length));
+            index += length;
+        }
+
+        ChannelBuffer line;
+        int count = 0;
+        while ((line = expected.poll()) != null) {
+            assertEquals(line, actual.poll());
+            count++;
+        }
+        assertEquals(2000, count);
+        assertNull(actual.poll());
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.metrics;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class LatencyHistogramTest extends Assert {
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMean(), 0);
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(0.99));
+    }
+
+    @Test
+    public void testBuckets() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            long value = i < 10000 ? i : random.nextLong() >>> random.nextInt(63);
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue("Value " + value + " above its bucket", value <= LatencyHistogram.bucketUpperBound(index));
+            assertTrue("Value " + value + " below its bucket", index == 0 || value > LatencyHistogram.bucketUpperBound(index - 1));
+        }
+        LatencyHistogram.bucketIndex(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        histogram.record(-5);
+
+        assertEquals(1001, histogram.getCount());
+        assertEquals(1000000, histogram.getMax());
+        assertEquals(500000000d / 1001, histogram.getMean(), 0.001);
+        assertWithinError(500000, histogram.getValueAtPercentile(0.5));
+        assertWithinError(990000, histogram.getValueAtPercentile(0.99));
+        assertEquals(1000000, histogram.getValueAtPercentile(1));
+        assertEquals(0, histogram.getValueAtPercentile(0));
+    }
+
+    private static void assertWithinError(long expected, long actual) {
+        assertTrue("Expected " + expected + " but was " + actual, actual >= expected && actual <= expected * 1.0625);
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.metrics;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.netty.util.HashedWheelTimer;
+import org.jboss.netty.util.Timeout;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class StallDetectorTest extends Assert {
+
+    @Test
+    public void testNoCheckScheduledAfterStop() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer(1, TimeUnit.MILLISECONDS);
+        Set<Timeout> pending;
+        try {
+            StallDetector detector = new StallDetector(2);
+            // stop while the checks are rescheduling themselves, and start again
+            for (int i = 0; i < 100; i++) {
+                detector.start(timer);
+                Thread.sleep(i % 3);
+                detector.stop();
+            }
+            // let the checks which were running when stopped complete
+            Thread.sleep(100);
+        } finally {
+            pending = timer.stop();
+        }
+        for (Timeout timeout : pending) {
+            assertTrue("Should not reschedule after stop: " + timeout, timeout.isCancelled());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.ssl;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+
+import javax.net.ssl.SSLContext;
+
+import org.apache.camel.util.IOHelper;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class SSLEngineFactoryTest extends Assert {
+
+    private static final char[] PASSPHRASE = "changeit".toCharArray();
+
+    @Test
+    public void testReloadWhenModified() throws Exception {
+        File keyStore = new File("target/ssl/keystore.jks");
+        keyStore.getParentFile().mkdirs();
+        copy(new File("src/test/resources/keystore.jks"), keyStore);
+        long lastModified = keyStore.lastModified();
+
+        SSLEngineFactory factory = new SSLEngineFactory("JKS", "SunX509", keyStore, keyStore, PASSPHRASE);
+        SSLContext context = factory.getSSLContext();
+        assertFalse(factory.reloadIfModified());
+        assertSame(context, factory.getSSLContext());
+        assertTrue(factory.createServerSSLEngine().getNeedClientAuth());
+
+        // a key store which cannot be loaded keeps the current context
+        copy(new File("src/test/resources/test.txt"), keyStore);
+        keyStore.setLastModified(lastModified + 2000);
+        try {
+            factory.reloadIfModified();
+            fail("Should have thrown an exception");
+        } catch (Exception e) {
+            // expected
+        }
+        assertSame(context, factory.getSSLContext());
+
+        copy(new File("src/test/resources/keystore.jks"), keyStore);
+        keyStore.setLastModified(lastModified + 4000);
+        assertTrue(factory.reloadIfModified());
+        assertNotSame(context, factory.getSSLContext());
+        assertFalse(factory.reloadIfModified());
+    }
+
+    private static void copy(File from, File to) throws Exception {
+        OutputStream os = new FileOutputStream(to);
+        try {
+            IOHelper.copyAndCloseInput(new FileInputStream(from), os);
+        } finally {
+            os.close();
+        }
+    }
+}
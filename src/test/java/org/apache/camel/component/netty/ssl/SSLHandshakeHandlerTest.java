@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty.ssl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import javax.net.ssl.SSLSession;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @version 
+ */
+public class SSLHandshakeHandlerTest extends Assert {
+
+    @Test
+    public void testNewSessionIsFull() throws Exception {
+        SSLHandshakeHandler handler = new SSLHandshakeHandler(new SSLHandshakeStatistics());
+
+        // a session created long before the handshake is still a new session when its id has not been seen
+        assertFalse(handler.isResumed(session(new byte[] {1, 2, 3}, 0)));
+        assertFalse(handler.isResumed(session(new byte[] {4, 5, 6}, 0)));
+    }
+
+    @Test
+    public void testSeenSessionIsResumed() throws Exception {
+        SSLHandshakeHandler handler = new SSLHandshakeHandler(new SSLHandshakeStatistics());
+        long now = System.currentTimeMillis();
+
+        assertFalse(handler.isResumed(session(new byte[] {1, 2, 3}, now)));
+        assertTrue(handler.isResumed(session(new byte[] {1, 2, 3}, now)));
+
+        // the sessions seen by another handler, such as the other side of the connection, do not count
+        SSLHandshakeHandler other = new SSLHandshakeHandler(new SSLHandshakeStatistics());
+        assertFalse(other.isResumed(session(new byte[] {1, 2, 3}, now)));
+    }
+
+    @Test
+    public void testSessionWithoutId() throws Exception {
+        SSLHandshakeHandler handler = new SSLHandshakeHandler(new SSLHandshakeStatistics());
+
+        assertFalse(handler.isResumed(session(new byte[0], 0)));
+        assertFalse(handler.isResumed(session(new byte[0], 0)));
+    }
+
+    @Test
+    public void testForgetsOldestSessions() throws Exception {
+        SSLHandshakeHandler handler = new SSLHandshakeHandler(new SSLHandshakeStatistics());
+
+        for (int i = 0; i <= SSLHandshakeHandler.MAX_SESSION_IDS; i++) {
+            assertFalse(handler.isResumed(session(new byte[] {(byte) (i >> 8), (byte) i}, 0)));
+        }
+        assertFalse(handler.isResumed(session(new byte[] {0, 0}, 0)));
+    }
+
+    private static SSLSession session(final byte[] id, final long creationTime) {
+        return (SSLSession) Proxy.newProxyInstance(SSLSession.class.getClassLoader(), new Class[] {SSLSession.class}, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if ("getId".equals(method.getName())) {
+                    return id;
+                } else if ("getCreationTime".equals(method.getName())) {
+                    return creationTime;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}